@@ -0,0 +1,138 @@
+package com.utp.wemake.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+/**
+ * Actualiza una base de datos de la v1 hasta la actual y comprueba que la cola tasks_offline
+ * sobrevive. Room valida el esquema resultante contra app/schemas al terminar.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppDatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    // Tabla de la v1 tal como la creaba Room a partir de TaskModel (subtareas en JSON)
+    private static final String CREATE_TASKS_OFFLINE_V1 = "CREATE TABLE IF NOT EXISTS `tasks_offline` ("
+            + "`penaltyApplied` INTEGER NOT NULL, `id` TEXT NOT NULL, `title` TEXT, `description` TEXT, "
+            + "`deadline` INTEGER, `priority` TEXT, `subtasks` TEXT, `boardId` TEXT, `createdBy` TEXT, "
+            + "`createdAt` INTEGER, `isSynced` INTEGER NOT NULL, `isProposal` INTEGER NOT NULL, "
+            + "`status` TEXT, `rewardPoints` INTEGER NOT NULL, `penaltyPoints` INTEGER NOT NULL, "
+            + "`approvedBy` TEXT, `approvedAt` INTEGER, `reviewerId` TEXT, `assignedMembers` TEXT, "
+            + "`completedAt` INTEGER, PRIMARY KEY(`id`))";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void migrateFromVersion1_keepsOfflineQueue() throws IOException {
+        // No hay esquema exportado de la v1: se crea a mano como la dejaba la app
+        try (SQLiteDatabase v1 = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(TEST_DB), null)) {
+            v1.execSQL(CREATE_TASKS_OFFLINE_V1);
+            v1.insertOrThrow("tasks_offline", null, offlineTask("pending-task", "Tarea sin subir", false, false,
+                    "[{\"id\":\"s1\",\"text\":\"Primera\",\"completed\":true},"
+                            + "{\"text\":\"Segunda\",\"completed\":false}]"));
+            v1.insertOrThrow("tasks_offline", null, offlineTask("pending-proposal", "Propuesta sin subir", false, true, null));
+            v1.insertOrThrow("tasks_offline", null, offlineTask("synced-task", "Tarea ya subida", true, false, "[]"));
+            v1.setVersion(1);
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 8, true, AppDatabase.ALL_MIGRATIONS);
+
+        try (Cursor cursor = db.query("SELECT `id`, `title`, `isSynced`, `isProposal`, `boardId`, "
+                + "`rewardPoints`, `assignedMembers` FROM `tasks_offline` ORDER BY `id`")) {
+            assertEquals(3, cursor.getCount());
+
+            assertTrue(cursor.moveToNext());
+            assertEquals("pending-proposal", cursor.getString(0));
+            assertEquals("Propuesta sin subir", cursor.getString(1));
+            assertEquals(0, cursor.getInt(2));
+            assertEquals(1, cursor.getInt(3));
+
+            assertTrue(cursor.moveToNext());
+            assertEquals("pending-task", cursor.getString(0));
+            assertEquals("Tarea sin subir", cursor.getString(1));
+            assertEquals(0, cursor.getInt(2));
+            assertEquals(0, cursor.getInt(3));
+            assertEquals("board-1", cursor.getString(4));
+            assertEquals(10, cursor.getInt(5));
+            assertEquals("[\"user-1\"]", cursor.getString(6));
+
+            assertTrue(cursor.moveToNext());
+            assertEquals("synced-task", cursor.getString(0));
+            assertEquals(1, cursor.getInt(2));
+        }
+
+        // Las subtareas de la tarea pendiente pasan del JSON a task_subtasks, en orden
+        try (Cursor cursor = db.query("SELECT `id`, `text`, `completed` FROM `task_subtasks` "
+                + "WHERE `taskId` = 'pending-task' ORDER BY `position`")) {
+            assertEquals(2, cursor.getCount());
+
+            assertTrue(cursor.moveToNext());
+            assertEquals("s1", cursor.getString(0));
+            assertEquals("Primera", cursor.getString(1));
+            assertEquals(1, cursor.getInt(2));
+
+            assertTrue(cursor.moveToNext());
+            assertEquals("pos-1", cursor.getString(0));
+            assertEquals("Segunda", cursor.getString(1));
+            assertEquals(0, cursor.getInt(2));
+            assertFalse(cursor.moveToNext());
+        }
+        db.close();
+    }
+
+    private static ContentValues offlineTask(String id, String title, boolean synced, boolean proposal,
+                                             String subtasksJson) {
+        ContentValues values = new ContentValues();
+        values.put("penaltyApplied", 0);
+        values.put("id", id);
+        values.put("title", title);
+        values.put("boardId", "board-1");
+        values.put("createdBy", "user-1");
+        values.put("createdAt", 1700000000000L);
+        values.put("deadline", 1700600000000L);
+        values.put("priority", "high");
+        values.put("subtasks", subtasksJson);
+        values.put("isSynced", synced ? 1 : 0);
+        values.put("isProposal", proposal ? 1 : 0);
+        values.put("status", "pending");
+        values.put("rewardPoints", 10);
+        values.put("penaltyPoints", 5);
+        values.put("assignedMembers", "[\"user-1\"]");
+        return values;
+    }
+}
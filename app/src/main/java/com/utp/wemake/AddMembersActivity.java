@@ -16,6 +16,8 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
@@ -23,10 +25,10 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.utp.wemake.models.Member;
 import com.utp.wemake.models.User;
+import com.utp.wemake.utils.AvatarLoader;
 import com.utp.wemake.utils.BoardSelectionPrefs;
 import com.utp.wemake.viewmodels.AddMembersViewModel;
 
-import java.util.ArrayList;
 import java.util.Map;
 
 public class AddMembersActivity extends AppCompatActivity
@@ -110,14 +112,23 @@ public class AddMembersActivity extends AppCompatActivity
 
     private void setupRecyclerViews() {
         // Adapter para miembros del tablero
-        membersAdapter = new MembersAdapter(new ArrayList<>(), currentUserId, this);
+        membersAdapter = new MembersAdapter(currentUserId, this);
         rvMembers.setLayoutManager(new LinearLayoutManager(this));
         rvMembers.setAdapter(membersAdapter);
 
         // Adapter para resultados de búsqueda
-        searchAdapter = new SearchUsersAdapter(new ArrayList<>(), this);
+        searchAdapter = new SearchUsersAdapter(this);
         rvSearchResults.setLayoutManager(new LinearLayoutManager(this));
         rvSearchResults.setAdapter(searchAdapter);
+
+        // Los avatares de las filas siguientes se piden mientras se hace scroll
+        RequestManager glide = Glide.with(this);
+        rvMembers.addOnScrollListener(AvatarLoader.preloader(glide,
+                getResources().getDimensionPixelSize(R.dimen.avatar_size_member),
+                membersAdapter::getPhotoUrlAt));
+        rvSearchResults.addOnScrollListener(AvatarLoader.preloader(glide,
+                getResources().getDimensionPixelSize(R.dimen.avatar_size_search),
+                searchAdapter::getPhotoUrlAt));
     }
 
     private void setupSearch() {
@@ -19,7 +19,6 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.lifecycle.ViewModelProvider;
 
-import com.bumptech.glide.Glide;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
@@ -27,6 +26,7 @@ import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.shape.ShapeAppearanceModel;
 import com.utp.wemake.models.Board;
 import com.utp.wemake.models.User;
+import com.utp.wemake.utils.AvatarLoader;
 import com.utp.wemake.viewmodels.BoardViewModel;
 
 import java.util.List;
@@ -227,11 +227,7 @@ public class BoardSettingsActivity extends AppCompatActivity {
             User member = members.get(i);
             ShapeableImageView avatar = createAvatarImageView();
 
-            Glide.with(this)
-                    .load(member.getPhotoUrl())
-                    .placeholder(R.drawable.ic_default_avatar)
-                    .circleCrop()
-                    .into(avatar);
+            AvatarLoader.load(avatar, member.getPhotoUrl());
 
             membersAvatarContainer.addView(avatar);
         }
@@ -1,5 +1,7 @@
 package com.utp.wemake;
 
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.view.DragEvent;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -8,24 +10,67 @@ import android.widget.TextView;
 import android.content.ClipDescription;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.utp.wemake.constants.TaskConstants;
 import com.utp.wemake.models.KanbanColumn;
 import com.utp.wemake.models.TaskModel;
 import com.utp.wemake.repository.TaskRepository;
+import com.utp.wemake.utils.StableIds;
 
+import java.util.ArrayList;
 import java.util.List;
 
-public class ColumnAdapter extends RecyclerView.Adapter<ColumnAdapter.ColumnViewHolder> {
-    private List<KanbanColumn> columnList;
+public class ColumnAdapter extends ListAdapter<KanbanColumn, ColumnAdapter.ColumnViewHolder> {
+    // Tarjetas que faltan por ver cuando se pide la siguiente página
+    private static final int LOAD_MORE_THRESHOLD = 3;
+    // Payload: cambiaron las tareas (o la paginación) de la columna, no su título
+    private static final Object PAYLOAD_TASKS = new Object();
+    // Tarjetas que guarda el pool compartido entre columnas y cuántas se inflan por adelantado
+    private static final int TASK_CARD_POOL_SIZE = 16;
+    private static final int PREWARM_CARD_COUNT = 6;
+    // Tarjetas que cada columna prepara antes de que entren en pantalla
+    private static final int INITIAL_PREFETCH_CARDS = 3;
 
     private final TaskAdapter.OnTaskInteractionListener taskInteractionListener;
+    private final StableIds stableIds = new StableIds();
+    // Todas las columnas reciclan sus tarjetas en el mismo pool: pasar de una a otra no infla vistas nuevas
+    private final RecyclerView.RecycledViewPool taskCardPool = new RecyclerView.RecycledViewPool();
+    private OnLoadMoreListener loadMoreListener;
+
+    // Se llama al acercarse al final de una columna que tiene más tareas por cargar
+    public interface OnLoadMoreListener {
+        void onLoadMore(KanbanColumn column);
+    }
 
-    public ColumnAdapter(List<KanbanColumn> columnList, TaskAdapter.OnTaskInteractionListener listener) {
-        this.columnList = columnList;
+    public ColumnAdapter(TaskAdapter.OnTaskInteractionListener listener) {
+        super(DIFF_CALLBACK);
         this.taskInteractionListener = listener;
+        setHasStableIds(true);
+        taskCardPool.setMaxRecycledViews(TaskAdapter.VIEW_TYPE_CARD, TASK_CARD_POOL_SIZE);
+    }
+
+    /**
+     * Infla unas cuantas tarjetas en el pool compartido cuando el hilo principal queda libre,
+     * una por cada pausa, para que la primera columna no las tenga que crear al mostrarse.
+     * @param parent RecyclerView que se usa como padre para los LayoutParams de la tarjeta.
+     */
+    public void prewarmTaskCards(RecyclerView parent) {
+        TaskAdapter cardFactory = new TaskAdapter(taskInteractionListener);
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (!parent.isAttachedToWindow()
+                        || taskCardPool.getRecycledViewCount(TaskAdapter.VIEW_TYPE_CARD) >= PREWARM_CARD_COUNT) {
+                    return false;
+                }
+                taskCardPool.putRecycledView(cardFactory.createViewHolder(parent, TaskAdapter.VIEW_TYPE_CARD));
+                return true;
+            }
+        });
     }
 
     @NonNull
@@ -38,20 +83,31 @@ public class ColumnAdapter extends RecyclerView.Adapter<ColumnAdapter.ColumnView
 
     @Override
     public void onBindViewHolder(@NonNull ColumnViewHolder holder, int position) {
-        KanbanColumn column = columnList.get(position);
+        KanbanColumn column = getItem(position);
         holder.bind(column);
     }
 
     @Override
-    public int getItemCount() {
-        return columnList.size();
+    public void onBindViewHolder(@NonNull ColumnViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_TASKS)) {
+            // La columna conserva su adapter: el diff de sus tareas repinta solo las tarjetas que cambiaron
+            holder.bindTasks(getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getTitle());
     }
 
+    public void setOnLoadMoreListener(OnLoadMoreListener listener) {
+        this.loadMoreListener = listener;
+    }
 
     public void updateData(List<KanbanColumn> newColumns) {
-        this.columnList.clear();
-        this.columnList.addAll(newColumns);
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newColumns));
     }
 
 
@@ -59,34 +115,85 @@ public class ColumnAdapter extends RecyclerView.Adapter<ColumnAdapter.ColumnView
         TextView columnTitle;
         RecyclerView tasksRecyclerView;
         View emptyTaskListView;
+        final LinearLayoutManager layoutManager;
+        final TaskAdapter taskAdapter;
+        KanbanColumn boundColumn;
 
         public ColumnViewHolder(@NonNull View itemView) {
             super(itemView);
             columnTitle = itemView.findViewById(R.id.tv_column_title);
             tasksRecyclerView = itemView.findViewById(R.id.recycler_tasks);
             emptyTaskListView = itemView.findViewById(R.id.empty_task_list_view);
+
+            // El layout manager y el adapter de la columna se crean una sola vez por vista
+            layoutManager = new LinearLayoutManager(
+                    itemView.getContext(),
+                    LinearLayoutManager.HORIZONTAL,
+                    false
+            );
+            // Al salir de pantalla la columna devuelve sus tarjetas al pool para la siguiente
+            layoutManager.setRecycleChildrenOnDetach(true);
+            layoutManager.setInitialPrefetchItemCount(INITIAL_PREFETCH_CARDS);
+            tasksRecyclerView.setLayoutManager(layoutManager);
+            tasksRecyclerView.setRecycledViewPool(taskCardPool);
+            taskAdapter = new TaskAdapter(taskInteractionListener);
+            tasksRecyclerView.setAdapter(taskAdapter);
+
+            tasksRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    KanbanColumn column = boundColumn;
+                    if (column == null || !column.canLoadMore() || loadMoreListener == null) return;
+                    int lastVisible = layoutManager.findLastVisibleItemPosition();
+                    if (lastVisible >= layoutManager.getItemCount() - LOAD_MORE_THRESHOLD) {
+                        loadMoreListener.onLoadMore(column);
+                    }
+                }
+            });
         }
 
         public void bind(KanbanColumn column) {
             columnTitle.setText(column.getTitle());
+            bindTasks(column);
+        }
 
+        void bindTasks(KanbanColumn column) {
+            boundColumn = column;
             if (column.getTasks() == null || column.getTasks().isEmpty()){
                 tasksRecyclerView.setVisibility(View.GONE);
                 emptyTaskListView.setVisibility(View.VISIBLE);
             } else {
                 tasksRecyclerView.setVisibility(View.VISIBLE);
                 emptyTaskListView.setVisibility(View.GONE);
+            }
+            taskAdapter.updateTaskList(column.getTasks());
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<KanbanColumn> DIFF_CALLBACK = new DiffUtil.ItemCallback<KanbanColumn>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull KanbanColumn oldItem, @NonNull KanbanColumn newItem) {
+            return oldItem.getTitle().equals(newItem.getTitle());
+        }
 
-                LinearLayoutManager layoutManager = new LinearLayoutManager(
-                        itemView.getContext(),
-                        LinearLayoutManager.HORIZONTAL,
-                        false
-                );
-                tasksRecyclerView.setLayoutManager(layoutManager);
+        @Override
+        public boolean areContentsTheSame(@NonNull KanbanColumn oldItem, @NonNull KanbanColumn newItem) {
+            return oldItem.canLoadMore() == newItem.canLoadMore()
+                    && sameTaskInstances(oldItem.getTasks(), newItem.getTasks());
+        }
 
-                TaskAdapter taskAdapter = new TaskAdapter(column.getTasks(), getAdapterPosition(), taskInteractionListener);
-                tasksRecyclerView.setAdapter(taskAdapter);
+        @Override
+        public Object getChangePayload(@NonNull KanbanColumn oldItem, @NonNull KanbanColumn newItem) {
+            return PAYLOAD_TASKS;
+        }
+
+        private boolean sameTaskInstances(List<TaskModel> before, List<TaskModel> after) {
+            if (before == null || after == null) return before == after;
+            if (before.size() != after.size()) return false;
+            for (int i = 0; i < before.size(); i++) {
+                if (before.get(i) != after.get(i)) return false;
             }
+            return true;
         }
-    }
-}
\ No newline at end of file
+    };
+}
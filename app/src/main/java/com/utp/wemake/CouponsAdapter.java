@@ -5,16 +5,22 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.utp.wemake.models.Coupon;
-import java.util.ArrayList;
+import com.utp.wemake.utils.StableIds;
 import java.util.List;
+import java.util.Objects;
 
-public class CouponsAdapter extends RecyclerView.Adapter<CouponsAdapter.CouponViewHolder> {
+public class CouponsAdapter extends ListAdapter<Coupon, CouponsAdapter.CouponViewHolder> {
+
+    // Payload: cambió el saldo del usuario, solo hay que re-evaluar el botón de canje
+    private static final Object PAYLOAD_POINTS = new Object();
 
-    private List<Coupon> couponList = new ArrayList<>();
     private final OnRedeemClickListener listener;
+    private final StableIds stableIds = new StableIds();
     private int userPoints = 0;
 
     public interface OnRedeemClickListener {
@@ -22,17 +28,15 @@ public class CouponsAdapter extends RecyclerView.Adapter<CouponsAdapter.CouponVi
     }
 
     public CouponsAdapter(OnRedeemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
-    }
-
-    public void submitList(List<Coupon> coupons) {
-        this.couponList = coupons;
-        notifyDataSetChanged();
+        setHasStableIds(true);
     }
 
     public void setUserPoints(int points) {
+        if (this.userPoints == points) return;
         this.userPoints = points;
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_POINTS);
     }
 
     @NonNull
@@ -44,13 +48,23 @@ public class CouponsAdapter extends RecyclerView.Adapter<CouponsAdapter.CouponVi
 
     @Override
     public void onBindViewHolder(@NonNull CouponViewHolder holder, int position) {
-        Coupon coupon = couponList.get(position);
+        Coupon coupon = getItem(position);
         holder.bind(coupon, userPoints, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return couponList.size();
+    public void onBindViewHolder(@NonNull CouponViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_POINTS)) {
+            holder.bindRedeemButton(getItem(position), userPoints, listener);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        Coupon coupon = getItem(position);
+        return stableIds.idFor(coupon.getId() != null ? coupon.getId() : "#" + position);
     }
 
     static class CouponViewHolder extends RecyclerView.ViewHolder {
@@ -68,7 +82,10 @@ public class CouponsAdapter extends RecyclerView.Adapter<CouponsAdapter.CouponVi
             tvTitle.setText(coupon.getTitle());
             tvDescription.setText(coupon.getDescription());
             btnRedeem.setText(String.valueOf(coupon.getCost()));
+            bindRedeemButton(coupon, userPoints, listener);
+        }
 
+        void bindRedeemButton(Coupon coupon, int userPoints, OnRedeemClickListener listener) {
             // Lógica para habilitar/deshabilitar el botón
             if (userPoints >= coupon.getCost()) {
                 btnRedeem.setEnabled(true);
@@ -79,4 +96,17 @@ public class CouponsAdapter extends RecyclerView.Adapter<CouponsAdapter.CouponVi
             }
         }
     }
-}
\ No newline at end of file
+
+    private static final DiffUtil.ItemCallback<Coupon> DIFF_CALLBACK = new DiffUtil.ItemCallback<Coupon>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Coupon oldItem, @NonNull Coupon newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+        @Override
+        public boolean areContentsTheSame(@NonNull Coupon oldItem, @NonNull Coupon newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle()) &&
+                    Objects.equals(oldItem.getDescription(), newItem.getDescription()) &&
+                    oldItem.getCost() == newItem.getCost();
+        }
+    };
+}
@@ -16,19 +16,21 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.utp.wemake.constants.TaskConstants;
 import com.utp.wemake.models.TaskModel;
+import com.utp.wemake.utils.TaskDayIndex;
 import com.utp.wemake.viewmodels.TasksViewModel;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TimeZone;
 
 public class DailyTimelineActivity extends AppCompatActivity implements TimelineTaskAdapter.OnTaskClickListener {
 
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
     private String boardIdFilter = null;
     private String boardName = null;
 
@@ -44,10 +46,12 @@ public class DailyTimelineActivity extends AppCompatActivity implements Timeline
     private DateAdapter dateAdapter;
     private TimelineTaskAdapter taskAdapter;
 
-    private List<TaskModel> allTasks = new ArrayList<>();
-    private Date selectedDate = new Date();
+    // Tareas por día de vencimiento; se actualiza con cada cambio de la lista de tareas
+    private TaskDayIndex dayIndex;
+    private long selectedDay;
+    private boolean selectedDayShown = false;
+    // Se formatea el día como medianoche UTC
     private SimpleDateFormat headerFormat = new SimpleDateFormat("d 'de' MMMM", Locale.getDefault());
-    private SimpleDateFormat dayFormat = new SimpleDateFormat("EEEE", Locale.getDefault());
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -55,16 +59,20 @@ public class DailyTimelineActivity extends AppCompatActivity implements Timeline
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_daily_timeline);
 
+        // Obtener extras del intent
+        boardIdFilter = getIntent().getStringExtra("EXTRA_BOARD_ID");
+        boardName = getIntent().getStringExtra("EXTRA_BOARD_NAME");
+
+        headerFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        dayIndex = new TaskDayIndex(task -> boardIdFilter == null || boardIdFilter.equals(task.getBoardId()));
+        selectedDay = today();
+
         initializeViews();
         setupListeners();
         setupDatesRecyclerView();
         setupTasksRecyclerView();
         setupViewModel();
 
-        // Obtener extras del intent
-        boardIdFilter = getIntent().getStringExtra("EXTRA_BOARD_ID");
-        boardName = getIntent().getStringExtra("EXTRA_BOARD_NAME");
-
         if (boardName != null) {
             tvTodayLabel.setText("Timeline - " + boardName);
         }
@@ -86,37 +94,29 @@ public class DailyTimelineActivity extends AppCompatActivity implements Timeline
 
         swipeRefreshLayout.setOnRefreshListener(() -> {
             if (viewModel != null) {
-                viewModel.loadAllUserTasks();
+                viewModel.loadTimelineTasks();
             }
         });
     }
 
     private void setupDatesRecyclerView() {
-        // Generar fechas: 15 días atrás y 30 días adelante
-        List<Date> dateList = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.DAY_OF_YEAR, -15);
-
-        for (int i = 0; i < 45; i++) {
-            dateList.add(cal.getTime());
-            cal.add(Calendar.DAY_OF_YEAR, 1);
-        }
-
-        dateAdapter = new DateAdapter(dateList, date -> {
-            selectedDate = date;
-            filterTasksByDate(selectedDate);
-            updateSelectedDateLabel(selectedDate);
+        // La tira de fechas no tiene límite: cada posición es un día y se calcula al mostrarse
+        dateAdapter = new DateAdapter(selectedDay, day -> {
+            selectedDay = day;
+            filterTasksByDate(selectedDay);
+            updateSelectedDateLabel(selectedDay);
         });
+        dateAdapter.setDaysWithTasks(dayIndex::hasTasksOn);
 
         LinearLayoutManager layoutManager = new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false);
         recyclerDates.setLayoutManager(layoutManager);
         recyclerDates.setAdapter(dateAdapter);
 
-        // Scroll automático al día de hoy (posición 15)
-        recyclerDates.post(() -> layoutManager.scrollToPosition(15));
+        // Scroll automático al día de hoy
+        layoutManager.scrollToPosition(dateAdapter.getPositionForDay(selectedDay));
 
         // Actualizar label inicial
-        updateSelectedDateLabel(selectedDate);
+        updateSelectedDateLabel(selectedDay);
     }
 
     private void setupTasksRecyclerView() {
@@ -127,40 +127,33 @@ public class DailyTimelineActivity extends AppCompatActivity implements Timeline
 
     private void setupViewModel() {
         viewModel = new ViewModelProvider(this).get(TasksViewModel.class);
-        viewModel.loadAllUserTasks();
-        viewModel.getAllTasks().observe(this, tasks -> {
-            allTasks = tasks != null ? tasks : new ArrayList<>();
-            filterTasksByDate(selectedDate);
-            updateDatesWithTasks();
+        viewModel.loadTimelineTasks();
+        // No la lista paginada: el timeline necesita las completadas de días pasados
+        viewModel.getTimelineTasks().observe(this, tasks -> {
+            Set<Long> changedDays = dayIndex.update(tasks != null ? tasks : Collections.emptyList());
+            dateAdapter.notifyDaysChanged(changedDays);
+            // Solo se vuelve a armar la lista si cambió el día que se está viendo
+            if (!selectedDayShown || changedDays.contains(selectedDay)) {
+                filterTasksByDate(selectedDay);
+            }
             swipeRefreshLayout.setRefreshing(false);
         });
     }
 
-    private void filterTasksByDate(Date date) {
-        List<TaskModel> dailyTasks = new ArrayList<>();
-
-        for (TaskModel task : allTasks) {
-            boolean sameDate = task.getDeadline() != null && isSameDay(task.getDeadline(), date);
-            boolean sameBoard = boardIdFilter == null || boardIdFilter.equals(task.getBoardId());
-            boolean isCompleted = TaskConstants.STATUS_COMPLETED.equals(task.getStatus());
-
-            if (sameDate && sameBoard) {
-                dailyTasks.add(task);
-            }
-        }
+    private void filterTasksByDate(long day) {
+        selectedDayShown = true;
+        List<TaskModel> dailyTasks = dayIndex.tasksOn(day);
 
         // Ordenar: primero atrasadas, luego por hora
+        long now = System.currentTimeMillis();
         Collections.sort(dailyTasks, (t1, t2) -> {
-            boolean t1Overdue = isTaskOverdue(t1);
-            boolean t2Overdue = isTaskOverdue(t2);
+            boolean t1Overdue = isTaskOverdue(t1, now);
+            boolean t2Overdue = isTaskOverdue(t2, now);
 
             if (t1Overdue && !t2Overdue) return -1;
             if (!t1Overdue && t2Overdue) return 1;
 
-            if (t1.getDeadline() != null && t2.getDeadline() != null) {
-                return t1.getDeadline().compareTo(t2.getDeadline());
-            }
-            return 0;
+            return t1.getDeadline().compareTo(t2.getDeadline());
         });
 
         // Actualizar contadores
@@ -181,61 +174,30 @@ public class DailyTimelineActivity extends AppCompatActivity implements Timeline
         recyclerTasks.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
     }
 
-    private void updateDatesWithTasks() {
-        List<Date> datesWithTasks = allTasks.stream()
-                .filter(task -> task.getDeadline() != null)
-                .filter(task -> boardIdFilter == null || boardIdFilter.equals(task.getBoardId()))
-                .map(TaskModel::getDeadline)
-                .distinct()
-                .collect(Collectors.toList());
-
-        dateAdapter.setDatesWithTasks(datesWithTasks);
-    }
-
-    private void updateSelectedDateLabel(Date date) {
-        Calendar cal = Calendar.getInstance();
-        Calendar selectedCal = Calendar.getInstance();
-        selectedCal.setTime(date);
-
-        Calendar today = Calendar.getInstance();
-        today.set(Calendar.HOUR_OF_DAY, 0);
-        today.set(Calendar.MINUTE, 0);
-        today.set(Calendar.SECOND, 0);
-        today.set(Calendar.MILLISECOND, 0);
-
-        selectedCal.set(Calendar.HOUR_OF_DAY, 0);
-        selectedCal.set(Calendar.MINUTE, 0);
-        selectedCal.set(Calendar.SECOND, 0);
-        selectedCal.set(Calendar.MILLISECOND, 0);
-
-        if (selectedCal.equals(today)) {
+    private void updateSelectedDateLabel(long day) {
+        long today = today();
+        if (day == today) {
             tvSelectedDate.setText("Hoy");
-        } else if (selectedCal.getTimeInMillis() == today.getTimeInMillis() + 86400000) {
+        } else if (day == today + 1) {
             tvSelectedDate.setText("Mañana");
-        } else if (selectedCal.getTimeInMillis() == today.getTimeInMillis() - 86400000) {
+        } else if (day == today - 1) {
             tvSelectedDate.setText("Ayer");
         } else {
-            tvSelectedDate.setText(headerFormat.format(date));
+            tvSelectedDate.setText(headerFormat.format(new Date(day * DAY_MS)));
         }
 
-        dateAdapter.setSelectedDate(date);
+        dateAdapter.setSelectedDay(day);
     }
 
-    private boolean isSameDay(Date d1, Date d2) {
-        Calendar c1 = Calendar.getInstance();
-        c1.setTime(d1);
-        Calendar c2 = Calendar.getInstance();
-        c2.setTime(d2);
-        return c1.get(Calendar.DAY_OF_YEAR) == c2.get(Calendar.DAY_OF_YEAR) &&
-                c1.get(Calendar.YEAR) == c2.get(Calendar.YEAR);
+    private static long today() {
+        return TaskDayIndex.epochDay(System.currentTimeMillis(), TimeZone.getDefault());
     }
 
-    private boolean isTaskOverdue(TaskModel task) {
+    private boolean isTaskOverdue(TaskModel task, long now) {
         if (task.getDeadline() == null) return false;
         if (TaskConstants.STATUS_COMPLETED.equals(task.getStatus())) return false;
 
-        Date now = new Date();
-        return task.getDeadline().before(now);
+        return task.getDeadline().getTime() < now;
     }
 
     @Override
@@ -55,6 +55,7 @@ public class DataFragment extends Fragment {
     private BarChart barChart;
     private PieChart pieChart;
     private RecyclerView rvAtRiskTasks, rvLeaderboard;
+    private TextView tvLeaderboardMessage;
 
     public DataFragment() {
         // Required empty public constructor
@@ -92,6 +93,7 @@ public class DataFragment extends Fragment {
         pieChart = view.findViewById(R.id.pie_chart_priority);
         rvAtRiskTasks = view.findViewById(R.id.rv_at_risk_tasks);
         rvLeaderboard = view.findViewById(R.id.rv_leaderboard);
+        tvLeaderboardMessage = view.findViewById(R.id.tv_leaderboard_message);
     }
 
     private void setupToolbar(View view) {
@@ -148,6 +150,12 @@ public class DataFragment extends Fragment {
                 rvLeaderboard.setAdapter(new LeaderboardAdapter(leaderboard));
             }
         });
+
+        // El ranking viene de la API: si falla sin copia guardada se avisa en su sección
+        dashboardViewModel.getLeaderboardError().observe(getViewLifecycleOwner(), error -> {
+            tvLeaderboardMessage.setVisibility(error != null ? View.VISIBLE : View.GONE);
+            rvLeaderboard.setVisibility(error != null ? View.GONE : View.VISIBLE);
+        });
     }
 
     /**
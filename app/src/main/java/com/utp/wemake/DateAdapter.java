@@ -11,43 +11,76 @@ import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
 
+/**
+ * Tira de fechas sin límite práctico: cada posición es un día (días locales desde 1970)
+ * y la fecha se calcula al enlazar la vista, así que no hay lista de fechas que generar.
+ * Hoy queda en el centro del rango.
+ */
 public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder> {
 
-    private List<Date> dates;
-    private int selectedPosition = 0;
+    // Cien años hacia cada lado
+    private static final int DAYS_EACH_SIDE = 36_500;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    // Payloads: cambió la selección o el indicador de tareas; el texto del día no cambia nunca
+    private static final Object PAYLOAD_SELECTION = new Object();
+    private static final Object PAYLOAD_HAS_TASKS = new Object();
+
+    private final long centerDay;
+    private long selectedDay;
     private OnDateClickListener listener;
-    private List<Date> datesWithTasks; // Fechas que tienen tareas
+    private DaysWithTasks daysWithTasks = day -> false;
 
+    // Los días se formatean como medianoche UTC, sin Calendar por vista
     private SimpleDateFormat dayNameFormat = new SimpleDateFormat("EEE", Locale.US);
     private SimpleDateFormat dayNumberFormat = new SimpleDateFormat("dd", Locale.getDefault());
 
     public interface OnDateClickListener {
-        void onDateClick(Date date);
+        void onDateClick(long epochDay);
+    }
+
+    public interface DaysWithTasks {
+        boolean hasTasksOn(long epochDay);
     }
 
-    public DateAdapter(List<Date> dates, OnDateClickListener listener) {
-        this.dates = dates;
+    public DateAdapter(long today, OnDateClickListener listener) {
+        this.centerDay = today;
+        this.selectedDay = today;
         this.listener = listener;
-        this.datesWithTasks = new java.util.ArrayList<>();
-
-        // Buscar el día de hoy para seleccionarlo por defecto
-        Calendar today = Calendar.getInstance();
-        for (int i = 0; i < dates.size(); i++) {
-            if (isSameDay(dates.get(i), today.getTime())) {
-                selectedPosition = i;
-                break;
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        dayNameFormat.setTimeZone(utc);
+        dayNumberFormat.setTimeZone(utc);
+        setHasStableIds(true);
+    }
+
+    public void setDaysWithTasks(DaysWithTasks daysWithTasks) {
+        this.daysWithTasks = daysWithTasks;
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_HAS_TASKS);
+    }
+
+    /**
+     * Vuelve a pintar solo los días cuyo indicador puede haber cambiado.
+     */
+    public void notifyDaysChanged(Collection<Long> days) {
+        for (long day : days) {
+            int position = getPositionForDay(day);
+            if (position >= 0 && position < getItemCount()) {
+                notifyItemChanged(position, PAYLOAD_HAS_TASKS);
             }
         }
     }
 
-    public void setDatesWithTasks(List<Date> datesWithTasks) {
-        this.datesWithTasks = datesWithTasks != null ? datesWithTasks : new java.util.ArrayList<>();
-        notifyDataSetChanged();
+    public int getPositionForDay(long epochDay) {
+        return (int) (epochDay - centerDay) + DAYS_EACH_SIDE;
+    }
+
+    public long getDayAt(int position) {
+        return centerDay + position - DAYS_EACH_SIDE;
     }
 
     @NonNull
@@ -60,37 +93,39 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull DateViewHolder holder, int position) {
-        Date date = dates.get(position);
-        boolean hasTasks = datesWithTasks.contains(date) ||
-                datesWithTasks.stream().anyMatch(d -> isSameDay(d, date));
+        long day = getDayAt(position);
+        holder.bind(day, day == selectedDay, daysWithTasks.hasTasksOn(day));
+    }
 
-        holder.bind(date, position == selectedPosition, hasTasks);
+    @Override
+    public void onBindViewHolder(@NonNull DateViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        long day = getDayAt(position);
+        for (Object payload : payloads) {
+            if (payload == PAYLOAD_SELECTION) holder.bindSelection(day == selectedDay);
+            if (payload == PAYLOAD_HAS_TASKS) holder.bindHasTasks(daysWithTasks.hasTasksOn(day));
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return dates.size();
+    public long getItemId(int position) {
+        return getDayAt(position);
     }
 
-    public void setSelectedDate(Date date) {
-        int previousPosition = selectedPosition;
-        for (int i = 0; i < dates.size(); i++) {
-            if (isSameDay(dates.get(i), date)) {
-                selectedPosition = i;
-                notifyItemChanged(previousPosition);
-                notifyItemChanged(selectedPosition);
-                break;
-            }
-        }
+    @Override
+    public int getItemCount() {
+        return DAYS_EACH_SIDE * 2 + 1;
     }
 
-    private boolean isSameDay(Date d1, Date d2) {
-        Calendar c1 = Calendar.getInstance();
-        c1.setTime(d1);
-        Calendar c2 = Calendar.getInstance();
-        c2.setTime(d2);
-        return c1.get(Calendar.DAY_OF_YEAR) == c2.get(Calendar.DAY_OF_YEAR) &&
-                c1.get(Calendar.YEAR) == c2.get(Calendar.YEAR);
+    public void setSelectedDay(long epochDay) {
+        if (epochDay == selectedDay) return;
+        long previousDay = selectedDay;
+        selectedDay = epochDay;
+        notifyItemChanged(getPositionForDay(previousDay), PAYLOAD_SELECTION);
+        notifyItemChanged(getPositionForDay(selectedDay), PAYLOAD_SELECTION);
     }
 
     class DateViewHolder extends RecyclerView.ViewHolder {
@@ -104,13 +139,28 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
             viewHasTasks = itemView.findViewById(R.id.view_has_tasks);
         }
 
-        void bind(Date date, boolean isSelected, boolean hasTasks) {
+        void bind(long day, boolean isSelected, boolean hasTasks) {
+            Date date = new Date(day * DAY_MS);
             tvDayName.setText(dayNameFormat.format(date).toUpperCase());
             tvDayNumber.setText(dayNumberFormat.format(date));
 
+            bindHasTasks(hasTasks);
+            bindSelection(isSelected);
+
+            itemView.setOnClickListener(v -> {
+                setSelectedDay(day);
+                if (listener != null) {
+                    listener.onDateClick(day);
+                }
+            });
+        }
+
+        void bindHasTasks(boolean hasTasks) {
             // Indicador de tareas
             viewHasTasks.setVisibility(hasTasks ? View.VISIBLE : View.GONE);
+        }
 
+        void bindSelection(boolean isSelected) {
             if (isSelected) {
                 // Estilo Seleccionado: Fondo blanco, texto azul
                 tvDayNumber.setBackgroundResource(R.drawable.bg_date_selected);
@@ -124,17 +174,6 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
                 tvDayName.setAlpha(0.6f);
                 tvDayName.setTextColor(Color.WHITE);
             }
-
-            itemView.setOnClickListener(v -> {
-                int previousItem = selectedPosition;
-                selectedPosition = getAdapterPosition();
-                notifyItemChanged(previousItem);
-                notifyItemChanged(selectedPosition);
-
-                if (listener != null) {
-                    listener.onDateClick(date);
-                }
-            });
         }
     }
-}
\ No newline at end of file
+}
@@ -23,17 +23,16 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.utp.wemake.models.Board;
 import com.utp.wemake.models.KanbanColumn;
 import com.utp.wemake.models.TaskModel;
+import com.utp.wemake.utils.AvatarLoader;
 import com.utp.wemake.viewmodels.HomeViewModel;
 import com.utp.wemake.viewmodels.MainViewModel;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -148,8 +147,12 @@ public class HomeFragment extends Fragment implements TaskAdapter.OnTaskInteract
                 new LinearLayoutManager(getContext())
         );
 
-        columnAdapter = new ColumnAdapter(new ArrayList<>(), this);
+        columnAdapter = new ColumnAdapter(this);
+        // Solo la columna de completadas se pagina
+        columnAdapter.setOnLoadMoreListener(column -> homeViewModel.loadMoreCompletedTasks());
         kanbanBoardRecycler.setAdapter(columnAdapter);
+        // post(): las tarjetas se inflan ya con la vista adjunta, en las pausas del hilo principal
+        kanbanBoardRecycler.post(() -> columnAdapter.prewarmTaskCards(kanbanBoardRecycler));
 
         setupSummaryCards(view);
     }
@@ -180,11 +183,7 @@ public class HomeFragment extends Fragment implements TaskAdapter.OnTaskInteract
                 if (user.getName() != null) {
                     profileName.setText(user.getName().split(" ")[0]);
                 }
-                Glide.with(this)
-                        .load(user.getPhotoUrl())
-                        .placeholder(R.drawable.ic_default_avatar)
-                        .circleCrop()
-                        .into(profileAvatar);
+                AvatarLoader.load(profileAvatar, user.getPhotoUrl());
             }
         });
 
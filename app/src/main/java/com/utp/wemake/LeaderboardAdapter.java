@@ -7,9 +7,9 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.utp.wemake.dto.LeaderboardResponse;
+import com.utp.wemake.utils.AvatarLoader;
 
 import java.util.List;
 import java.util.Locale;
@@ -89,13 +89,8 @@ public class LeaderboardAdapter extends RecyclerView.Adapter<LeaderboardAdapter.
             // Establecer los puntos, formateando el texto
             tvPoints.setText(String.format(Locale.getDefault(), "%d pts", user.points));
 
-            // Cargar la imagen del avatar usando la librería Glide
-            Glide.with(itemView.getContext())
-                    .load(user.photoUrl)
-                    .placeholder(R.drawable.ic_default_avatar) // Imagen de reserva mientras carga
-                    .error(R.drawable.ic_default_avatar)      // Imagen de reserva si la URL falla
-                    .circleCrop() // Para que la imagen sea redonda
-                    .into(ivAvatar);
+            // Cargar el avatar al tamaño de la vista
+            AvatarLoader.load(ivAvatar, user.photoUrl);
         }
     }
 }
\ No newline at end of file
@@ -9,23 +9,33 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.utp.wemake.models.Member;
 import com.utp.wemake.models.User; // <-- Asegúrate de importar tu modelo User
+import com.utp.wemake.utils.AvatarLoader;
+import com.utp.wemake.utils.StableIds;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
-public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberViewHolder> {
+public class MembersAdapter extends ListAdapter<Map<String, Object>, MembersAdapter.MemberViewHolder> {
+
+    // Partes de la fila que se pueden repintar por separado
+    private static final String PAYLOAD_AVATAR = "avatar";
+    private static final String PAYLOAD_PROFILE = "profile";
+    private static final String PAYLOAD_ROLE = "role";
 
-    private List<Map<String, Object>> membersDataList;
     private OnMemberClickListener listener;
     private String currentUserId;
+    private final StableIds stableIds = new StableIds();
 
     public interface OnMemberClickListener {
         void onMemberClick(Map<String, Object> memberData);
@@ -33,10 +43,11 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
         void onMemberAdded(User user);
     }
 
-    public MembersAdapter(List<Map<String, Object>> membersDataList, String currentUserId, OnMemberClickListener listener) {
-        this.membersDataList = membersDataList;
+    public MembersAdapter(String currentUserId, OnMemberClickListener listener) {
+        super(DIFF_CALLBACK);
         this.currentUserId = currentUserId;
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -49,19 +60,56 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
 
     @Override
     public void onBindViewHolder(@NonNull MemberViewHolder holder, int position) {
-        Map<String, Object> memberData = membersDataList.get(position);
+        Map<String, Object> memberData = getItem(position);
         holder.bind(memberData);
     }
 
     @Override
-    public int getItemCount() {
-        return membersDataList.size();
+    public void onBindViewHolder(@NonNull MemberViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        User user = userOf(getItem(position));
+        Member member = memberOf(getItem(position));
+        if (user == null || member == null) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (Object payload : payloads) {
+            List<?> parts = (List<?>) payload;
+            if (parts.contains(PAYLOAD_AVATAR)) holder.bindAvatar(user);
+            if (parts.contains(PAYLOAD_PROFILE)) holder.bindProfile(user);
+            if (parts.contains(PAYLOAD_ROLE)) holder.bindRole(member);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        User user = userOf(getItem(position));
+        // Una fila con datos incompletos no tiene ID propio; se identifica por su posición
+        return stableIds.idFor(user != null && user.getUserid() != null ? user.getUserid() : "#" + position);
     }
 
     public void updateMembers(List<Map<String, Object>> newMembers) {
-        this.membersDataList.clear();
-        this.membersDataList.addAll(newMembers);
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newMembers));
+    }
+
+    /**
+     * Foto del miembro en una posición, para precargarla antes de que la fila se muestre.
+     */
+    public String getPhotoUrlAt(int position) {
+        if (position < 0 || position >= getItemCount()) return null;
+        User user = userOf(getItem(position));
+        return user != null ? user.getPhotoUrl() : null;
+    }
+
+    private static User userOf(Map<String, Object> memberData) {
+        return (User) memberData.get("user");
+    }
+
+    private static Member memberOf(Map<String, Object> memberData) {
+        return (Member) memberData.get("member");
     }
 
 
@@ -84,6 +132,22 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
             chipRole = itemView.findViewById(R.id.chipRole);
             btnRemoveMember = itemView.findViewById(R.id.btnRemoveMember);
             this.listener = listener;
+
+            // Los listeners leen los datos actuales de la fila, así un rebind parcial no los deja desactualizados
+            chipRole.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                this.listener.onMemberClick(getItem(position));
+            });
+
+            btnRemoveMember.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                User user = userOf(getItem(position));
+                if (user != null) {
+                    this.listener.onMemberDeleted(user.getUserid());
+                }
+            });
         }
 
         /**
@@ -91,8 +155,8 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
          * Ahora acepta un Map en lugar de un solo objeto Member.
          */
         public void bind(Map<String, Object> memberData) {
-            User user = (User) memberData.get("user");
-            Member member = (Member) memberData.get("member");
+            User user = userOf(memberData);
+            Member member = memberOf(memberData);
 
             if (user == null || member == null) {
                 Log.e("MembersAdapter", "Datos de miembro incompletos en la posición: " + getAdapterPosition());
@@ -101,35 +165,18 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
             }
             itemView.setVisibility(View.VISIBLE);
 
+            bindAvatar(user);
+            bindProfile(user);
+            bindRole(member);
+        }
 
-            String imageUrl = user.getPhotoUrl();
-            if (imageUrl != null && !imageUrl.isEmpty()) {
-                Glide.with(itemView.getContext())
-                        .load(imageUrl)
-                        .placeholder(R.drawable.ic_default_avatar)
-                        .error(R.drawable.ic_default_avatar)
-                        .circleCrop()
-                        .into(imgAvatar);
-            } else {
-                imgAvatar.setImageResource(R.drawable.ic_default_avatar);
-            }
-
+        void bindAvatar(User user) {
+            AvatarLoader.load(imgAvatar, user.getPhotoUrl());
+        }
 
-            tvName.setText(user.getName());
+        void bindProfile(User user) {
             tvEmail.setText(user.getEmail());
 
-            String role = member.getRole();
-            chipRole.setText(role.substring(0, 1).toUpperCase() + role.substring(1));
-
-            Context context = itemView.getContext();
-            if (member.isAdmin()) {
-                chipRole.setChipBackgroundColorResource(R.color.md_theme_primaryContainer);
-                chipRole.setTextColor(ContextCompat.getColor(context, R.color.md_theme_onPrimaryContainer));
-            } else {
-                chipRole.setChipBackgroundColorResource(R.color.md_theme_secondaryContainer);
-                chipRole.setTextColor(ContextCompat.getColor(context, R.color.md_theme_onSecondaryContainer));
-            }
-
             String memberUserId = user.getUserid();
 
             // Comparamos el ID del miembro de esta fila con el ID del usuario actual
@@ -144,14 +191,62 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
                 btnRemoveMember.setVisibility(View.VISIBLE); // Mostramos el botón de eliminar
                 chipRole.setClickable(true); // Habilitamos el clic en el rol
             }
+        }
 
-            chipRole.setOnClickListener(v -> {
-                    listener.onMemberClick(memberData);
-            });
+        void bindRole(Member member) {
+            String role = member.getRole();
+            chipRole.setText(role.substring(0, 1).toUpperCase() + role.substring(1));
 
-            btnRemoveMember.setOnClickListener(v -> {
-                listener.onMemberDeleted(user.getUserid());
-            });
+            Context context = itemView.getContext();
+            if (member.isAdmin()) {
+                chipRole.setChipBackgroundColorResource(R.color.md_theme_primaryContainer);
+                chipRole.setTextColor(ContextCompat.getColor(context, R.color.md_theme_onPrimaryContainer));
+            } else {
+                chipRole.setChipBackgroundColorResource(R.color.md_theme_secondaryContainer);
+                chipRole.setTextColor(ContextCompat.getColor(context, R.color.md_theme_onSecondaryContainer));
+            }
         }
     }
-}
\ No newline at end of file
+
+    private static final DiffUtil.ItemCallback<Map<String, Object>> DIFF_CALLBACK = new DiffUtil.ItemCallback<Map<String, Object>>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Map<String, Object> oldItem, @NonNull Map<String, Object> newItem) {
+            User oldUser = userOf(oldItem);
+            User newUser = userOf(newItem);
+            return oldUser != null && newUser != null
+                    && Objects.equals(oldUser.getUserid(), newUser.getUserid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Map<String, Object> oldItem, @NonNull Map<String, Object> newItem) {
+            return changedParts(oldItem, newItem).isEmpty();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Map<String, Object> oldItem, @NonNull Map<String, Object> newItem) {
+            return changedParts(oldItem, newItem);
+        }
+
+        private List<String> changedParts(Map<String, Object> oldItem, Map<String, Object> newItem) {
+            List<String> parts = new ArrayList<>();
+            User oldUser = userOf(oldItem);
+            User newUser = userOf(newItem);
+            Member oldMember = memberOf(oldItem);
+            Member newMember = memberOf(newItem);
+            if (oldUser == null || newUser == null || oldMember == null || newMember == null) {
+                // Datos incompletos: se repinta la fila entera
+                parts.add(PAYLOAD_AVATAR);
+                parts.add(PAYLOAD_PROFILE);
+                parts.add(PAYLOAD_ROLE);
+                return parts;
+            }
+            if (!Objects.equals(oldUser.getPhotoUrl(), newUser.getPhotoUrl())) parts.add(PAYLOAD_AVATAR);
+            if (!Objects.equals(oldUser.getName(), newUser.getName())
+                    || !Objects.equals(oldUser.getEmail(), newUser.getEmail())) {
+                parts.add(PAYLOAD_PROFILE);
+            }
+            if (!Objects.equals(oldMember.getRole(), newMember.getRole())) parts.add(PAYLOAD_ROLE);
+            return parts;
+        }
+    };
+}
@@ -10,7 +10,6 @@
     import android.widget.FrameLayout;
     import android.widget.ImageButton;
     import android.widget.ImageView;
-    import android.widget.ProgressBar;
     import android.widget.TextView;
     import android.widget.Toast;
     import androidx.activity.result.ActivityResultLauncher;
@@ -20,14 +19,15 @@
     import androidx.appcompat.app.AlertDialog;
     import androidx.fragment.app.Fragment;
     import androidx.lifecycle.ViewModelProvider;
-    import com.bumptech.glide.Glide;
     import com.google.android.material.appbar.MaterialToolbar;
     import com.google.android.material.chip.Chip;
     import com.google.android.material.dialog.MaterialAlertDialogBuilder;
     import com.google.android.material.imageview.ShapeableImageView;
     import com.google.android.material.materialswitch.MaterialSwitch;
+    import com.google.android.material.progressindicator.CircularProgressIndicator;
     import com.utp.wemake.auth.FirebaseAuthHelper;
     import com.utp.wemake.models.User;
+    import com.utp.wemake.utils.AvatarLoader;
     import com.utp.wemake.utils.NotificationPrefs;
     import com.utp.wemake.viewmodels.MainViewModel;
     import com.utp.wemake.viewmodels.ProfileViewModel;
@@ -40,7 +40,7 @@
 
         // --- Vistas de la UI ---
         private ShapeableImageView profileAvatar;
-        private ProgressBar progressBar;
+        private CircularProgressIndicator progressBar;
         private TextView profileName, profileEmail;
         private Chip profileCoinsChip;
         private MaterialSwitch notificationSwitch;
@@ -175,8 +175,7 @@
                 if (user != null) {
                     profileName.setText(user.getName());
                     profileEmail.setText(user.getEmail());
-                    Glide.with(this).load(user.getPhotoUrl())
-                            .placeholder(R.drawable.ic_default_avatar).circleCrop().into(profileAvatar);
+                    AvatarLoader.load(profileAvatar, user.getPhotoUrl());
 
                     boolean isEnabledFromFirestore = user.isNotificationsEnabled();
                     notificationSwitch.setChecked(isEnabledFromFirestore);
@@ -232,6 +231,15 @@
                 progressBar.setVisibility(isLoading != null && isLoading ? View.VISIBLE : View.GONE);
             });
 
+            // Mientras se sube la foto el indicador muestra el porcentaje
+            profileViewModel.getUploadProgress().observe(getViewLifecycleOwner(), progress -> {
+                if (progress != null) {
+                    progressBar.setProgressCompat(progress, true);
+                } else if (!progressBar.isIndeterminate()) {
+                    progressBar.setIndeterminate(true);
+                }
+            });
+
             profileViewModel.getErrorMessage().observe(getViewLifecycleOwner(), error -> {
                 if (error != null && !error.isEmpty()) Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
             });
@@ -14,12 +14,12 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.bumptech.glide.Glide;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.utp.wemake.constants.Roles;
+import com.utp.wemake.utils.AvatarLoader;
 
 public class RoleBottomSheetFragment extends BottomSheetDialogFragment {
 
@@ -100,16 +100,7 @@ public class RoleBottomSheetFragment extends BottomSheetDialogFragment {
         rbAdmin = view.findViewById(R.id.rbAdmin);
         rbUser = view.findViewById(R.id.rbUser);
 
-        if (photoUrl != null && !photoUrl.isEmpty()) {
-            Glide.with(view.getContext())
-                    .load(photoUrl)
-                    .placeholder(R.drawable.ic_default_avatar)
-                    .error(R.drawable.ic_default_avatar)
-                    .circleCrop()
-                    .into(imgAvatar);
-        } else {
-            imgAvatar.setImageResource(R.drawable.ic_default_avatar);
-        }
+        AvatarLoader.load(imgAvatar, photoUrl);
 
         tvMemberName.setText(userName);
         tvMemberEmail.setText(userEmail);
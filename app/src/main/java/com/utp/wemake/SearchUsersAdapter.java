@@ -7,27 +7,36 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.utp.wemake.models.User;
+import com.utp.wemake.utils.AvatarLoader;
+import com.utp.wemake.utils.StableIds;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class SearchUsersAdapter extends RecyclerView.Adapter<SearchUsersAdapter.SearchUserViewHolder> {
+public class SearchUsersAdapter extends ListAdapter<User, SearchUsersAdapter.SearchUserViewHolder> {
+
+    // Payload: solo cambiaron nombre o correo, la foto no se vuelve a cargar
+    private static final Object PAYLOAD_TEXT = new Object();
 
-    private List<User> users;
     private OnUserClickListener listener;
+    private final StableIds stableIds = new StableIds();
 
     public interface OnUserClickListener {
         void onUserClick(User user);
     }
 
-    public SearchUsersAdapter(List<User> users, OnUserClickListener listener) {
-        this.users = users;
+    public SearchUsersAdapter(OnUserClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -40,19 +49,33 @@ public class SearchUsersAdapter extends RecyclerView.Adapter<SearchUsersAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull SearchUserViewHolder holder, int position) {
-        User user = users.get(position);
+        User user = getItem(position);
         holder.bind(user, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return users.size();
+    public void onBindViewHolder(@NonNull SearchUserViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_TEXT) && payloads.size() == 1) {
+            holder.bindText(getItem(position));
+            holder.bindClick(getItem(position), listener);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        User user = getItem(position);
+        return stableIds.idFor(user.getUserid() != null ? user.getUserid() : "#" + position);
     }
 
     public void updateUsers(List<User> newUsers) {
-        this.users.clear();
-        this.users.addAll(newUsers);
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newUsers));
+    }
+
+    public String getPhotoUrlAt(int position) {
+        if (position < 0 || position >= getItemCount()) return null;
+        return getItem(position).getPhotoUrl();
     }
 
     static class SearchUserViewHolder extends RecyclerView.ViewHolder {
@@ -70,22 +93,20 @@ public class SearchUsersAdapter extends RecyclerView.Adapter<SearchUsersAdapter.
         }
 
         public void bind(User user, OnUserClickListener listener) {
-            tvName.setText(user.getName());
-            tvEmail.setText(user.getEmail());
+            bindText(user);
 
             // Cargar imagen de perfil
-            String imageUrl = user.getPhotoUrl();
-            if (imageUrl != null && !imageUrl.isEmpty()) {
-                Glide.with(itemView.getContext())
-                        .load(imageUrl)
-                        .placeholder(R.drawable.ic_default_avatar)
-                        .error(R.drawable.ic_default_avatar)
-                        .circleCrop()
-                        .into(imgAvatar);
-            } else {
-                imgAvatar.setImageResource(R.drawable.ic_default_avatar);
-            }
+            AvatarLoader.load(imgAvatar, user.getPhotoUrl());
+
+            bindClick(user, listener);
+        }
 
+        void bindText(User user) {
+            tvName.setText(user.getName());
+            tvEmail.setText(user.getEmail());
+        }
+
+        void bindClick(User user, OnUserClickListener listener) {
             btnAdd.setOnClickListener(v -> {
                 if (listener != null) {
                     listener.onUserClick(user);
@@ -93,4 +114,24 @@ public class SearchUsersAdapter extends RecyclerView.Adapter<SearchUsersAdapter.
             });
         }
     }
+
+    private static final DiffUtil.ItemCallback<User> DIFF_CALLBACK = new DiffUtil.ItemCallback<User>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return oldItem.getUserid() != null && oldItem.getUserid().equals(newItem.getUserid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getEmail(), newItem.getEmail())
+                    && Objects.equals(oldItem.getPhotoUrl(), newItem.getPhotoUrl());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull User oldItem, @NonNull User newItem) {
+            // Con otra foto se hace el bind completo
+            return Objects.equals(oldItem.getPhotoUrl(), newItem.getPhotoUrl()) ? PAYLOAD_TEXT : null;
+        }
+    };
 }
@@ -7,32 +7,39 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import android.widget.Button;
 import android.content.Context;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.constraintlayout.widget.ConstraintSet;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.utp.wemake.models.TaskModel;
-import com.utp.wemake.utils.NetworkUtils;
+import com.utp.wemake.utils.StableIds;
+import com.utp.wemake.utils.TaskDiff;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 // Adaptador para manejar la lista de tareas en un RecyclerView
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+public class TaskAdapter extends ListAdapter<TaskModel, TaskAdapter.TaskViewHolder> {
 
     public static final int VIEW_MODE_LIST = 0;
     public static final int VIEW_MODE_CARDS = 1;
     private int currentViewMode = VIEW_MODE_LIST;
 
-    private List<TaskModel> taskList;
+    // Payload para re-aplicar solo el layout al cambiar de modo de vista
+    private static final Object PAYLOAD_VIEW_MODE = new Object();
+    // Único tipo de vista; las columnas del kanban comparten el pool de este tipo
+    public static final int VIEW_TYPE_CARD = 0;
+
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM", Locale.getDefault());
-    private int columnIndex;
+    private final StableIds stableIds = new StableIds();
     private final OnTaskInteractionListener listener;
 
 
@@ -40,16 +47,17 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         void onChangeStatusClicked(TaskModel task);
     }
 
-    public TaskAdapter(List<TaskModel> taskList, int columnIndex, OnTaskInteractionListener listener) {
-        this.taskList = taskList;
-        this.columnIndex = columnIndex;
+    public TaskAdapter(OnTaskInteractionListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     // Método para que el Fragment nos diga qué modo usar
     public void setViewMode(int viewMode) {
+        if (this.currentViewMode == viewMode) return;
         this.currentViewMode = viewMode;
-        notifyDataSetChanged(); // Forzar a todos los items a re-dibujarse con la nueva lógica
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_VIEW_MODE);
     }
 
     @NonNull
@@ -62,13 +70,34 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        TaskModel task = taskList.get(position);
+        TaskModel task = getItem(position);
         holder.bind(task, currentViewMode);
     }
 
     @Override
-    public int getItemCount() {
-        return taskList.size();
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        TaskModel task = getItem(position);
+        for (Object payload : payloads) {
+            if (payload == PAYLOAD_VIEW_MODE) {
+                holder.bindViewMode(currentViewMode);
+            } else if (payload instanceof Set) {
+                holder.bindChangedFields(task, (Set<?>) payload);
+            }
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getId());
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE_CARD;
     }
 
     public class TaskViewHolder extends RecyclerView.ViewHolder {
@@ -80,6 +109,8 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         ConstraintSet constraintSetList = new ConstraintSet();
         ConstraintSet constraintSetCard = new ConstraintSet();
         int marginPx;
+        // Tarea del último bind: con el pool compartido la vista puede venir de otra columna
+        private TaskModel boundTask;
 
         public TaskViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -114,18 +145,57 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             // Modificar el divisor:
             constraintSetCard.clear(R.id.actions_divider, ConstraintSet.TOP);
             constraintSetCard.connect(R.id.actions_divider, ConstraintSet.TOP, R.id.task_created_date, ConstraintSet.BOTTOM, marginPx);
+
+            // Los listeners leen la tarea actual de la fila, así un rebind parcial no los deja desactualizados
+            externalButton.setOnClickListener(v -> {
+                TaskModel task = boundTask;
+                if (task == null) return;
+                Context ctx = v.getContext();
+                Intent intent = new Intent(ctx, TaskDetailActivity.class);
+                intent.putExtra("taskId", task.getId());
+                ctx.startActivity(intent);
+            });
+
+            changeButton.setOnClickListener(v -> {
+                TaskModel task = boundTask;
+                if (task == null) return;
+                // Sin conexión el repositorio encola el cambio y el kanban lo muestra igual
+                if (listener != null) {
+                    listener.onChangeStatusClicked(task);
+                }
+            });
         }
 
         public void bind(TaskModel task, int viewMode) {
-            Context context = itemView.getContext();
+            boundTask = task;
+            bindViewMode(viewMode);
+            bindText(task);
+            bindResponsible(task);
+            bindCreatedDate(task);
+            bindDeadline(task);
+        }
+
+        /**
+         * Vuelve a pintar solo las vistas de los campos que cambiaron (nombres de TaskDiff).
+         */
+        void bindChangedFields(TaskModel task, Set<?> fields) {
+            boundTask = task;
+            if (fields.contains("title") || fields.contains("description")) bindText(task);
+            if (fields.contains("assignedMembers")) bindResponsible(task);
+            if (fields.contains("createdAt")) bindCreatedDate(task);
+            if (fields.contains("deadline")) bindDeadline(task);
+        }
 
+        void bindViewMode(int viewMode) {
             // APLICA EL CONSTRAINTSET ADECUADO
             if (viewMode == VIEW_MODE_CARDS) {
                 constraintSetCard.applyTo(constraintLayout);
             } else {
                 constraintSetList.applyTo(constraintLayout);
             }
+        }
 
+        private void bindText(TaskModel task) {
             title.setText(task.getTitle());
 
             if (task.getDescription() != null && !task.getDescription().isEmpty()) {
@@ -134,7 +204,9 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             } else {
                 description.setVisibility(View.GONE);
             }
+        }
 
+        private void bindResponsible(TaskModel task) {
             if (task.getAssignedMembers() != null && !task.getAssignedMembers().isEmpty()) {
                 int memberCount = task.getAssignedMembers().size();
                 responsible.setText(memberCount + (memberCount > 1 ? " miembros" : " miembro"));
@@ -143,13 +215,19 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
                 responsible.setText("Sin asignar");
                 responsible.setVisibility(View.VISIBLE);
             }
+        }
 
+        private void bindCreatedDate(TaskModel task) {
             if (task.getCreatedAt() != null) {
                 createdDate.setText("Creado: " + dateFormat.format(task.getCreatedAt()));
                 createdDate.setVisibility(View.VISIBLE);
             } else {
                 createdDate.setVisibility(View.GONE);
             }
+        }
+
+        private void bindDeadline(TaskModel task) {
+            Context context = itemView.getContext();
 
             // --- FECHA LÍMITE (DEADLINE) ---
             if (task.getDeadline() != null) {
@@ -173,37 +251,38 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
 
             } else {
                 dueDate.setText("Sin Deadline");
+                dueDate.setTextColor(ContextCompat.getColor(context, R.color.md_theme_onSurfaceVariant));
             }
-
-            externalButton.setOnClickListener(v -> {
-                Context ctx = v.getContext();
-                Intent intent = new Intent(ctx, TaskDetailActivity.class);
-                intent.putExtra("taskId", task.getId());
-                ctx.startActivity(intent);
-            });
-
-            changeButton.setOnClickListener(v -> {
-                if (NetworkUtils.isOnline(context)) {
-                    if (listener != null) {
-                        listener.onChangeStatusClicked(task);
-                    }
-                } else {
-                    Toast.makeText(context, "El cambio de estado no está disponible sin conexión.", Toast.LENGTH_SHORT).show();
-                }
-            });
-
         }
     }
 
     public void updateTaskList(List<TaskModel> newTaskList) {
-        this.taskList = newTaskList != null ? newTaskList : new ArrayList<>();
-        notifyDataSetChanged();
+        submitList(newTaskList != null ? new ArrayList<>(newTaskList) : new ArrayList<>());
     }
 
     public TaskModel getTaskAt(int position) {
-        if (position >= 0 && position < taskList.size()) {
-            return taskList.get(position);
+        if (position >= 0 && position < getItemCount()) {
+            return getItem(position);
         }
         return null;
     }
-}
\ No newline at end of file
+
+    private static final DiffUtil.ItemCallback<TaskModel> DIFF_CALLBACK = new DiffUtil.ItemCallback<TaskModel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TaskModel oldItem, @NonNull TaskModel newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TaskModel oldItem, @NonNull TaskModel newItem) {
+            // Misma instancia, misma tarea (ver TaskChangeSet)
+            return oldItem == newItem || TaskDiff.changedFields(oldItem, newItem).isEmpty();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull TaskModel oldItem, @NonNull TaskModel newItem) {
+            // Nombres de los campos que cambiaron; la fila repinta solo lo que depende de ellos
+            return TaskDiff.changedFields(oldItem, newItem).keySet();
+        }
+    };
+}
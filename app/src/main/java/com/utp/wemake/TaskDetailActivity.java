@@ -19,7 +19,6 @@ import com.google.android.material.chip.Chip;
 import com.utp.wemake.constants.TaskConstants;
 import com.utp.wemake.models.TaskModel;
 import com.utp.wemake.models.User;
-import com.utp.wemake.utils.NetworkUtils;
 import com.utp.wemake.viewmodels.TaskDetailViewModel;
 
 import java.text.SimpleDateFormat;
@@ -135,23 +134,14 @@ public class TaskDetailActivity extends AppCompatActivity {
     private void setupClickListeners() {
         btnBack.setOnClickListener(v -> finish());
 
+        // Sin conexión TaskRepository encola la edición y el borrado
         btnEdit.setOnClickListener(v -> {
-            if (NetworkUtils.isOnline(this)) {
-                Intent intent = new Intent(this, CreateTaskActivity.class);
-                intent.putExtra(CreateTaskActivity.EXTRA_TASK_ID, taskId);
-                startActivity(intent);
-            } else {
-                viewModel.postToastMessage("La edición no está disponible sin conexión.");
-            }
+            Intent intent = new Intent(this, CreateTaskActivity.class);
+            intent.putExtra(CreateTaskActivity.EXTRA_TASK_ID, taskId);
+            startActivity(intent);
         });
 
-        btnDelete.setOnClickListener(v -> {
-            if (NetworkUtils.isOnline(this)) {
-                showDeleteConfirmation();
-            } else {
-                viewModel.postToastMessage("La eliminación no está disponible sin conexión.");
-            }
-        });
+        btnDelete.setOnClickListener(v -> showDeleteConfirmation());
     }
 
     private void showDeleteConfirmation() {
@@ -275,14 +265,8 @@ public class TaskDetailActivity extends AppCompatActivity {
 
     private void setupSubtasksRecycler(TaskModel task) {
         if (task.getSubtasks() != null && !task.getSubtasks().isEmpty()) {
-            subtaskAdapter = new SubtaskAdapter(task.getSubtasks(), (subtask, isCompleted) -> {
-                if (NetworkUtils.isOnline(this)) {
-                    viewModel.updateSubtask(taskId, subtask.getId(), isCompleted);
-                } else {
-                    viewModel.postToastMessage("No se puede actualizar sin conexión.");
-                    subtaskAdapter.notifyDataSetChanged();
-                }
-            });
+            subtaskAdapter = new SubtaskAdapter(task.getSubtasks(), (subtask, isCompleted) ->
+                    viewModel.updateSubtask(taskId, subtask.getId(), isCompleted));
             subtasksRecycler.setAdapter(subtaskAdapter);
         } else {
             subtasksRecycler.setAdapter(null);
@@ -130,10 +130,22 @@ public class TasksFragment extends Fragment implements TaskAdapter.OnTaskInterac
     }
 
     private void setupRecyclerView() {
-        taskAdapter = new TaskAdapter(new ArrayList<>(), 0, this);
+        taskAdapter = new TaskAdapter(this);
         taskAdapter.setViewMode(currentViewMode);
         recyclerViewTasks.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerViewTasks.setAdapter(taskAdapter);
+
+        // Las completadas se cargan por páginas al llegar al final de la lista
+        recyclerViewTasks.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                if (!TaskConstants.STATUS_COMPLETED.equals(viewModel.getSelectedStatus().getValue())) return;
+                if (!recyclerView.canScrollVertically(1)) {
+                    viewModel.loadMoreCompletedTasks();
+                }
+            }
+        });
     }
 
     private void setupListeners() {
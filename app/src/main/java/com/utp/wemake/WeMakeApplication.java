@@ -3,6 +3,9 @@ package com.utp.wemake;
 import android.app.Application;
 import com.google.firebase.FirebaseApp;
 import com.utp.wemake.repository.ImageRepository;
+import com.utp.wemake.repository.MutationOutbox;
+import com.utp.wemake.services.RetrofitClient;
+import com.utp.wemake.workers.TaskRefreshWorker;
 
 public class WeMakeApplication extends Application {
     @Override
@@ -10,5 +13,8 @@ public class WeMakeApplication extends Application {
         super.onCreate();
         ImageRepository.initialize(getApplicationContext());
         FirebaseApp.initializeApp(this);
+        MutationOutbox.initialize(getApplicationContext());
+        RetrofitClient.initialize(getApplicationContext());
+        TaskRefreshWorker.schedule(getApplicationContext());
     }
 }
@@ -1,5 +1,9 @@
 package com.utp.wemake.constants;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class TaskConstants {
     // Estados de tareas
     public static final String STATUS_PENDING = "pending";
@@ -7,10 +11,17 @@ public class TaskConstants {
     public static final String STATUS_IN_REVIEW = "in_review";
     public static final String STATUS_COMPLETED = "completed";
 
+    // Estados que se escuchan en tiempo real; las completadas se cargan por páginas
+    public static final List<String> ACTIVE_STATUSES = Collections.unmodifiableList(
+            Arrays.asList(STATUS_PENDING, STATUS_IN_PROGRESS, STATUS_IN_REVIEW));
+
     // Prioridades
     public static final String PRIORITY_LOW = "low";
     public static final String PRIORITY_MEDIUM = "medium";
     public static final String PRIORITY_HIGH = "high";
+
+    // Marca de tiempo del servidor que se actualiza en cada escritura de una tarea
+    public static final String FIELD_UPDATED_AT = "updatedAt";
     
     private TaskConstants() {
         // Constructor privado para evitar instanciación
@@ -0,0 +1,19 @@
+package com.utp.wemake.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface ApiCacheDao {
+
+    @Query("SELECT * FROM api_cache WHERE cacheKey = :cacheKey LIMIT 1")
+    ApiCacheEntry get(String cacheKey);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(ApiCacheEntry entry);
+
+    @Query("DELETE FROM api_cache")
+    void clearAll();
+}
@@ -0,0 +1,33 @@
+package com.utp.wemake.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Última respuesta de la API de analítica (dashboard, leaderboard o resumen) guardada
+ * como JSON. Se muestra al instante mientras se pide una nueva; fetchedAt decide si
+ * todavía está vigente (ver AnalyticsRepository).
+ */
+@Entity(tableName = "api_cache")
+public class ApiCacheEntry {
+
+    // Endpoint con sus parámetros, p. ej. "dashboard/<boardId>"
+    @PrimaryKey
+    @NonNull
+    public String cacheKey = "";
+
+    @NonNull
+    public String json = "";
+
+    // Momento de la descarga (millis del dispositivo)
+    public long fetchedAt;
+
+    public ApiCacheEntry() {}
+
+    public ApiCacheEntry(@NonNull String cacheKey, @NonNull String json, long fetchedAt) {
+        this.cacheKey = cacheKey;
+        this.json = json;
+        this.fetchedAt = fetchedAt;
+    }
+}
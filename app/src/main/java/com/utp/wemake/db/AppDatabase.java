@@ -1,30 +1,226 @@
 package com.utp.wemake.db;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.utp.wemake.models.Subtask;
 import com.utp.wemake.models.TaskModel;
 
-@Database(entities = {TaskModel.class}, version = 1, exportSchema = false)
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Database(entities = {TaskModel.class, CachedTask.class, TaskAssignee.class, SubtaskEntity.class,
+        TaskSearchEntity.class, PendingMutation.class, BoardSyncState.class, ApiCacheEntry.class},
+        version = 8, exportSchema = true)
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
 
     public abstract TaskDao taskDao();
 
+    public abstract TaskCacheDao taskCacheDao();
+
+    public abstract SubtaskDao subtaskDao();
+
+    public abstract MutationDao mutationDao();
+
+    public abstract BoardSyncStateDao boardSyncStateDao();
+
+    public abstract ApiCacheDao apiCacheDao();
+
     private static volatile AppDatabase INSTANCE;
 
+    // Hilo único para las operaciones de Room: mantiene el orden entre escrituras y lecturas
+    public static final ExecutorService databaseExecutor = Executors.newSingleThreadExecutor();
+
+    // v1 -> v2: tabla con la copia local de las tareas sincronizadas
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `tasks_cache` ("
+                    + "`id` TEXT NOT NULL, `title` TEXT, `description` TEXT, `deadline` INTEGER, "
+                    + "`priority` TEXT, `subtasks` TEXT, `boardId` TEXT, `createdBy` TEXT, "
+                    + "`createdAt` INTEGER, `status` TEXT, `rewardPoints` INTEGER NOT NULL, "
+                    + "`penaltyPoints` INTEGER NOT NULL, `approvedBy` TEXT, `approvedAt` INTEGER, "
+                    + "`reviewerId` TEXT, `assignedMembers` TEXT, `completedAt` INTEGER, "
+                    + "`penaltyApplied` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`id`))");
+        }
+    };
+
+    // v2 -> v3: índices de consulta y tabla de asignados de la copia local
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_boardId` ON `tasks_offline` (`boardId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_status` ON `tasks_offline` (`status`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_deadline` ON `tasks_offline` (`deadline`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_isSynced` ON `tasks_offline` (`isSynced`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_boardId` ON `tasks_cache` (`boardId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_status` ON `tasks_cache` (`status`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_deadline` ON `tasks_cache` (`deadline`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_reviewerId` ON `tasks_cache` (`reviewerId`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_assignees` ("
+                    + "`taskId` TEXT NOT NULL, `userId` TEXT NOT NULL, PRIMARY KEY(`taskId`, `userId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_assignees_userId` ON `task_assignees` (`userId`)");
+
+            // La copia local se reconstruye con el siguiente snapshot; así no quedan tareas sin asignados.
+            // La cola tasks_offline no se toca.
+            db.execSQL("DELETE FROM `tasks_cache`");
+        }
+    };
+
+    // v3 -> v4: subtareas normalizadas en task_subtasks en lugar del JSON de la columna 'subtasks'
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_subtasks` ("
+                    + "`taskId` TEXT NOT NULL, `id` TEXT NOT NULL, `text` TEXT, "
+                    + "`completed` INTEGER NOT NULL, `completedAt` INTEGER, `position` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`taskId`, `id`))");
+
+            // 1. Pasar las subtareas de la cola offline a filas
+            Gson gson = new Gson();
+            Type listType = new TypeToken<List<Subtask>>() {}.getType();
+            try (Cursor cursor = db.query("SELECT `id`, `subtasks` FROM `tasks_offline`")) {
+                while (cursor.moveToNext()) {
+                    String taskId = cursor.getString(0);
+                    String json = cursor.isNull(1) ? null : cursor.getString(1);
+                    if (json == null) continue;
+                    List<Subtask> subtasks = gson.fromJson(json, listType);
+                    for (SubtaskEntity entity : SubtaskEntity.fromSubtasks(taskId, subtasks)) {
+                        ContentValues values = new ContentValues();
+                        values.put("taskId", entity.taskId);
+                        values.put("id", entity.id);
+                        values.put("text", entity.text);
+                        values.put("completed", entity.completed ? 1 : 0);
+                        values.put("completedAt", Converters.dateToTimestamp(entity.completedAt));
+                        values.put("position", entity.position);
+                        db.insert("task_subtasks", SQLiteDatabase.CONFLICT_REPLACE, values);
+                    }
+                }
+            }
+
+            // 2. Reconstruir tasks_offline sin la columna 'subtasks'
+            db.execSQL("CREATE TABLE IF NOT EXISTS `tasks_offline_new` ("
+                    + "`penaltyApplied` INTEGER NOT NULL, `id` TEXT NOT NULL, `title` TEXT, "
+                    + "`description` TEXT, `deadline` INTEGER, `priority` TEXT, `boardId` TEXT, "
+                    + "`createdBy` TEXT, `createdAt` INTEGER, `isSynced` INTEGER NOT NULL, "
+                    + "`isProposal` INTEGER NOT NULL, `status` TEXT, `rewardPoints` INTEGER NOT NULL, "
+                    + "`penaltyPoints` INTEGER NOT NULL, `approvedBy` TEXT, `approvedAt` INTEGER, "
+                    + "`reviewerId` TEXT, `assignedMembers` TEXT, `completedAt` INTEGER, "
+                    + "PRIMARY KEY(`id`))");
+            String offlineColumns = "`penaltyApplied`, `id`, `title`, `description`, `deadline`, `priority`, "
+                    + "`boardId`, `createdBy`, `createdAt`, `isSynced`, `isProposal`, `status`, "
+                    + "`rewardPoints`, `penaltyPoints`, `approvedBy`, `approvedAt`, `reviewerId`, "
+                    + "`assignedMembers`, `completedAt`";
+            db.execSQL("INSERT INTO `tasks_offline_new` (" + offlineColumns + ") SELECT "
+                    + offlineColumns + " FROM `tasks_offline`");
+            db.execSQL("DROP TABLE `tasks_offline`");
+            db.execSQL("ALTER TABLE `tasks_offline_new` RENAME TO `tasks_offline`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_boardId` ON `tasks_offline` (`boardId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_status` ON `tasks_offline` (`status`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_deadline` ON `tasks_offline` (`deadline`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_offline_isSynced` ON `tasks_offline` (`isSynced`)");
+
+            // 3. La copia local se recrea vacía sin 'subtasks'; se rellena con el siguiente snapshot
+            db.execSQL("DROP TABLE IF EXISTS `tasks_cache`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `tasks_cache` ("
+                    + "`id` TEXT NOT NULL, `title` TEXT, `description` TEXT, `deadline` INTEGER, "
+                    + "`priority` TEXT, `boardId` TEXT, `createdBy` TEXT, "
+                    + "`createdAt` INTEGER, `status` TEXT, `rewardPoints` INTEGER NOT NULL, "
+                    + "`penaltyPoints` INTEGER NOT NULL, `approvedBy` TEXT, `approvedAt` INTEGER, "
+                    + "`reviewerId` TEXT, `assignedMembers` TEXT, `completedAt` INTEGER, "
+                    + "`penaltyApplied` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_boardId` ON `tasks_cache` (`boardId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_status` ON `tasks_cache` (`status`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_deadline` ON `tasks_cache` (`deadline`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_cache_reviewerId` ON `tasks_cache` (`reviewerId`)");
+            db.execSQL("DELETE FROM `task_assignees`");
+        }
+    };
+
+    // v4 -> v5: índice FTS4 para la búsqueda de tareas
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `task_search` USING FTS4("
+                    + "`taskId` TEXT, `title` TEXT, `description` TEXT, `subtaskText` TEXT, "
+                    + "tokenize=unicode61, notindexed=`taskId`)");
+
+            // El índice se llena con la copia local; se vacía para reconstruir ambos con el siguiente snapshot
+            db.execSQL("DELETE FROM `tasks_cache`");
+            db.execSQL("DELETE FROM `task_assignees`");
+            db.execSQL("DELETE FROM `task_subtasks` WHERE `taskId` NOT IN "
+                    + "(SELECT `id` FROM `tasks_offline` WHERE `isSynced` = 0)");
+        }
+    };
+
+    // v5 -> v6: cola de escrituras offline (estado, prioridad, subtareas, cupones...)
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `pending_mutations` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `documentPath` TEXT NOT NULL, "
+                    + "`type` TEXT NOT NULL, `field` TEXT, `valueJson` TEXT, `coalesceKey` TEXT NOT NULL, "
+                    + "`createdAt` INTEGER NOT NULL, `coalescedCount` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_pending_mutations_coalesceKey` "
+                    + "ON `pending_mutations` (`coalesceKey`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_pending_mutations_documentPath` "
+                    + "ON `pending_mutations` (`documentPath`)");
+        }
+    };
+
+    // v6 -> v7: updatedAt en la copia local y marcas de agua por tablero
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `tasks_cache` ADD COLUMN `updatedAt` INTEGER");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `board_sync_state` ("
+                    + "`boardId` TEXT NOT NULL, `lastSyncedAt` INTEGER NOT NULL, "
+                    + "`lastFullSyncAt` INTEGER NOT NULL, PRIMARY KEY(`boardId`))");
+        }
+    };
+
+    // v7 -> v8: últimas respuestas de la API de analítica
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `api_cache` ("
+                    + "`cacheKey` TEXT NOT NULL, `json` TEXT NOT NULL, `fetchedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`cacheKey`))");
+        }
+    };
+
+    // Todas en orden; AppDatabaseMigrationTest las recorre desde la v1
+    static final Migration[] ALL_MIGRATIONS = {MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4,
+            MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8};
+
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     AppDatabase.class, "wemake_offline_db")
+                            .addMigrations(ALL_MIGRATIONS)
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.utp.wemake.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Marca de agua de la copia local de un tablero: la copia incluye todos los cambios
+ * de las tareas del usuario con updatedAt anterior o igual a lastSyncedAt.
+ * La refresca TaskDeltaSync pidiendo solo lo modificado desde entonces.
+ */
+@Entity(tableName = "board_sync_state")
+public class BoardSyncState {
+
+    @PrimaryKey
+    @NonNull
+    public String boardId = "";
+
+    // Mayor updatedAt (millis) ya incorporado a la copia local
+    public long lastSyncedAt;
+
+    // Última reconciliación completa (millis del dispositivo); detecta borrados y reasignaciones
+    public long lastFullSyncAt;
+
+    public BoardSyncState() {}
+
+    public BoardSyncState(@NonNull String boardId) {
+        this.boardId = boardId;
+    }
+}
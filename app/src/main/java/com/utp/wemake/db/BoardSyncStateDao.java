@@ -0,0 +1,33 @@
+package com.utp.wemake.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface BoardSyncStateDao {
+
+    @Query("SELECT * FROM board_sync_state")
+    List<BoardSyncState> getAll();
+
+    @Query("SELECT * FROM board_sync_state WHERE boardId IN (:boardIds)")
+    List<BoardSyncState> getForBoards(List<String> boardIds);
+
+    // Registra los tableros que se sincronizan sin tocar las marcas existentes
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertIfAbsent(List<BoardSyncState> states);
+
+    // La marca solo avanza
+    @Query("UPDATE board_sync_state SET lastSyncedAt = MAX(lastSyncedAt, :watermark) WHERE boardId = :boardId")
+    void advanceWatermark(String boardId, long watermark);
+
+    @Query("UPDATE board_sync_state SET lastSyncedAt = MAX(lastSyncedAt, :watermark), "
+            + "lastFullSyncAt = :fullSyncAt WHERE boardId = :boardId")
+    void markFullSync(String boardId, long watermark, long fullSyncAt);
+
+    @Query("DELETE FROM board_sync_state")
+    void clearAll();
+}
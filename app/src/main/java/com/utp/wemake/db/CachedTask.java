@@ -0,0 +1,96 @@
+package com.utp.wemake.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Copia local de una tarea ya sincronizada con Firestore.
+ * Las subtareas viven en task_subtasks (ver CachedTaskWithSubtasks).
+ * Se escribe desde los listeners de TaskRepository y se lee al arrancar
+ * para pintar los tableros sin esperar a la red.
+ */
+@Entity(tableName = "tasks_cache",
+        indices = {@Index("boardId"), @Index("status"), @Index("deadline"), @Index("reviewerId")})
+public class CachedTask {
+
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+
+    public String title;
+    public String description;
+    public Date deadline;
+    public String priority;
+    public String boardId;
+    public String createdBy;
+    public Date createdAt;
+    public String status;
+    public int rewardPoints;
+    public int penaltyPoints;
+    public String approvedBy;
+    public Date approvedAt;
+    public String reviewerId;
+    public List<String> assignedMembers;
+    public Date completedAt;
+    public boolean penaltyApplied;
+    // updatedAt del documento en Firestore
+    public Date updatedAt;
+
+    // Momento en que se guardó la copia local (millis)
+    public long cachedAt;
+
+    public static CachedTask fromModel(TaskModel task) {
+        CachedTask cached = new CachedTask();
+        cached.id = task.getId();
+        cached.title = task.getTitle();
+        cached.description = task.getDescription();
+        cached.deadline = task.getDeadline();
+        cached.priority = task.getPriority();
+        cached.boardId = task.getBoardId();
+        cached.createdBy = task.getCreatedBy();
+        cached.createdAt = task.getCreatedAt();
+        cached.status = task.getStatus();
+        cached.rewardPoints = task.getRewardPoints();
+        cached.penaltyPoints = task.getPenaltyPoints();
+        cached.approvedBy = task.getApprovedBy();
+        cached.approvedAt = task.getApprovedAt();
+        cached.reviewerId = task.getReviewerId();
+        cached.assignedMembers = task.getAssignedMembers();
+        cached.completedAt = task.getCompletedAt();
+        cached.penaltyApplied = task.isPenaltyApplied();
+        cached.updatedAt = task.getUpdatedAt();
+        cached.cachedAt = System.currentTimeMillis();
+        return cached;
+    }
+
+    public TaskModel toModel() {
+        TaskModel task = new TaskModel();
+        task.setId(id);
+        task.setTitle(title);
+        task.setDescription(description);
+        task.setDeadline(deadline);
+        task.setPriority(priority);
+        task.setBoardId(boardId);
+        task.setCreatedBy(createdBy);
+        task.setCreatedAt(createdAt);
+        task.setStatus(status);
+        task.setRewardPoints(rewardPoints);
+        task.setPenaltyPoints(penaltyPoints);
+        task.setApprovedBy(approvedBy);
+        task.setApprovedAt(approvedAt);
+        task.setReviewerId(reviewerId);
+        task.setAssignedMembers(assignedMembers);
+        task.setCompletedAt(completedAt);
+        task.setPenaltyApplied(penaltyApplied);
+        task.setUpdatedAt(updatedAt);
+        task.setSynced(true);
+        return task;
+    }
+}
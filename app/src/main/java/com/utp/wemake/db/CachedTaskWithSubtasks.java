@@ -0,0 +1,26 @@
+package com.utp.wemake.db;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.List;
+
+/**
+ * Tarea de la copia local junto con sus subtareas (carga por @Relation).
+ */
+public class CachedTaskWithSubtasks {
+
+    @Embedded
+    public CachedTask task;
+
+    @Relation(parentColumn = "id", entityColumn = "taskId")
+    public List<SubtaskEntity> subtasks;
+
+    public TaskModel toModel() {
+        TaskModel model = task.toModel();
+        model.setSubtasks(SubtaskEntity.toSubtasks(subtasks));
+        return model;
+    }
+}
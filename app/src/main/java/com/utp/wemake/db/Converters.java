@@ -2,7 +2,6 @@ package com.utp.wemake.db;
 import androidx.room.TypeConverter;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
-import com.utp.wemake.models.Subtask;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.Date;
@@ -36,18 +35,4 @@ public class Converters {
     public static String fromListString(List<String> list) {
         return gson.toJson(list);
     }
-
-    // De un texto JSON a una List<Subtask>
-    @TypeConverter
-    public static List<Subtask> fromSubtaskList(String value) {
-        if (value == null) return Collections.emptyList();
-        Type listType = new TypeToken<List<Subtask>>() {}.getType();
-        return gson.fromJson(value, listType);
-    }
-
-    // De una List<Subtask> a un texto JSON
-    @TypeConverter
-    public static String fromListSubtask(List<Subtask> list) {
-        return gson.toJson(list);
-    }
 }
\ No newline at end of file
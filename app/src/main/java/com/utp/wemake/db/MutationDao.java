@@ -0,0 +1,64 @@
+package com.utp.wemake.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public abstract class MutationDao {
+
+    @Insert
+    protected abstract long insert(PendingMutation mutation);
+
+    @Query("SELECT * FROM pending_mutations WHERE coalesceKey = :coalesceKey LIMIT 1")
+    protected abstract PendingMutation findByKey(String coalesceKey);
+
+    @Query("DELETE FROM pending_mutations WHERE id = :id")
+    protected abstract void deleteById(long id);
+
+    @Query("DELETE FROM pending_mutations WHERE documentPath = :documentPath")
+    protected abstract void deleteForDocument(String documentPath);
+
+    // Cola completa en el orden en que se debe subir
+    @Query("SELECT * FROM pending_mutations ORDER BY id ASC")
+    public abstract List<PendingMutation> getAll();
+
+    @Query("SELECT COUNT(*) FROM pending_mutations")
+    public abstract int countPending();
+
+    @Query("DELETE FROM pending_mutations WHERE id IN (:ids)")
+    public abstract void deleteByIds(List<Long> ids);
+
+    @Query("DELETE FROM pending_mutations")
+    public abstract void clearAll();
+
+    /**
+     * Añade una escritura a la cola fusionándola con la pendiente del mismo campo:
+     * un update reemplaza al anterior (un incremento se suma a lo pendiente, ver
+     * MutationValueCodec.mergeUpdates), un set se une con el set pendiente y un delete
+     * descarta todo lo pendiente del documento.
+     * La fila resultante pasa al final de la cola para respetar el orden de las escrituras.
+     */
+    @Transaction
+    public long enqueue(PendingMutation mutation) {
+        if (PendingMutation.TYPE_DELETE.equals(mutation.type)) {
+            deleteForDocument(mutation.documentPath);
+            return insert(mutation);
+        }
+        PendingMutation previous = findByKey(mutation.coalesceKey);
+        if (previous != null) {
+            if (PendingMutation.TYPE_SET.equals(mutation.type)) {
+                mutation.valueJson = MutationValueCodec.mergeMaps(previous.valueJson, mutation.valueJson);
+            } else {
+                mutation.valueJson = MutationValueCodec.mergeUpdates(previous.valueJson, mutation.valueJson);
+            }
+            mutation.coalescedCount = previous.coalescedCount + 1;
+            mutation.createdAt = previous.createdAt;
+            deleteById(previous.id);
+        }
+        return insert(mutation);
+    }
+}
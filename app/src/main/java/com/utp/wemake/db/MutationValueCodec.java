@@ -0,0 +1,211 @@
+package com.utp.wemake.db;
+
+import com.google.firebase.firestore.FieldValue;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.utp.wemake.models.Subtask;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codifica los valores de PendingMutation como JSON con tipo explícito
+ * ({"t": tipo, "v": valor}) para que al subirlos Firestore reciba exactamente
+ * el mismo tipo: long frente a double, fechas, listas, mapas, subtareas,
+ * incrementos y marcas de tiempo del servidor.
+ */
+public final class MutationValueCodec {
+
+    // Equivale a FieldValue.serverTimestamp(); en local se resuelve con la hora del dispositivo
+    public static final Object SERVER_TIMESTAMP = new Object();
+
+    /** Equivale a FieldValue.increment(amount); dos incrementos del mismo campo se suman. */
+    public static final class Increment {
+        public final long amount;
+
+        public Increment(long amount) {
+            this.amount = amount;
+        }
+    }
+
+    private MutationValueCodec() {}
+
+    public static String encode(Object value) {
+        return toJson(value).toString();
+    }
+
+    /** Valor listo para Firestore (FieldValue para incrementos y marcas de tiempo). */
+    public static Object decodeForFirestore(String json) {
+        return fromJson(JsonParser.parseString(json), true);
+    }
+
+    /** Valor para aplicar sobre la copia local (Increment y Date en lugar de FieldValue). */
+    public static Object decodeLocal(String json) {
+        return fromJson(JsonParser.parseString(json), false);
+    }
+
+    /**
+     * Valor con el que queda el campo tras dos updates seguidos. Un valor fijo reemplaza al
+     * anterior. Un incremento se suma: a otro incremento, al número que se iba a escribir o,
+     * como hace Firestore con un campo que no es numérico, parte de cero.
+     */
+    public static String mergeUpdates(String previousJson, String nextJson) {
+        Object next = decodeLocal(nextJson);
+        if (!(next instanceof Increment)) return nextJson;
+        long amount = ((Increment) next).amount;
+        Object previous = decodeLocal(previousJson);
+        if (previous instanceof Increment) {
+            return encode(new Increment(((Increment) previous).amount + amount));
+        }
+        if (previous instanceof Long) return encode((Long) previous + amount);
+        if (previous instanceof Double) return encode((Double) previous + amount);
+        return encode(amount);
+    }
+
+    /** Une dos mapas codificados (set con merge); los campos del segundo prevalecen. */
+    public static String mergeMaps(String previousJson, String nextJson) {
+        JsonObject previous = JsonParser.parseString(previousJson).getAsJsonObject();
+        JsonObject next = JsonParser.parseString(nextJson).getAsJsonObject();
+        if (!"map".equals(previous.get("t").getAsString()) || !"map".equals(next.get("t").getAsString())) {
+            return nextJson;
+        }
+        JsonObject fields = previous.getAsJsonObject("v").deepCopy();
+        for (Map.Entry<String, JsonElement> entry : next.getAsJsonObject("v").entrySet()) {
+            fields.add(entry.getKey(), entry.getValue());
+        }
+        JsonObject merged = new JsonObject();
+        merged.addProperty("t", "map");
+        merged.add("v", fields);
+        return merged.toString();
+    }
+
+    private static JsonElement toJson(Object value) {
+        JsonObject json = new JsonObject();
+        if (value == null) {
+            json.addProperty("t", "null");
+        } else if (value == SERVER_TIMESTAMP) {
+            json.addProperty("t", "ts");
+        } else if (value instanceof Increment) {
+            json.addProperty("t", "inc");
+            json.addProperty("v", ((Increment) value).amount);
+        } else if (value instanceof String) {
+            json.addProperty("t", "s");
+            json.addProperty("v", (String) value);
+        } else if (value instanceof Boolean) {
+            json.addProperty("t", "b");
+            json.addProperty("v", (Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            json.addProperty("t", "l");
+            json.addProperty("v", ((Number) value).longValue());
+        } else if (value instanceof Number) {
+            json.addProperty("t", "d");
+            json.addProperty("v", ((Number) value).doubleValue());
+        } else if (value instanceof Date) {
+            json.addProperty("t", "date");
+            json.addProperty("v", ((Date) value).getTime());
+        } else if (value instanceof Subtask) {
+            Subtask subtask = (Subtask) value;
+            JsonObject fields = new JsonObject();
+            fields.addProperty("id", subtask.getId());
+            fields.addProperty("text", subtask.getText());
+            fields.addProperty("completed", subtask.isCompleted());
+            if (subtask.getCompletedAt() != null) {
+                fields.addProperty("completedAt", subtask.getCompletedAt().getTime());
+            }
+            json.addProperty("t", "subtask");
+            json.add("v", fields);
+        } else if (value instanceof List) {
+            JsonArray items = new JsonArray();
+            for (Object item : (List<?>) value) {
+                items.add(toJson(item));
+            }
+            json.addProperty("t", "list");
+            json.add("v", items);
+        } else if (value instanceof Map) {
+            JsonObject fields = new JsonObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                fields.add(String.valueOf(entry.getKey()), toJson(entry.getValue()));
+            }
+            json.addProperty("t", "map");
+            json.add("v", fields);
+        } else {
+            throw new IllegalArgumentException("Tipo no soportado en la cola offline: " + value.getClass());
+        }
+        return json;
+    }
+
+    private static Object fromJson(JsonElement element, boolean forFirestore) {
+        if (element == null || element instanceof JsonNull) return null;
+        JsonObject json = element.getAsJsonObject();
+        String type = json.get("t").getAsString();
+        switch (type) {
+            case "null":
+                return null;
+            case "ts":
+                return forFirestore ? FieldValue.serverTimestamp() : new Date();
+            case "inc": {
+                long amount = json.get("v").getAsLong();
+                return forFirestore ? FieldValue.increment(amount) : new Increment(amount);
+            }
+            case "s":
+                return json.get("v").getAsString();
+            case "b":
+                return json.get("v").getAsBoolean();
+            case "l":
+                return json.get("v").getAsLong();
+            case "d":
+                return json.get("v").getAsDouble();
+            case "date":
+                return new Date(json.get("v").getAsLong());
+            case "subtask":
+                return subtaskFromJson(json.getAsJsonObject("v"), forFirestore);
+            case "list": {
+                List<Object> items = new ArrayList<>();
+                for (JsonElement item : json.getAsJsonArray("v")) {
+                    items.add(fromJson(item, forFirestore));
+                }
+                return items;
+            }
+            case "map": {
+                Map<String, Object> fields = new HashMap<>();
+                for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("v").entrySet()) {
+                    fields.put(entry.getKey(), fromJson(entry.getValue(), forFirestore));
+                }
+                return fields;
+            }
+            default:
+                throw new IllegalArgumentException("Tipo desconocido en la cola offline: " + type);
+        }
+    }
+
+    private static Object subtaskFromJson(JsonObject fields, boolean forFirestore) {
+        String text = fields.has("text") && !fields.get("text").isJsonNull()
+                ? fields.get("text").getAsString() : null;
+        boolean completed = fields.get("completed").getAsBoolean();
+        Date completedAt = fields.has("completedAt")
+                ? new Date(fields.get("completedAt").getAsLong()) : null;
+
+        if (forFirestore) {
+            // Mismo mapa que genera Firestore al serializar Subtask (el @DocumentId no se escribe)
+            Map<String, Object> map = new HashMap<>();
+            map.put("text", text);
+            map.put("completed", completed);
+            map.put("completedAt", completedAt);
+            return map;
+        }
+        Subtask subtask = new Subtask(text);
+        if (fields.has("id") && !fields.get("id").isJsonNull()) {
+            subtask.setId(fields.get("id").getAsString());
+        }
+        subtask.setCompleted(completed);
+        subtask.setCompletedAt(completedAt);
+        return subtask;
+    }
+}
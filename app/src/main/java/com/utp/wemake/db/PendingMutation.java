@@ -0,0 +1,76 @@
+package com.utp.wemake.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Escritura a Firestore hecha sin conexión y pendiente de subir.
+ * Las actualizaciones de un mismo campo de un documento comparten coalesceKey,
+ * de modo que en la cola solo queda la última (o la suma, si son incrementos).
+ * La sube SyncWorker en orden de id.
+ */
+@Entity(tableName = "pending_mutations",
+        indices = {@Index("coalesceKey"), @Index("documentPath")})
+public class PendingMutation {
+
+    public static final String TYPE_UPDATE = "update";
+    public static final String TYPE_SET = "set";
+    public static final String TYPE_DELETE = "delete";
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    // Ruta completa del documento, p. ej. "tasks/abc123"
+    @NonNull
+    public String documentPath = "";
+
+    // TYPE_UPDATE, TYPE_SET (con merge) o TYPE_DELETE
+    @NonNull
+    public String type = TYPE_UPDATE;
+
+    // Campo actualizado; null para TYPE_SET y TYPE_DELETE
+    public String field;
+
+    // Valor codificado con MutationValueCodec (para TYPE_SET, el mapa completo)
+    public String valueJson;
+
+    @NonNull
+    public String coalesceKey = "";
+
+    public long createdAt;
+
+    // Cuántas escrituras locales se han fusionado en esta fila
+    public int coalescedCount;
+
+    public static PendingMutation update(String documentPath, String field, Object value) {
+        PendingMutation mutation = create(documentPath, TYPE_UPDATE);
+        mutation.field = field;
+        mutation.valueJson = MutationValueCodec.encode(value);
+        mutation.coalesceKey = documentPath + "#" + field;
+        return mutation;
+    }
+
+    public static PendingMutation set(String documentPath, Object data) {
+        PendingMutation mutation = create(documentPath, TYPE_SET);
+        mutation.valueJson = MutationValueCodec.encode(data);
+        mutation.coalesceKey = documentPath + "#" + TYPE_SET;
+        return mutation;
+    }
+
+    public static PendingMutation delete(String documentPath) {
+        PendingMutation mutation = create(documentPath, TYPE_DELETE);
+        mutation.coalesceKey = documentPath + "#" + TYPE_DELETE;
+        return mutation;
+    }
+
+    private static PendingMutation create(String documentPath, String type) {
+        PendingMutation mutation = new PendingMutation();
+        mutation.documentPath = documentPath;
+        mutation.type = type;
+        mutation.createdAt = System.currentTimeMillis();
+        mutation.coalescedCount = 1;
+        return mutation;
+    }
+}
@@ -0,0 +1,9 @@
+package com.utp.wemake.db;
+
+/**
+ * Resultado de un conteo de tareas agrupado por estado.
+ */
+public class StatusCount {
+    public String status;
+    public int count;
+}
@@ -0,0 +1,19 @@
+package com.utp.wemake.db;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.Date;
+import java.util.List;
+
+@Dao
+public interface SubtaskDao {
+
+    @Query("SELECT * FROM task_subtasks WHERE taskId = :taskId ORDER BY position ASC")
+    List<SubtaskEntity> getSubtasksForTask(String taskId);
+
+    // Marca o desmarca una sola subtarea (una fila)
+    @Query("UPDATE task_subtasks SET completed = :completed, completedAt = :completedAt "
+            + "WHERE taskId = :taskId AND id = :subtaskId")
+    int updateCompleted(String taskId, String subtaskId, boolean completed, Date completedAt);
+}
@@ -0,0 +1,78 @@
+package com.utp.wemake.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+import com.utp.wemake.models.Subtask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fila de subtarea, normalizada por (taskId, id).
+ * Sustituye al JSON de List<Subtask> para que marcar una subtarea sea actualizar una sola fila.
+ */
+@Entity(tableName = "task_subtasks", primaryKeys = {"taskId", "id"})
+public class SubtaskEntity {
+
+    @NonNull
+    public String taskId = "";
+
+    @NonNull
+    public String id = "";
+
+    public String text;
+    public boolean completed;
+    public Date completedAt;
+
+    // Orden dentro de la lista de la tarea
+    public int position;
+
+    public static SubtaskEntity fromSubtask(String taskId, Subtask subtask, int position) {
+        SubtaskEntity entity = new SubtaskEntity();
+        entity.taskId = taskId;
+        // Subtareas antiguas sin ID: se usa la posición para tener una clave estable
+        entity.id = subtask.getId() != null && !subtask.getId().isEmpty()
+                ? subtask.getId()
+                : "pos-" + position;
+        entity.text = subtask.getText();
+        entity.completed = subtask.isCompleted();
+        entity.completedAt = subtask.getCompletedAt();
+        entity.position = position;
+        return entity;
+    }
+
+    public Subtask toSubtask() {
+        Subtask subtask = new Subtask();
+        subtask.setId(id);
+        subtask.setText(text);
+        subtask.setCompleted(completed);
+        subtask.setCompletedAt(completedAt);
+        return subtask;
+    }
+
+    public static List<SubtaskEntity> fromSubtasks(String taskId, List<Subtask> subtasks) {
+        List<SubtaskEntity> entities = new ArrayList<>();
+        if (subtasks == null) return entities;
+        for (int i = 0; i < subtasks.size(); i++) {
+            Subtask subtask = subtasks.get(i);
+            if (subtask != null) {
+                entities.add(fromSubtask(taskId, subtask, i));
+            }
+        }
+        return entities;
+    }
+
+    public static List<Subtask> toSubtasks(List<SubtaskEntity> entities) {
+        List<Subtask> subtasks = new ArrayList<>();
+        if (entities == null) return subtasks;
+        List<SubtaskEntity> sorted = new ArrayList<>(entities);
+        Collections.sort(sorted, (a, b) -> Integer.compare(a.position, b.position));
+        for (SubtaskEntity entity : sorted) {
+            subtasks.add(entity.toSubtask());
+        }
+        return subtasks;
+    }
+}
@@ -0,0 +1,26 @@
+package com.utp.wemake.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * Relación tarea-miembro asignado de la copia local.
+ * Permite consultar "tareas del usuario" con un índice en vez de leer el JSON de assignedMembers.
+ */
+@Entity(tableName = "task_assignees",
+        primaryKeys = {"taskId", "userId"},
+        indices = {@Index("userId")})
+public class TaskAssignee {
+
+    @NonNull
+    public String taskId;
+
+    @NonNull
+    public String userId;
+
+    public TaskAssignee(@NonNull String taskId, @NonNull String userId) {
+        this.taskId = taskId;
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,172 @@
+package com.utp.wemake.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+@Dao
+public abstract class TaskCacheDao {
+
+    // Condición común: el usuario es miembro asignado o revisor de la tarea
+    private static final String USER_IS_PARTICIPANT =
+            "(reviewerId = :userId OR id IN (SELECT taskId FROM task_assignees WHERE userId = :userId))";
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsertTasks(List<CachedTask> tasks);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertAssignees(List<TaskAssignee> assignees);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsertSubtasks(List<SubtaskEntity> subtasks);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsertSearchRows(List<TaskSearchEntity> rows);
+
+    @Query("DELETE FROM task_search WHERE rowid IN (:rowIds)")
+    public abstract void deleteSearchRows(List<Long> rowIds);
+
+    // Búsqueda de texto completo; el orden por relevancia se calcula con TaskSearchHit.score()
+    @Query("SELECT taskId, matchinfo(task_search, 'pcnx') AS matchInfo FROM task_search "
+            + "WHERE task_search MATCH :matchExpression")
+    public abstract List<TaskSearchHit> searchTasks(String matchExpression);
+
+    @Query("DELETE FROM tasks_cache WHERE id IN (:taskIds)")
+    public abstract void deleteTasksByIds(List<String> taskIds);
+
+    @Query("DELETE FROM task_assignees WHERE taskId IN (:taskIds)")
+    public abstract void deleteAssigneesForTasks(List<String> taskIds);
+
+    @Query("DELETE FROM task_subtasks WHERE taskId IN (:taskIds)")
+    public abstract void deleteSubtasksForTasks(List<String> taskIds);
+
+    // Borra las subtareas que ya no forman parte de la tarea
+    @Query("DELETE FROM task_subtasks WHERE taskId = :taskId AND id NOT IN (:keepIds)")
+    public abstract void pruneSubtasks(String taskId, List<String> keepIds);
+
+    @Transaction
+    @Query("SELECT * FROM tasks_cache WHERE id = :taskId")
+    public abstract CachedTaskWithSubtasks getTaskById(String taskId);
+
+    // Cambio de estado hecho sin conexión; el snapshot posterior sobrescribe la fila completa
+    @Query("UPDATE tasks_cache SET status = :status WHERE id = :taskId")
+    public abstract int updateStatus(String taskId, String status);
+
+    @Query("SELECT id FROM tasks_cache WHERE boardId = :boardId")
+    public abstract List<String> getTaskIdsForBoard(String boardId);
+
+    // Tareas de un tablero en las que participa el usuario
+    @Transaction
+    @Query("SELECT * FROM tasks_cache WHERE boardId = :boardId AND " + USER_IS_PARTICIPANT)
+    public abstract List<CachedTaskWithSubtasks> getTasksForUserInBoard(String boardId, String userId);
+
+    // Tareas de varios tableros en las que participa el usuario
+    @Transaction
+    @Query("SELECT * FROM tasks_cache WHERE boardId IN (:boardIds) AND " + USER_IS_PARTICIPANT)
+    public abstract List<CachedTaskWithSubtasks> getTasksForUserInBoards(List<String> boardIds, String userId);
+
+    // Completadas con fecha límite de varios tableros en las que participa el usuario (timeline)
+    @Transaction
+    @Query("SELECT * FROM tasks_cache WHERE boardId IN (:boardIds) AND status = :completedStatus "
+            + "AND deadline IS NOT NULL AND " + USER_IS_PARTICIPANT)
+    public abstract List<CachedTaskWithSubtasks> getCompletedTasksWithDeadlineForUserInBoards(
+            List<String> boardIds, String userId, String completedStatus);
+
+    // Conteo por estado de las tareas del usuario en un tablero
+    @Query("SELECT status, COUNT(*) AS count FROM tasks_cache WHERE boardId = :boardId AND "
+            + USER_IS_PARTICIPANT + " GROUP BY status")
+    public abstract List<StatusCount> countTasksByStatusForUser(String boardId, String userId);
+
+    // Tareas del usuario vencidas y sin completar
+    @Query("SELECT COUNT(*) FROM tasks_cache WHERE boardId = :boardId AND deadline < :now "
+            + "AND status != :completedStatus AND " + USER_IS_PARTICIPANT)
+    public abstract int countOverdueTasksForUser(String boardId, String userId, Date now, String completedStatus);
+
+    @Query("DELETE FROM tasks_cache")
+    public abstract void clearTasks();
+
+    @Query("DELETE FROM task_assignees")
+    public abstract void clearAssignees();
+
+    // Solo las subtareas de la copia local; las de la cola offline se conservan
+    @Query("DELETE FROM task_subtasks WHERE taskId NOT IN (SELECT id FROM tasks_offline WHERE isSynced = 0)")
+    public abstract void clearCachedSubtasks();
+
+    @Query("DELETE FROM task_search")
+    public abstract void clearSearchIndex();
+
+    @Transaction
+    public void clearAll() {
+        clearTasks();
+        clearAssignees();
+        clearCachedSubtasks();
+        clearSearchIndex();
+    }
+
+    /**
+     * Aplica en una sola transacción los cambios de un snapshot:
+     * inserta/actualiza las tareas modificadas (con sus asignados, subtareas e índice de búsqueda)
+     * y elimina las que ya no están.
+     */
+    @Transaction
+    public void applyChanges(List<TaskModel> upserts, List<String> removedIds) {
+        if (!upserts.isEmpty()) {
+            List<CachedTask> rows = new ArrayList<>(upserts.size());
+            List<String> upsertIds = new ArrayList<>(upserts.size());
+            List<TaskAssignee> assignees = new ArrayList<>();
+            List<TaskSearchEntity> searchRows = new ArrayList<>(upserts.size());
+            for (TaskModel task : upserts) {
+                rows.add(CachedTask.fromModel(task));
+                searchRows.add(TaskSearchEntity.fromModel(task));
+                upsertIds.add(task.getId());
+                if (task.getAssignedMembers() != null) {
+                    for (String userId : task.getAssignedMembers()) {
+                        if (userId != null) assignees.add(new TaskAssignee(task.getId(), userId));
+                    }
+                }
+            }
+            upsertTasks(rows);
+            deleteAssigneesForTasks(upsertIds);
+            if (!assignees.isEmpty()) {
+                insertAssignees(assignees);
+            }
+            for (TaskModel task : upserts) {
+                replaceSubtasks(task);
+            }
+            upsertSearchRows(searchRows);
+        }
+        if (!removedIds.isEmpty()) {
+            List<Long> searchRowIds = new ArrayList<>(removedIds.size());
+            for (String taskId : removedIds) {
+                searchRowIds.add(TaskSearchEntity.rowIdFor(taskId));
+            }
+            deleteTasksByIds(removedIds);
+            deleteAssigneesForTasks(removedIds);
+            deleteSubtasksForTasks(removedIds);
+            deleteSearchRows(searchRowIds);
+        }
+    }
+
+    private void replaceSubtasks(TaskModel task) {
+        List<SubtaskEntity> subtasks = SubtaskEntity.fromSubtasks(task.getId(), task.getSubtasks());
+        if (subtasks.isEmpty()) {
+            deleteSubtasksForTasks(Collections.singletonList(task.getId()));
+            return;
+        }
+        List<String> keepIds = new ArrayList<>(subtasks.size());
+        for (SubtaskEntity subtask : subtasks) {
+            keepIds.add(subtask.id);
+        }
+        pruneSubtasks(task.getId(), keepIds);
+        upsertSubtasks(subtasks);
+    }
+}
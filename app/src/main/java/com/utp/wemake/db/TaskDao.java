@@ -4,24 +4,59 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import com.utp.wemake.models.TaskModel;
 import java.util.List;
 
 @Dao
-public interface TaskDao {
+public abstract class TaskDao {
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertTask(TaskModel task);
+    protected abstract void insertTaskRow(TaskModel task);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertSubtasks(List<SubtaskEntity> subtasks);
+
+    @Query("DELETE FROM task_subtasks WHERE taskId = :taskId")
+    protected abstract void deleteSubtasksForTask(String taskId);
+
+    /**
+     * Guarda la tarea y sus subtareas (una fila por subtarea) en una sola transacción.
+     */
+    @Transaction
+    public void insertTask(TaskModel task) {
+        insertTaskRow(task);
+        deleteSubtasksForTask(task.getId());
+        List<SubtaskEntity> subtasks = SubtaskEntity.fromSubtasks(task.getId(), task.getSubtasks());
+        if (!subtasks.isEmpty()) {
+            insertSubtasks(subtasks);
+        }
+    }
 
     // Obtiene todas las tareas que están marcadas como no sincronizadas
     @Query("SELECT * FROM tasks_offline WHERE isSynced = 0")
-    List<TaskModel> getUnsyncedTasks();
+    public abstract List<TaskModel> getUnsyncedTasks();
+
+    // Igual que getUnsyncedTasks, pero con las subtareas cargadas
+    @Transaction
+    @Query("SELECT * FROM tasks_offline WHERE isSynced = 0")
+    public abstract List<TaskWithSubtasks> getUnsyncedTasksWithSubtasks();
 
     // Marca una tarea como sincronizada
     @Query("UPDATE tasks_offline SET isSynced = 1 WHERE id = :localId")
-    void markTaskAsSynced(String localId);
+    public abstract void markTaskAsSynced(String localId);
+
+    // Marca varias tareas como sincronizadas con una sola sentencia (una transacción)
+    @Query("UPDATE tasks_offline SET isSynced = 1 WHERE id IN (:localIds)")
+    public abstract void markTasksAsSynced(List<String> localIds);
 
-    // Elimina una tarea después de sincronizarla
     @Query("DELETE FROM tasks_offline WHERE id = :localId")
-    void deleteTaskById(String localId);
-}
\ No newline at end of file
+    protected abstract void deleteTaskRow(String localId);
+
+    // Elimina una tarea después de sincronizarla
+    @Transaction
+    public void deleteTaskById(String localId) {
+        deleteTaskRow(localId);
+        deleteSubtasksForTask(localId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.utp.wemake.db;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+import com.utp.wemake.models.Subtask;
+import com.utp.wemake.models.TaskModel;
+
+import java.util.Locale;
+
+/**
+ * Índice de texto completo (FTS4) sobre título, descripción y subtareas de la copia local.
+ * unicode61 ignora mayúsculas y, por defecto, los acentos ("canción" coincide con "cancion").
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61, notIndexed = {"taskId"})
+@Entity(tableName = "task_search")
+public class TaskSearchEntity {
+
+    // rowid derivado del ID de la tarea para poder reemplazar/borrar sin recorrer la tabla
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    public long rowId;
+
+    public String taskId;
+    public String title;
+    public String description;
+    public String subtaskText;
+
+    public static TaskSearchEntity fromModel(TaskModel task) {
+        TaskSearchEntity entity = new TaskSearchEntity();
+        entity.rowId = rowIdFor(task.getId());
+        entity.taskId = task.getId();
+        entity.title = task.getTitle();
+        entity.description = task.getDescription();
+        if (task.getSubtasks() != null && !task.getSubtasks().isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+            for (Subtask subtask : task.getSubtasks()) {
+                if (subtask != null && subtask.getText() != null) {
+                    builder.append(subtask.getText()).append('\n');
+                }
+            }
+            entity.subtaskText = builder.toString();
+        }
+        return entity;
+    }
+
+    /**
+     * Convierte lo que escribe el usuario en una expresión MATCH con prefijos:
+     * "dise mov" -> "dise* mov*" (todas las palabras deben aparecer).
+     * Devuelve null si no queda ninguna palabra buscable.
+     */
+    public static String toMatchExpression(String rawQuery) {
+        if (rawQuery == null) return null;
+        StringBuilder expression = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        String lower = rawQuery.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                if (expression.length() > 0) expression.append(' ');
+                expression.append(token).append('*');
+                token.setLength(0);
+            }
+        }
+        return expression.length() > 0 ? expression.toString() : null;
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits del ID de la tarea, usado como rowid.
+     */
+    public static long rowIdFor(String taskId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < taskId.length(); i++) {
+            hash ^= taskId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,45 @@
+package com.utp.wemake.db;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Resultado de una búsqueda FTS con los datos de matchinfo('pcnx') para ordenar por relevancia.
+ */
+public class TaskSearchHit {
+
+    // Peso de cada columna de task_search en el orden de la tabla: taskId, title, description, subtaskText
+    private static final double[] COLUMN_WEIGHTS = {0.0, 3.0, 1.0, 0.5};
+
+    public String taskId;
+    public byte[] matchInfo;
+
+    /**
+     * Puntuación tipo BM25 simplificada: frecuencia en la fila por el IDF del término,
+     * ponderada por columna (un acierto en el título vale más que en una subtarea).
+     */
+    public double score() {
+        if (matchInfo == null || matchInfo.length < 12) return 0;
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        long totalRows = buffer.getInt(8) & 0xffffffffL;
+
+        double score = 0;
+        int offset = 12;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                if (offset + 12 > matchInfo.length) return score;
+                long hitsInRow = buffer.getInt(offset) & 0xffffffffL;
+                long rowsWithHits = buffer.getInt(offset + 8) & 0xffffffffL;
+                offset += 12;
+
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                if (hitsInRow == 0 || weight == 0) continue;
+                double idf = Math.log(1.0 + (totalRows - rowsWithHits + 0.5) / (rowsWithHits + 0.5));
+                score += weight * hitsInRow * idf;
+            }
+        }
+        return score;
+    }
+}
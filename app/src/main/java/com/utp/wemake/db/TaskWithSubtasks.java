@@ -0,0 +1,25 @@
+package com.utp.wemake.db;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.List;
+
+/**
+ * Tarea de la cola offline junto con sus subtareas (carga por @Relation).
+ */
+public class TaskWithSubtasks {
+
+    @Embedded
+    public TaskModel task;
+
+    @Relation(parentColumn = "id", entityColumn = "taskId")
+    public List<SubtaskEntity> subtasks;
+
+    public TaskModel toModel() {
+        task.setSubtasks(SubtaskEntity.toSubtasks(subtasks));
+        return task;
+    }
+}
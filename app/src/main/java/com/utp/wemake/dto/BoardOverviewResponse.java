@@ -0,0 +1,20 @@
+package com.utp.wemake.dto;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+/**
+ * Respuesta del endpoint combinado: dashboard, ranking y resumen del usuario en una sola llamada.
+ * Una parte que el servidor no pudo calcular llega en null.
+ */
+public class BoardOverviewResponse {
+
+    @SerializedName("dashboard")
+    public DashboardResponse dashboard;
+
+    @SerializedName("leaderboard")
+    public List<LeaderboardResponse> leaderboard;
+
+    @SerializedName("user_summary")
+    public UserSummaryResponse userSummary;
+}
@@ -6,12 +6,20 @@ public class KanbanColumn {
 
     private String title;
     private List<TaskModel> tasks;
+    // true si hay más tareas por cargar al llegar al final de la columna
+    private boolean canLoadMore;
 
     public KanbanColumn(String title, List<TaskModel> tasks) {
+        this(title, tasks, false);
+    }
+
+    public KanbanColumn(String title, List<TaskModel> tasks, boolean canLoadMore) {
         this.title = title;
         this.tasks = tasks;
+        this.canLoadMore = canLoadMore;
     }
 
     public String getTitle() { return title; }
     public List<TaskModel> getTasks() { return tasks; }
+    public boolean canLoadMore() { return canLoadMore; }
 }
@@ -2,17 +2,22 @@ package com.utp.wemake.models;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
 import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.ServerTimestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 import com.utp.wemake.db.Converters;
 
-@Entity(tableName = "tasks_offline") // Room que esta es una tabla
+@Entity(tableName = "tasks_offline", // Room que esta es una tabla
+        indices = {@Index("boardId"), @Index("status"), @Index("deadline"), @Index("isSynced")})
 @TypeConverters(Converters.class)     // Manejar tipos de datos complejos
 public class TaskModel {
 
@@ -31,6 +36,7 @@ public class TaskModel {
 
     private Date deadline;
     private String priority;
+    @Ignore // En Room se guardan en task_subtasks, no como JSON
     private List<Subtask> subtasks;
     private String boardId;
     private String createdBy; // ID del usuario que la propuso originalmente
@@ -49,6 +55,9 @@ public class TaskModel {
     private String reviewerId; // ID del admin/usuario que debe revisarla
     private List<String> assignedMembers;
     private Date completedAt;
+    @ServerTimestamp // Lo pone Firestore en cada escritura; base de la sincronización incremental
+    @Ignore // La cola offline no lo necesita: al subirla vale null y Firestore lo rellena
+    private Date updatedAt;
 
 
     public boolean isPenaltyApplied() { return penaltyApplied; }
@@ -184,8 +193,34 @@ public class TaskModel {
     public void setProposal(boolean proposal) { isProposal = proposal; }
     public Date getCompletedAt() { return completedAt; }
     public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
 
     public void setAssignedMembers(List<String> assignedMembers) {
         this.assignedMembers = assignedMembers;
     }
+
+    /**
+     * Asignados y revisor, sin repetidos. Firestore lo guarda como 'participants' al serializar
+     * la tarea, para que una sola consulta array-contains cubra ambos roles.
+     */
+    public List<String> getParticipants() {
+        return participantsOf(assignedMembers, reviewerId);
+    }
+
+    // Siempre se deriva de assignedMembers y reviewerId; existe para que Firestore no avise al leer
+    public void setParticipants(List<String> participants) { }
+
+    public static List<String> participantsOf(List<String> assignedMembers, String reviewerId) {
+        List<String> participants = new ArrayList<>();
+        if (assignedMembers != null) {
+            for (String memberId : assignedMembers) {
+                if (memberId != null && !participants.contains(memberId)) participants.add(memberId);
+            }
+        }
+        if (reviewerId != null && !participants.contains(reviewerId)) {
+            participants.add(reviewerId);
+        }
+        return participants;
+    }
 }
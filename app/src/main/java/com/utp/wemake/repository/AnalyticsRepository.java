@@ -0,0 +1,417 @@
+package com.utp.wemake.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.utp.wemake.db.ApiCacheDao;
+import com.utp.wemake.db.ApiCacheEntry;
+import com.utp.wemake.db.AppDatabase;
+import com.utp.wemake.dto.BoardOverviewResponse;
+import com.utp.wemake.dto.DashboardResponse;
+import com.utp.wemake.dto.LeaderboardResponse;
+import com.utp.wemake.dto.UserSummaryResponse;
+import com.utp.wemake.services.ApiRequestCoordinator;
+import com.utp.wemake.services.ApiService;
+import com.utp.wemake.services.RetrofitClient;
+import com.utp.wemake.utils.ApiCapabilityPrefs;
+
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Datos de la API de analítica con "stale-while-revalidate": la última respuesta guardada
+ * en Room se entrega al instante y, si ya venció su vigencia, se pide otra a la API en
+ * segundo plano. La API corre en Render y puede tardar decenas de segundos en arrancar,
+ * así que solo la primera visita a un tablero espera a la red.
+ * Las peticiones pasan por ApiRequestCoordinator: las idénticas en curso se comparten.
+ */
+public class AnalyticsRepository {
+
+    // Vigencia de cada copia; vencida se sigue mostrando, pero se vuelve a pedir
+    private static final long DASHBOARD_TTL_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final long LEADERBOARD_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long SUMMARY_TTL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Type LEADERBOARD_TYPE = new TypeToken<List<LeaderboardResponse>>() {}.getType();
+
+    /**
+     * Callbacks en el hilo principal. onResult puede llegar dos veces: primero con la copia
+     * guardada (fromCache) y después con la respuesta de la API.
+     */
+    public interface OnResultListener<T> {
+        void onResult(T data, boolean fromCache);
+
+        // Solo si no hubo copia guardada que mostrar
+        void onError(String message);
+    }
+
+    private final ApiCacheDao apiCacheDao;
+    private final ApiService apiService;
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ApiRequestCoordinator coordinator = ApiRequestCoordinator.getInstance();
+    // Peticiones de esta instancia aún sin respuesta (solo se toca en el hilo principal)
+    private final List<ApiRequestCoordinator.Subscription> pendingRequests = new ArrayList<>();
+    private int requestGeneration = 0;
+    // Si la API tiene el endpoint combinado, guardado entre arranques
+    private final ApiCapabilityPrefs capabilityPrefs;
+    // Una sola comprobación del endpoint combinado a la vez en toda la app (hilo principal)
+    private static boolean overviewProbeInFlight = false;
+
+    public AnalyticsRepository(Context context) {
+        this.apiCacheDao = AppDatabase.getDatabase(context).apiCacheDao();
+        this.apiService = RetrofitClient.getApiService();
+        this.capabilityPrefs = new ApiCapabilityPrefs(context);
+    }
+
+    public void getDashboard(String boardId, OnResultListener<DashboardResponse> listener) {
+        load(dashboardKey(boardId), DashboardResponse.class, DASHBOARD_TTL_MS,
+                () -> apiService.getDashboardData(boardId), listener);
+    }
+
+    public void getLeaderboard(String boardId, OnResultListener<List<LeaderboardResponse>> listener) {
+        load(leaderboardKey(boardId), LEADERBOARD_TYPE, LEADERBOARD_TTL_MS,
+                () -> apiService.getLeaderboard(boardId), listener);
+    }
+
+    public void getUserSummary(String boardId, String userId, OnResultListener<UserSummaryResponse> listener) {
+        load(summaryKey(boardId, userId), UserSummaryResponse.class, SUMMARY_TTL_MS,
+                () -> apiService.getUserSummary(boardId, userId), listener);
+    }
+
+    /**
+     * Dashboard, ranking y resumen del usuario como una sola foto. Primero se entrega lo
+     * guardado y, si algo venció, una foto completa con la respuesta de la API: del endpoint
+     * combinado si consta que el servidor lo tiene o, si no, de las tres llamadas en paralelo.
+     * En la segunda entrega fromCache es false y cada parte dice si es nueva o si falló.
+     */
+    public void getBoardOverview(String boardId, String userId, OnResultListener<BoardOverview> listener) {
+        final int generation = requestGeneration;
+        AppDatabase.databaseExecutor.execute(() -> {
+            Cached<DashboardResponse> dashboard =
+                    readCache(dashboardKey(boardId), DashboardResponse.class, DASHBOARD_TTL_MS);
+            Cached<List<LeaderboardResponse>> leaderboard =
+                    readCache(leaderboardKey(boardId), LEADERBOARD_TYPE, LEADERBOARD_TTL_MS);
+            Cached<UserSummaryResponse> summary =
+                    readCache(summaryKey(boardId, userId), UserSummaryResponse.class, SUMMARY_TTL_MS);
+
+            mainHandler.post(() -> {
+                if (generation != requestGeneration) return;
+                OverviewFanIn fanIn = new OverviewFanIn(dashboard, leaderboard, summary, listener);
+                BoardOverview cached = fanIn.snapshot();
+                if (cached.hasAnyData()) {
+                    fanIn.cachedDelivered = true;
+                    listener.onResult(cached, true);
+                }
+                if (!dashboard.stale && !leaderboard.stale && !summary.stale) return;
+
+                Boolean overviewSupported = capabilityPrefs.isOverviewSupported();
+                if (Boolean.TRUE.equals(overviewSupported)) {
+                    fetchCombined(boardId, userId, fanIn);
+                } else {
+                    fanOut(boardId, userId, fanIn);
+                    // Mientras no se sepa, se comprueba aparte sin que la foto lo espere
+                    if (overviewSupported == null) probeCombined(boardId, userId);
+                }
+            });
+        });
+    }
+
+    /**
+     * Deja de esperar las respuestas pedidas por esta instancia (p. ej. al cambiar de tablero).
+     * La llamada a la API solo se cancela si nadie más en la app la está esperando.
+     */
+    public void cancelPendingRequests() {
+        requestGeneration++;
+        List<ApiRequestCoordinator.Subscription> requests = new ArrayList<>(pendingRequests);
+        pendingRequests.clear();
+        for (ApiRequestCoordinator.Subscription request : requests) {
+            request.cancel();
+        }
+    }
+
+    private static String overviewKey(String boardId, String userId) {
+        return "overview/" + boardId + "/" + userId;
+    }
+
+    private static String dashboardKey(String boardId) {
+        return "dashboard/" + boardId;
+    }
+
+    private static String leaderboardKey(String boardId) {
+        return "leaderboard/" + boardId;
+    }
+
+    private static String summaryKey(String boardId, String userId) {
+        return "summary/" + boardId + "/" + userId;
+    }
+
+    private <T> void load(String cacheKey, Type type, long ttlMs, Supplier<Call<T>> request, OnResultListener<T> listener) {
+        final int generation = requestGeneration;
+        AppDatabase.databaseExecutor.execute(() -> {
+            Cached<T> cached = readCache(cacheKey, type, ttlMs);
+
+            mainHandler.post(() -> {
+                if (generation != requestGeneration) return;
+                if (cached.data != null) {
+                    listener.onResult(cached.data, true);
+                }
+                if (cached.stale) {
+                    revalidate(cacheKey, request, cached.data != null, listener);
+                }
+            });
+        });
+    }
+
+    private <T> void revalidate(String cacheKey, Supplier<Call<T>> request, boolean hasCachedCopy, OnResultListener<T> listener) {
+        track(cacheKey, request, new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                T body = response.body();
+                if (response.isSuccessful() && body != null) {
+                    listener.onResult(body, false);
+                    save(cacheKey, body);
+                } else if (!hasCachedCopy) {
+                    listener.onError(httpError(response));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (!hasCachedCopy) {
+                    listener.onError(networkError(t));
+                }
+            }
+        });
+    }
+
+    /**
+     * Pide las tres partes con una sola llamada. Si falla por lo que sea se pasa a las tres
+     * por separado; si el servidor ya no tiene el endpoint (404), además se recuerda.
+     */
+    private void fetchCombined(String boardId, String userId, OverviewFanIn fanIn) {
+        track(overviewKey(boardId, userId), () -> apiService.getBoardOverview(boardId, userId),
+                new Callback<BoardOverviewResponse>() {
+                    @Override
+                    public void onResponse(Call<BoardOverviewResponse> call, Response<BoardOverviewResponse> response) {
+                        if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                            capabilityPrefs.setOverviewSupported(false);
+                        }
+                        BoardOverviewResponse body = response.body();
+                        if (!response.isSuccessful() || body == null) {
+                            // Un fallo del endpoint combinado no implica que fallen los de cada parte
+                            fanOut(boardId, userId, fanIn);
+                            return;
+                        }
+                        fanIn.dashboard = combinedPart(dashboardKey(boardId), body.dashboard, fanIn.dashboard);
+                        fanIn.leaderboard = combinedPart(leaderboardKey(boardId), body.leaderboard, fanIn.leaderboard);
+                        fanIn.userSummary = combinedPart(summaryKey(boardId, userId), body.userSummary, fanIn.userSummary);
+                        fanIn.deliver();
+                    }
+
+                    @Override
+                    public void onFailure(Call<BoardOverviewResponse> call, Throwable t) {
+                        // Un timeout de la respuesta combinada (la más pesada) no implica el de cada parte
+                        fanOut(boardId, userId, fanIn);
+                    }
+                });
+    }
+
+    /**
+     * Comprueba si el servidor tiene el endpoint combinado y guarda la respuesta: 404 es que no,
+     * una respuesta correcta es que sí. Si no contesta se vuelve a probar en la siguiente carga.
+     * No se anota en pendingRequests: el dato sirve aunque la pantalla ya no esté.
+     */
+    private void probeCombined(String boardId, String userId) {
+        if (overviewProbeInFlight) return;
+        overviewProbeInFlight = true;
+        coordinator.enqueue(overviewKey(boardId, userId), () -> apiService.getBoardOverview(boardId, userId),
+                new Callback<BoardOverviewResponse>() {
+                    @Override
+                    public void onResponse(Call<BoardOverviewResponse> call, Response<BoardOverviewResponse> response) {
+                        overviewProbeInFlight = false;
+                        if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                            capabilityPrefs.setOverviewSupported(false);
+                        } else if (response.isSuccessful() && response.body() != null) {
+                            capabilityPrefs.setOverviewSupported(true);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<BoardOverviewResponse> call, Throwable t) {
+                        overviewProbeInFlight = false;
+                    }
+                });
+    }
+
+    private <T> BoardOverview.Part<T> combinedPart(String cacheKey, T data, BoardOverview.Part<T> previous) {
+        if (data == null) {
+            return BoardOverview.Part.failed(previous, "El servidor no devolvió esta sección");
+        }
+        save(cacheKey, data);
+        return BoardOverview.Part.loaded(data, false);
+    }
+
+    // Las partes vencidas se piden a la vez y la foto se entrega cuando responden todas
+    private void fanOut(String boardId, String userId, OverviewFanIn fanIn) {
+        fanIn.remaining = (fanIn.dashboardStale ? 1 : 0) + (fanIn.leaderboardStale ? 1 : 0)
+                + (fanIn.summaryStale ? 1 : 0);
+        if (fanIn.dashboardStale) {
+            fetchPart(dashboardKey(boardId), () -> apiService.getDashboardData(boardId), fanIn.dashboard, part -> {
+                fanIn.dashboard = part;
+                fanIn.partDone();
+            });
+        }
+        if (fanIn.leaderboardStale) {
+            fetchPart(leaderboardKey(boardId), () -> apiService.getLeaderboard(boardId), fanIn.leaderboard, part -> {
+                fanIn.leaderboard = part;
+                fanIn.partDone();
+            });
+        }
+        if (fanIn.summaryStale) {
+            fetchPart(summaryKey(boardId, userId), () -> apiService.getUserSummary(boardId, userId), fanIn.userSummary, part -> {
+                fanIn.userSummary = part;
+                fanIn.partDone();
+            });
+        }
+    }
+
+    private <T> void fetchPart(String cacheKey, Supplier<Call<T>> request, BoardOverview.Part<T> previous,
+                               PartCallback<T> callback) {
+        track(cacheKey, request, new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                T body = response.body();
+                if (response.isSuccessful() && body != null) {
+                    save(cacheKey, body);
+                    callback.onPart(BoardOverview.Part.loaded(body, false));
+                } else {
+                    callback.onPart(BoardOverview.Part.failed(previous, httpError(response)));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                callback.onPart(BoardOverview.Part.failed(previous, networkError(t)));
+            }
+        });
+    }
+
+    // Encola la llamada en el coordinador y la anota como pendiente hasta que responda
+    private <T> void track(String key, Supplier<Call<T>> request, Callback<T> callback) {
+        ApiRequestCoordinator.Subscription[] subscription = new ApiRequestCoordinator.Subscription[1];
+        subscription[0] = coordinator.enqueue(key, request, new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                pendingRequests.remove(subscription[0]);
+                callback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                pendingRequests.remove(subscription[0]);
+                callback.onFailure(call, t);
+            }
+        });
+        pendingRequests.add(subscription[0]);
+    }
+
+    private <T> Cached<T> readCache(String cacheKey, Type type, long ttlMs) {
+        ApiCacheEntry entry = apiCacheDao.get(cacheKey);
+        T data = entry != null ? parse(entry.json, type) : null;
+        long age = entry != null ? System.currentTimeMillis() - entry.fetchedAt : -1;
+        // Con el reloj atrasado la edad sale negativa: se trata como vencida
+        boolean stale = data == null || age < 0 || age >= ttlMs;
+        return new Cached<>(data, stale);
+    }
+
+    private static String httpError(Response<?> response) {
+        return "No se pudieron cargar los datos. Código: " + response.code();
+    }
+
+    private static String networkError(Throwable t) {
+        return "Error de red: " + t.getMessage();
+    }
+
+    private void save(String cacheKey, Object data) {
+        long fetchedAt = System.currentTimeMillis();
+        AppDatabase.databaseExecutor.execute(() ->
+                apiCacheDao.upsert(new ApiCacheEntry(cacheKey, gson.toJson(data), fetchedAt)));
+    }
+
+    // Una copia que ya no se puede leer (cambió el DTO) cuenta como inexistente
+    private <T> T parse(String json, Type type) {
+        try {
+            return gson.fromJson(json, type);
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static final class Cached<T> {
+        final T data;
+        final boolean stale;
+
+        Cached(T data, boolean stale) {
+            this.data = data;
+            this.stale = stale;
+        }
+    }
+
+    private interface PartCallback<T> {
+        void onPart(BoardOverview.Part<T> part);
+    }
+
+    /** Reúne las partes de una foto del tablero mientras llegan (solo en el hilo principal). */
+    private static final class OverviewFanIn {
+        final boolean dashboardStale;
+        final boolean leaderboardStale;
+        final boolean summaryStale;
+        final OnResultListener<BoardOverview> listener;
+        BoardOverview.Part<DashboardResponse> dashboard;
+        BoardOverview.Part<List<LeaderboardResponse>> leaderboard;
+        BoardOverview.Part<UserSummaryResponse> userSummary;
+        boolean cachedDelivered;
+        int remaining;
+
+        OverviewFanIn(Cached<DashboardResponse> dashboard, Cached<List<LeaderboardResponse>> leaderboard,
+                      Cached<UserSummaryResponse> userSummary, OnResultListener<BoardOverview> listener) {
+            this.dashboard = BoardOverview.Part.loaded(dashboard.data, true);
+            this.leaderboard = BoardOverview.Part.loaded(leaderboard.data, true);
+            this.userSummary = BoardOverview.Part.loaded(userSummary.data, true);
+            this.dashboardStale = dashboard.stale;
+            this.leaderboardStale = leaderboard.stale;
+            this.summaryStale = userSummary.stale;
+            this.listener = listener;
+        }
+
+        BoardOverview snapshot() {
+            return new BoardOverview(dashboard, leaderboard, userSummary);
+        }
+
+        void partDone() {
+            if (--remaining == 0) deliver();
+        }
+
+        void deliver() {
+            BoardOverview overview = snapshot();
+            if (overview.hasAnyData() || cachedDelivered) {
+                listener.onResult(overview, false);
+            } else {
+                listener.onError(overview.getDashboard().getError());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.utp.wemake.repository;
+
+import com.utp.wemake.dto.DashboardResponse;
+import com.utp.wemake.dto.LeaderboardResponse;
+import com.utp.wemake.dto.UserSummaryResponse;
+
+import java.util.List;
+
+/**
+ * Foto de los datos de la API para un tablero: dashboard, ranking y resumen del usuario.
+ * Cada parte lleva su propio estado, así el fallo de una no oculta las demás.
+ */
+public class BoardOverview {
+
+    /**
+     * Una parte de la foto. Si falló la petición, error trae el motivo y data, si la hay,
+     * es la última copia guardada.
+     */
+    public static final class Part<T> {
+        private final T data;
+        private final boolean fromCache;
+        private final String error;
+
+        private Part(T data, boolean fromCache, String error) {
+            this.data = data;
+            this.fromCache = fromCache;
+            this.error = error;
+        }
+
+        static <T> Part<T> loaded(T data, boolean fromCache) {
+            return new Part<>(data, fromCache, null);
+        }
+
+        static <T> Part<T> failed(Part<T> previous, String error) {
+            return new Part<>(previous.data, previous.fromCache, error);
+        }
+
+        public T getData() { return data; }
+        public boolean hasData() { return data != null; }
+        public boolean isFromCache() { return fromCache; }
+        public String getError() { return error; }
+        public boolean hasError() { return error != null; }
+    }
+
+    private final Part<DashboardResponse> dashboard;
+    private final Part<List<LeaderboardResponse>> leaderboard;
+    private final Part<UserSummaryResponse> userSummary;
+
+    BoardOverview(Part<DashboardResponse> dashboard,
+                  Part<List<LeaderboardResponse>> leaderboard,
+                  Part<UserSummaryResponse> userSummary) {
+        this.dashboard = dashboard;
+        this.leaderboard = leaderboard;
+        this.userSummary = userSummary;
+    }
+
+    public Part<DashboardResponse> getDashboard() { return dashboard; }
+    public Part<List<LeaderboardResponse>> getLeaderboard() { return leaderboard; }
+    public Part<UserSummaryResponse> getUserSummary() { return userSummary; }
+
+    public boolean hasAnyData() {
+        return dashboard.hasData() || leaderboard.hasData() || userSummary.hasData();
+    }
+}
@@ -14,11 +14,13 @@ import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.WriteBatch;
+import com.utp.wemake.db.MutationValueCodec;
 import com.utp.wemake.models.Board;
 import com.utp.wemake.models.Coupon;
 import com.utp.wemake.models.Member;
 import com.utp.wemake.models.RedemptionRequest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class BoardRepository {
@@ -112,31 +114,58 @@ public class BoardRepository {
     /**
      * Inicia una escucha en tiempo real para la colección de cupones de un tablero.
      * @param boardId El ID del tablero.
-     * @param listener El callback que se activará con cada cambio.
+     * @param listener Recibe la lista de cupones ya convertida, en el hilo principal.
      * @return El registro del listener para poder cancelarlo después.
      */
-    public ListenerRegistration listenToCouponsForBoard(String boardId, EventListener<QuerySnapshot> listener) {
-        return db.collection(COLLECTION_BOARDS).document(boardId).collection("coupons")
-                .addSnapshotListener(listener);
+    public ListenerRegistration listenToCouponsForBoard(String boardId, EventListener<List<Coupon>> listener) {
+        return SharedListenerRegistry.getInstance().listenDecoded(
+                db.collection(COLLECTION_BOARDS).document(boardId).collection("coupons"),
+                snapshot -> snapshot.toObjects(Coupon.class), listener);
     }
 
     public Task<Void> createCoupon(String boardId, Coupon coupon) {
+        MutationOutbox outbox = MutationOutbox.getInstance();
+        if (!outbox.isOnline()) {
+            // El ID se genera en el cliente, así que el documento se puede crear más tarde
+            DocumentReference couponRef = db.collection(COLLECTION_BOARDS).document(boardId)
+                    .collection("coupons").document();
+            return outbox.set(couponRef.getPath(), couponFields(coupon));
+        }
         return db.collection(COLLECTION_BOARDS).document(boardId).collection("coupons").add(coupon).continueWith(task -> null);
     }
 
     public Task<Void> updateCoupon(String boardId, Coupon coupon) {
+        MutationOutbox outbox = MutationOutbox.getInstance();
+        if (!outbox.isOnline()) {
+            DocumentReference couponRef = db.collection(COLLECTION_BOARDS).document(boardId)
+                    .collection("coupons").document(coupon.getId());
+            return outbox.set(couponRef.getPath(), couponFields(coupon));
+        }
         return db.collection(COLLECTION_BOARDS).document(boardId)
                 .collection("coupons").document(coupon.getId())
                 .set(coupon, SetOptions.merge()); // Merge para no borrar otros campos
     }
 
     public Task<Void> deleteCoupon(String boardId, String couponId) {
+        MutationOutbox outbox = MutationOutbox.getInstance();
+        if (!outbox.isOnline()) {
+            DocumentReference couponRef = db.collection(COLLECTION_BOARDS).document(boardId)
+                    .collection("coupons").document(couponId);
+            return outbox.delete(couponRef.getPath());
+        }
         return db.collection(COLLECTION_BOARDS).document(boardId)
                 .collection("coupons").document(couponId)
                 .delete();
     }
 
+    /**
+     * Descuenta los puntos y crea la solicitud en una transacción. No se encola sin conexión:
+     * el saldo se comprueba contra el servidor y una cola permitiría gastar dos veces los mismos puntos.
+     */
     public Task<Void> requestCouponRedemption(String boardId, String userId, String userName, Coupon coupon) {
+        if (!MutationOutbox.getInstance().isOnline()) {
+            return Tasks.forException(new Exception("Canjear un cupón requiere conexión a internet."));
+        }
         DocumentReference boardRef = db.collection(COLLECTION_BOARDS).document(boardId);
 
         DocumentReference memberRef = boardRef.collection("members_details").document(userId);
@@ -169,15 +198,20 @@ public class BoardRepository {
         });
     }
 
-    public ListenerRegistration listenToPendingRedemptions(String boardId, EventListener<QuerySnapshot> listener) {
-        return db.collection(COLLECTION_BOARDS).document(boardId).collection("redemption_requests")
+    public ListenerRegistration listenToPendingRedemptions(String boardId, EventListener<List<RedemptionRequest>> listener) {
+        Query pendingQuery = db.collection(COLLECTION_BOARDS).document(boardId).collection("redemption_requests")
                 .whereEqualTo("status", "pendiente")
-                .orderBy("requestedAt", Query.Direction.DESCENDING)
-                .addSnapshotListener(listener);
+                .orderBy("requestedAt", Query.Direction.DESCENDING);
+        return SharedListenerRegistry.getInstance().listenDecoded(pendingQuery,
+                snapshot -> snapshot.toObjects(RedemptionRequest.class), listener);
     }
 
     public Task<Void> approveRedemptionRequest(String boardId, String requestId, String adminId) {
         DocumentReference requestRef = db.collection(COLLECTION_BOARDS).document(boardId).collection("redemption_requests").document(requestId);
+        MutationOutbox outbox = MutationOutbox.getInstance();
+        if (!outbox.isOnline()) {
+            return queueRedemptionReview(outbox, requestRef.getPath(), "aprobado", adminId);
+        }
         return requestRef.update("status", "aprobado", "reviewedBy", adminId, "reviewedAt", FieldValue.serverTimestamp());
     }
 
@@ -185,6 +219,13 @@ public class BoardRepository {
         DocumentReference requestRef = db.collection(COLLECTION_BOARDS).document(boardId).collection("redemption_requests").document(request.getId());
         DocumentReference memberRef = db.collection(COLLECTION_BOARDS).document(boardId).collection("members_details").document(request.getUserId());
 
+        MutationOutbox outbox = MutationOutbox.getInstance();
+        if (!outbox.isOnline()) {
+            // Sin red no hay transacciones: se encolan las dos escrituras (el reembolso como incremento)
+            outbox.update(memberRef.getPath(), "points", new MutationValueCodec.Increment(request.getCost()));
+            return queueRedemptionReview(outbox, requestRef.getPath(), "denegado", adminId);
+        }
+
         return db.runTransaction(transaction -> {
             transaction.update(requestRef, "status", "denegado", "reviewedBy", adminId, "reviewedAt", FieldValue.serverTimestamp());
             transaction.update(memberRef, "points", FieldValue.increment(request.getCost()));
@@ -192,38 +233,56 @@ public class BoardRepository {
         });
     }
 
+    private Task<Void> queueRedemptionReview(MutationOutbox outbox, String requestPath, String status, String adminId) {
+        outbox.update(requestPath, "status", status);
+        outbox.update(requestPath, "reviewedBy", adminId);
+        return outbox.update(requestPath, "reviewedAt", MutationValueCodec.SERVER_TIMESTAMP);
+    }
+
+    // Campos que escribe Firestore al serializar Coupon (el @DocumentId no se guarda)
+    private static Map<String, Object> couponFields(Coupon coupon) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("title", coupon.getTitle());
+        fields.put("description", coupon.getDescription());
+        fields.put("cost", coupon.getCost());
+        return fields;
+    }
+
     /**
      * Escucha en tiempo real las solicitudes de canje APROBADAS de un usuario específico en un tablero.
      */
-    public ListenerRegistration listenToRedeemedCoupons(String boardId, String userId, EventListener<QuerySnapshot> listener) {
-        return db.collection(COLLECTION_BOARDS).document(boardId).collection("redemption_requests")
+    public ListenerRegistration listenToRedeemedCoupons(String boardId, String userId,
+                                                        EventListener<List<RedemptionRequest>> listener) {
+        Query redeemedQuery = db.collection(COLLECTION_BOARDS).document(boardId).collection("redemption_requests")
                 .whereEqualTo("userId", userId)
                 .whereEqualTo("status", "aprobado")
-                .orderBy("requestedAt", Query.Direction.DESCENDING)
-                .addSnapshotListener(listener);
+                .orderBy("requestedAt", Query.Direction.DESCENDING);
+        return SharedListenerRegistry.getInstance().listenDecoded(redeemedQuery,
+                snapshot -> snapshot.toObjects(RedemptionRequest.class), listener);
     }
 
     /**
      * Escucha los cambios de un tablero en tiempo real.
      * @param boardId El ID del tablero.
-     * @param listener El callback para manejar los cambios.
+     * @param listener Recibe el tablero ya convertido (null si no existe), en el hilo principal.
      * @return El registro del listener para poder cancelarlo después.
      */
-    public ListenerRegistration listenToBoardById(String boardId, EventListener<DocumentSnapshot> listener) {
-        return db.collection(COLLECTION_BOARDS).document(boardId).addSnapshotListener(listener);
+    public ListenerRegistration listenToBoardById(String boardId, EventListener<Board> listener) {
+        return SharedListenerRegistry.getInstance().listenDecoded(db.collection(COLLECTION_BOARDS).document(boardId),
+                snapshot -> snapshot.exists() ? snapshot.toObject(Board.class) : null, listener);
     }
 
     /**
      * Escucha los cambios de los detalles de un miembro en tiempo real.
      * @param boardId El ID del tablero.
      * @param userId El ID del usuario.
-     * @param listener El callback para manejar los cambios.
+     * @param listener Recibe el miembro ya convertido (null si no existe), en el hilo principal.
      * @return El registro del listener para poder cancelarlo después.
      */
-    public ListenerRegistration listenToMemberDetails(String boardId, String userId, EventListener<DocumentSnapshot> listener) {
-        return db.collection(COLLECTION_BOARDS).document(boardId)
-                .collection("members_details").document(userId)
-                .addSnapshotListener(listener);
+    public ListenerRegistration listenToMemberDetails(String boardId, String userId, EventListener<Member> listener) {
+        return SharedListenerRegistry.getInstance().listenDecoded(
+                db.collection(COLLECTION_BOARDS).document(boardId).collection("members_details").document(userId),
+                snapshot -> snapshot.exists() ? snapshot.toObject(Member.class) : null, listener);
     }
     /**
      * Une un usuario a un tablero existente. Realiza dos operaciones en un batch:
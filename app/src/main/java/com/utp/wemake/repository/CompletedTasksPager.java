@@ -0,0 +1,131 @@
+package com.utp.wemake.repository;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.utp.wemake.constants.TaskConstants;
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Carga por páginas las tareas completadas del usuario, de la más reciente a la más antigua
+ * (completedAt descendente), con cursores limit/startAfter.
+ * El listener en tiempo real solo cubre los estados activos: un tablero con miles de tareas
+ * terminadas ya no las lee todas cada vez que se abre la pantalla.
+ * Con más de 30 tableros hay una consulta por bloque y las páginas se mezclan por fecha.
+ * Se usa desde el hilo principal.
+ */
+public class CompletedTasksPager {
+
+    public static final int PAGE_SIZE = 20;
+    // Límite de valores de whereIn en Firestore
+    private static final int MAX_BOARDS_PER_QUERY = 30;
+
+    private final List<Query> queries = new ArrayList<>();
+    // Por bloque: último documento leído, si ya no quedan más y lo leído que aún no se entregó
+    private final List<DocumentSnapshot> cursors = new ArrayList<>();
+    private final List<Boolean> exhausted = new ArrayList<>();
+    private final List<List<DocumentSnapshot>> buffers = new ArrayList<>();
+    private Task<List<TaskModel>> inFlight;
+    private final OnPageLoadedListener onPageLoaded;
+
+    /** Recibe cada página antes que quien la pidió (p. ej. para guardarla en Room). */
+    interface OnPageLoadedListener {
+        void onPageLoaded(List<TaskModel> page);
+    }
+
+    CompletedTasksPager(List<String> boardIds, String userId, OnPageLoadedListener onPageLoaded) {
+        this.onPageLoaded = onPageLoaded;
+        CollectionReference tasksCollection = FirebaseFirestore.getInstance().collection("tasks");
+        for (int start = 0; start < boardIds.size(); start += MAX_BOARDS_PER_QUERY) {
+            List<String> chunk = boardIds.subList(start, Math.min(start + MAX_BOARDS_PER_QUERY, boardIds.size()));
+            Query query = tasksCollection.whereArrayContains("participants", userId);
+            query = chunk.size() == 1
+                    ? query.whereEqualTo("boardId", chunk.get(0))
+                    : query.whereIn("boardId", new ArrayList<>(chunk));
+            queries.add(query
+                    .whereEqualTo("status", TaskConstants.STATUS_COMPLETED)
+                    .orderBy("completedAt", Query.Direction.DESCENDING));
+            cursors.add(null);
+            exhausted.add(false);
+            buffers.add(new ArrayList<>());
+        }
+    }
+
+    public boolean hasMore() {
+        for (int i = 0; i < queries.size(); i++) {
+            if (!exhausted.get(i) || !buffers.get(i).isEmpty()) return true;
+        }
+        return false;
+    }
+
+    public boolean isLoading() {
+        return inFlight != null && !inFlight.isComplete();
+    }
+
+    /**
+     * Carga la siguiente página. Si ya hay una carga en curso devuelve esa misma.
+     */
+    public Task<List<TaskModel>> loadNextPage() {
+        if (isLoading()) return inFlight;
+
+        List<Task<QuerySnapshot>> reads = new ArrayList<>();
+        List<Integer> readChunks = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            // Cada bloque necesita PAGE_SIZE candidatos para poder elegir bien los más recientes
+            if (exhausted.get(i) || buffers.get(i).size() >= PAGE_SIZE) continue;
+            Query page = queries.get(i).limit(PAGE_SIZE);
+            if (cursors.get(i) != null) page = page.startAfter(cursors.get(i));
+            reads.add(page.get());
+            readChunks.add(i);
+        }
+
+        inFlight = Tasks.whenAllSuccess(reads).continueWith(task -> {
+            List<Object> results = task.getResult();
+            for (int r = 0; r < results.size(); r++) {
+                int chunk = readChunks.get(r);
+                List<DocumentSnapshot> docs = ((QuerySnapshot) results.get(r)).getDocuments();
+                buffers.get(chunk).addAll(docs);
+                if (!docs.isEmpty()) cursors.set(chunk, docs.get(docs.size() - 1));
+                if (docs.size() < PAGE_SIZE) exhausted.set(chunk, true);
+            }
+            List<TaskModel> page = takeNewest();
+            if (!page.isEmpty()) onPageLoaded.onPageLoaded(page);
+            return page;
+        });
+        return inFlight;
+    }
+
+    // Saca de los buffers las PAGE_SIZE más recientes y solo esas se convierten a TaskModel
+    private List<TaskModel> takeNewest() {
+        List<TaskModel> page = new ArrayList<>(PAGE_SIZE);
+        while (page.size() < PAGE_SIZE) {
+            int newestChunk = -1;
+            Date newest = null;
+            for (int i = 0; i < buffers.size(); i++) {
+                if (buffers.get(i).isEmpty()) continue;
+                Date completedAt = buffers.get(i).get(0).getDate("completedAt");
+                if (newestChunk == -1 || (completedAt != null && (newest == null || completedAt.after(newest)))) {
+                    newestChunk = i;
+                    newest = completedAt;
+                }
+            }
+            if (newestChunk == -1) break;
+
+            DocumentSnapshot doc = buffers.get(newestChunk).remove(0);
+            TaskModel task = doc.toObject(TaskModel.class);
+            if (task != null) {
+                task.setId(doc.getId());
+                page.add(task);
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,82 @@
+package com.utp.wemake.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+
+import java.util.function.Consumer;
+
+/**
+ * Junta los valores que llegan en ráfaga desde el hilo de snapshots y entrega uno solo
+ * por ventana de FRAME_WINDOW_MS en el hilo principal, para que varios snapshots
+ * seguidos no provoquen varios redibujados dentro del mismo frame.
+ */
+final class ConflatedDelivery<T> {
+
+    // Aproximadamente un frame a 60 Hz
+    static final long FRAME_WINDOW_MS = 16;
+
+    interface Merger<T> {
+        T merge(T pending, T next);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Merger<T> merger;
+    private final Consumer<T> onMain;
+    private final Runnable flush = this::flush;
+
+    private T pending;
+    private boolean hasPending;
+    private boolean scheduled;
+    private volatile boolean cancelled;
+
+    ConflatedDelivery(Merger<T> merger, Consumer<T> onMain) {
+        this.merger = merger;
+        this.onMain = onMain;
+    }
+
+    /** Se queda solo con el último valor de la ventana. */
+    static <T> ConflatedDelivery<T> latest(Consumer<T> onMain) {
+        return new ConflatedDelivery<>((pending, next) -> next, onMain);
+    }
+
+    /** Se puede llamar desde cualquier hilo. */
+    synchronized void offer(T value) {
+        if (cancelled) return;
+        pending = hasPending ? merger.merge(pending, value) : value;
+        hasPending = true;
+        if (!scheduled) {
+            scheduled = true;
+            mainHandler.postDelayed(flush, FRAME_WINDOW_MS);
+        }
+    }
+
+    /** Descarta lo pendiente; después de llamarlo (desde el hilo principal) no se entrega nada más. */
+    synchronized void cancel() {
+        cancelled = true;
+        pending = null;
+        hasPending = false;
+        mainHandler.removeCallbacks(flush);
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void flush() {
+        T value;
+        synchronized (this) {
+            scheduled = false;
+            if (cancelled || !hasPending) return;
+            value = pending;
+            pending = null;
+            hasPending = false;
+        }
+        Trace.beginSection("ConflatedDelivery.flush");
+        try {
+            onMain.accept(value);
+        } finally {
+            Trace.endSection();
+        }
+    }
+}
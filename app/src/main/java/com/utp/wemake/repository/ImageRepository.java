@@ -2,27 +2,22 @@ package com.utp.wemake.repository;
 
 import android.content.Context;
 import android.net.Uri;
-import android.os.Handler;
-import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
 import com.cloudinary.android.MediaManager;
-import com.cloudinary.android.callback.ErrorInfo;
-import com.cloudinary.android.callback.UploadCallback;
 import com.utp.wemake.BuildConfig;
+import com.utp.wemake.workers.ImageUploadWorker;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.UUID;
 
 public class ImageRepository {
 
-    // Interfaz para notificar el resultado de la subida
-    public interface UploadCallbackListener {
-        void onSuccess(String imageUrl);
-        void onError(String error);
-    }
-
     // Constructor para inicializar MediaManager (llámalo en tu clase Application)
     public static void initialize(Context context) {
         Map<String, String> config = new HashMap<>();
@@ -33,43 +28,22 @@ public class ImageRepository {
     }
 
     /**
-     * Sube una imagen a Cloudinary.
+     * Encola la subida de una nueva foto de perfil. La imagen se reduce a WebP en el
+     * dispositivo y se sube en segundo plano cuando hay red (ver ImageUploadWorker);
+     * la URL se guarda en el perfil aunque la app ya no esté abierta.
      * @param imageUri La URI de la imagen seleccionada por el usuario.
-     * @param listener El callback para notificar el resultado.
+     * @param userId El usuario cuyo perfil se actualiza.
+     * @return El id de la subida, para seguir su avance en getProfilePictureUploads.
      */
-    public void uploadImage(Uri imageUri, UploadCallbackListener listener) {
-        // La subida se hace en un hilo de fondo para no bloquear la UI
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Handler handler = new Handler(Looper.getMainLooper());
-
-        executor.execute(() -> {
-            MediaManager.get().upload(imageUri)
-                    .unsigned("android_profile_pics")
-                    .callback(new UploadCallback() {
-                        @Override
-                        public void onStart(String requestId) {
-                        }
-
-                        @Override
-                        public void onProgress(String requestId, long bytes, long totalBytes) {
-                        }
-
-                        @Override
-                        public void onSuccess(String requestId, Map resultData) {
-                            String imageUrl = (String) resultData.get("secure_url");
-                            handler.post(() -> listener.onSuccess(imageUrl));
-                        }
-
-                        @Override
-                        public void onError(String requestId, ErrorInfo error) {
-                            handler.post(() -> listener.onError(error.getDescription()));
-                        }
+    public UUID uploadProfilePicture(Context context, Uri imageUri, String userId) {
+        return ImageUploadWorker.enqueueProfilePicture(context, imageUri, userId);
+    }
 
-                        @Override
-                        public void onReschedule(String requestId, ErrorInfo error) {
-                        }
-                    })
-                    .dispatch();
-        });
+    /**
+     * Estado de la subida de foto de perfil en curso (preparación y subida).
+     */
+    public LiveData<List<WorkInfo>> getProfilePictureUploads(Context context) {
+        return WorkManager.getInstance(context)
+                .getWorkInfosForUniqueWorkLiveData(ImageUploadWorker.UNIQUE_PROFILE_PICTURE_WORK_NAME);
     }
-}
\ No newline at end of file
+}
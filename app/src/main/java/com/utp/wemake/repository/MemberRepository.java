@@ -14,6 +14,7 @@ import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.WriteBatch;
+import com.utp.wemake.db.MutationValueCodec;
 import com.utp.wemake.models.Member;
 import com.utp.wemake.models.User;
 import com.utp.wemake.utils.EmailService;
@@ -270,6 +271,25 @@ public class MemberRepository {
         return batch;
     }
 
+    /**
+     * Versión sin conexión de addPointsToMembersBatch: encola un incremento por miembro.
+     * Los incrementos pendientes de un mismo miembro se suman en la cola.
+     */
+    public void addPointsToMembersOffline(String boardId, List<String> memberIds, int pointsToAdd) {
+        if (memberIds == null || memberIds.isEmpty() || pointsToAdd == 0) {
+            return;
+        }
+        MutationOutbox outbox = MutationOutbox.getInstance();
+        for (String memberId : memberIds) {
+            outbox.update(memberDetailsPath(boardId, memberId), "points",
+                    new MutationValueCodec.Increment(pointsToAdd));
+        }
+    }
+
+    public static String memberDetailsPath(String boardId, String memberId) {
+        return COLLECTION_BOARDS + "/" + boardId + "/" + COLLECTION_MEMBERS_DETAILS + "/" + memberId;
+    }
+
     public Task<DocumentSnapshot> getMember(String boardId, String userId) {
         return db.collection(COLLECTION_BOARDS)
                 .document(boardId)
@@ -283,17 +303,18 @@ public class MemberRepository {
      *
      * @param boardId El ID del tablero.
      * @param userId El ID del usuario a escuchar.
-     * @param listener El callback que se activará con cada cambio.
+     * @param listener Recibe el miembro ya convertido (null si no existe), en el hilo principal.
      * @return El registro del listener para poder cancelarlo después.
      */
-    public ListenerRegistration listenToMemberDetails(String boardId, String userId, EventListener<DocumentSnapshot> listener) {
+    public ListenerRegistration listenToMemberDetails(String boardId, String userId, EventListener<Member> listener) {
         if (boardId == null || userId == null) {
             // Devuelve null si los IDs son inválidos para evitar crasheos
             return null;
         }
-        return db.collection(COLLECTION_BOARDS).document(boardId)
-                .collection(COLLECTION_MEMBERS_DETAILS).document(userId)
-                .addSnapshotListener(listener);
+        return SharedListenerRegistry.getInstance().listenDecoded(
+                db.collection(COLLECTION_BOARDS).document(boardId)
+                        .collection(COLLECTION_MEMBERS_DETAILS).document(userId),
+                snapshot -> snapshot.exists() ? snapshot.toObject(Member.class) : null, listener);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.utp.wemake.repository;
+
+import android.content.Context;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.utp.wemake.db.AppDatabase;
+import com.utp.wemake.db.MutationDao;
+import com.utp.wemake.db.MutationValueCodec;
+import com.utp.wemake.db.PendingMutation;
+import com.utp.wemake.models.Subtask;
+import com.utp.wemake.models.TaskModel;
+import com.utp.wemake.utils.NetworkUtils;
+import com.utp.wemake.utils.TaskDiff;
+import com.utp.wemake.workers.SyncWorker;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cola de escrituras hechas sin conexión.
+ * Los repositorios la usan cuando no hay red: la escritura se guarda en Room
+ * (pending_mutations), fusionada con las anteriores del mismo campo, y SyncWorker
+ * la sube al volver la conexión.
+ * Mientras tanto mantiene en memoria los valores pendientes de cada documento para
+ * que las pantallas los muestren sobre lo que devuelve Firestore.
+ */
+public class MutationOutbox {
+
+    private static volatile MutationOutbox instance;
+
+    private final Context context;
+    private final MutationDao mutationDao;
+
+    // documentPath -> campo -> último valor pendiente (ya decodificado para uso local)
+    private final Map<String, Map<String, Object>> pendingFields = new ConcurrentHashMap<>();
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    private MutationOutbox(Context context) {
+        this.context = context.getApplicationContext();
+        this.mutationDao = AppDatabase.getDatabase(this.context).mutationDao();
+    }
+
+    // Llamar en la clase Application
+    public static void initialize(Context context) {
+        if (instance == null) {
+            synchronized (MutationOutbox.class) {
+                if (instance == null) {
+                    instance = new MutationOutbox(context);
+                    instance.reloadPending();
+                    instance.scheduleIfPending();
+                }
+            }
+        }
+    }
+
+    public static MutationOutbox getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("MutationOutbox.initialize() no se ha llamado");
+        }
+        return instance;
+    }
+
+    public boolean isOnline() {
+        return NetworkUtils.isOnline(context);
+    }
+
+    /**
+     * Encola la actualización de un campo. El Task se completa cuando la escritura
+     * queda guardada en Room, no cuando llega a Firestore.
+     */
+    public Task<Void> update(String documentPath, String field, Object value) {
+        rememberField(documentPath, field, value);
+        return enqueue(PendingMutation.update(documentPath, field, value));
+    }
+
+    /** Encola un set con merge del documento. */
+    public Task<Void> set(String documentPath, Map<String, Object> data) {
+        return enqueue(PendingMutation.set(documentPath, data));
+    }
+
+    /** Encola el borrado del documento; descarta lo pendiente para él. */
+    public Task<Void> delete(String documentPath) {
+        pendingFields.remove(documentPath);
+        pendingDeletes.add(documentPath);
+        return enqueue(PendingMutation.delete(documentPath));
+    }
+
+    /** Quita de la lista las tareas borradas sin conexión y aplica los cambios pendientes al resto. */
+    public List<TaskModel> applyPendingTo(List<TaskModel> tasks) {
+        if (pendingFields.isEmpty() && pendingDeletes.isEmpty()) return tasks;
+        List<TaskModel> result = new ArrayList<>(tasks.size());
+        for (TaskModel task : tasks) {
+            String path = taskPath(task.getId());
+            if (pendingDeletes.contains(path)) continue;
+            Map<String, Object> fields = pendingFields.get(path);
+            if (fields != null) {
+                for (Map.Entry<String, Object> entry : fields.entrySet()) {
+                    applyField(task, entry.getKey(), entry.getValue());
+                }
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /** true si la tarea tiene campos pendientes o un borrado pendiente. */
+    public boolean hasPendingChanges(String taskId) {
+        String path = taskPath(taskId);
+        return pendingDeletes.contains(path) || pendingFields.containsKey(path);
+    }
+
+    /**
+     * Versión de la tarea con los cambios pendientes aplicados, sin tocar la original.
+     * Devuelve la misma instancia si no hay nada pendiente y null si está pendiente de borrar.
+     */
+    public TaskModel withPendingChanges(TaskModel task) {
+        String path = taskPath(task.getId());
+        if (pendingDeletes.contains(path)) return null;
+        Map<String, Object> fields = pendingFields.get(path);
+        if (fields == null) return task;
+        TaskModel patched = TaskDiff.copyOf(task);
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            applyField(patched, entry.getKey(), entry.getValue());
+        }
+        return patched;
+    }
+
+    public static String taskPath(String taskId) {
+        return "tasks/" + taskId;
+    }
+
+    /**
+     * Reconstruye los valores en memoria a partir de la cola de Room.
+     * Lo llama SyncWorker después de subir; corre en el hilo de Room para verse
+     * ordenado con las escrituras encoladas.
+     */
+    public void reloadPending() {
+        AppDatabase.databaseExecutor.execute(() -> {
+            Map<String, Map<String, Object>> fields = new ConcurrentHashMap<>();
+            Set<String> deletes = ConcurrentHashMap.newKeySet();
+            for (PendingMutation mutation : mutationDao.getAll()) {
+                if (PendingMutation.TYPE_DELETE.equals(mutation.type)) {
+                    fields.remove(mutation.documentPath);
+                    deletes.add(mutation.documentPath);
+                } else if (PendingMutation.TYPE_UPDATE.equals(mutation.type) && mutation.field != null) {
+                    Object value = MutationValueCodec.decodeLocal(mutation.valueJson);
+                    if (!(value instanceof MutationValueCodec.Increment)) {
+                        fields.computeIfAbsent(mutation.documentPath, k -> new ConcurrentHashMap<>())
+                                .put(mutation.field, NullValue.wrap(value));
+                    }
+                }
+            }
+            pendingFields.clear();
+            pendingFields.putAll(fields);
+            pendingDeletes.clear();
+            pendingDeletes.addAll(deletes);
+        });
+    }
+
+    // Lo que quedó en cola de una sesión anterior se vuelve a programar al arrancar
+    private void scheduleIfPending() {
+        AppDatabase.databaseExecutor.execute(() -> {
+            if (mutationDao.countPending() > 0) {
+                SyncWorker.enqueue(context);
+            }
+        });
+    }
+
+    private void rememberField(String documentPath, String field, Object value) {
+        // Los incrementos no se reflejan en memoria: no hay valor base con el que sumarlos
+        if (value instanceof MutationValueCodec.Increment) return;
+        if (value == MutationValueCodec.SERVER_TIMESTAMP) value = new Date();
+        pendingFields.computeIfAbsent(documentPath, k -> new ConcurrentHashMap<>())
+                .put(field, NullValue.wrap(value));
+    }
+
+    private Task<Void> enqueue(PendingMutation mutation) {
+        TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+        AppDatabase.databaseExecutor.execute(() -> {
+            try {
+                mutationDao.enqueue(mutation);
+                source.setResult(null);
+            } catch (Exception e) {
+                source.setException(e);
+                return;
+            }
+            // Con la fila ya guardada: un SyncWorker programado antes podría no haberla visto
+            SyncWorker.enqueue(context);
+        });
+        return source.getTask();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void applyField(TaskModel task, String field, Object rawValue) {
+        Object value = NullValue.unwrap(rawValue);
+        switch (field) {
+            case "status":
+                task.setStatus((String) value);
+                break;
+            case "priority":
+                task.setPriority((String) value);
+                break;
+            case "title":
+                task.setTitle((String) value);
+                break;
+            case "description":
+                task.setDescription((String) value);
+                break;
+            case "deadline":
+                task.setDeadline((Date) value);
+                break;
+            case "completedAt":
+                task.setCompletedAt((Date) value);
+                break;
+            case "reviewerId":
+                task.setReviewerId((String) value);
+                break;
+            case "penaltyApplied":
+                task.setPenaltyApplied(Boolean.TRUE.equals(value));
+                break;
+            case "rewardPoints":
+                task.setRewardPoints(value == null ? 0 : ((Number) value).intValue());
+                break;
+            case "penaltyPoints":
+                task.setPenaltyPoints(value == null ? 0 : ((Number) value).intValue());
+                break;
+            case "assignedMembers":
+                task.setAssignedMembers((List<String>) value);
+                break;
+            case "subtasks":
+                task.setSubtasks((List<Subtask>) value);
+                break;
+            default:
+                // Campo sin reflejo en TaskModel: se sube igualmente
+                break;
+        }
+    }
+
+    // ConcurrentHashMap no admite null como valor
+    private enum NullValue {
+        INSTANCE;
+
+        static Object wrap(Object value) {
+            return value == null ? INSTANCE : value;
+        }
+
+        static Object unwrap(Object value) {
+            return value == INSTANCE ? null : value;
+        }
+    }
+}
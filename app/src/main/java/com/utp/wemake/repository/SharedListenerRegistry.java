@@ -0,0 +1,261 @@
+package com.utp.wemake.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Registro de listeners de Firestore compartido por toda la app.
+ * Cada ViewModel crea sus propios repositorios, así que Inicio y Tareas acababan con
+ * listeners duplicados sobre las mismas consultas (lecturas facturadas dos veces).
+ * Aquí hay un único ListenerRegistration por consulta o documento distinto; los demás
+ * suscriptores reciben el último snapshot y los siguientes. Al quitarse el último
+ * suscriptor el listener se mantiene GRACE_PERIOD_MS más, para que un cambio rápido
+ * de pestaña no vuelva a escuchar (ni a leer) todo.
+ *
+ * Firestore entrega los snapshots en un hilo propio (snapshotExecutor), no en el principal.
+ * Según cómo se suscriba, el listener recibe el snapshot:
+ * - listen(): en el hilo principal, como con addSnapshotListener().
+ * - listenInBackground(): en el hilo de snapshots, para procesarlo allí.
+ * - listenDecoded(): ya convertido a modelos en el hilo de snapshots y, en el principal,
+ *   un único resultado por ventana de ConflatedDelivery.FRAME_WINDOW_MS.
+ * Suscribirse y cancelar se hace desde el hilo principal.
+ */
+public final class SharedListenerRegistry {
+
+    private static final long GRACE_PERIOD_MS = 10_000;
+
+    private static final SharedListenerRegistry INSTANCE = new SharedListenerRegistry();
+
+    /** Convierte un snapshot en el valor que recibe el listener; corre fuera del hilo principal. */
+    public interface Decoder<S, T> {
+        T decode(S snapshot);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Executor snapshotExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "firestore-snapshots"));
+    // Query y DocumentReference implementan equals/hashCode: dos consultas iguales comparten entrada.
+    // Protegido por 'this': se toca desde el hilo principal y desde el de snapshots.
+    private final Map<Object, SharedListener<?>> listeners = new HashMap<>();
+
+    private SharedListenerRegistry() {}
+
+    public static SharedListenerRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /** Hilo en el que se entregan los snapshots a los listeners en segundo plano. */
+    Executor getSnapshotExecutor() {
+        return snapshotExecutor;
+    }
+
+    /** Igual que query.addSnapshotListener(listener), pero compartido. */
+    public ListenerRegistration listen(Query query, EventListener<QuerySnapshot> listener) {
+        return subscribe(query, listener, true);
+    }
+
+    /** Igual que document.addSnapshotListener(listener), pero compartido. */
+    public ListenerRegistration listen(DocumentReference document, EventListener<DocumentSnapshot> listener) {
+        return subscribe(document, listener, true);
+    }
+
+    /** El listener se ejecuta en el hilo de snapshots. */
+    ListenerRegistration listenInBackground(Query query, EventListener<QuerySnapshot> listener) {
+        return subscribe(query, listener, false);
+    }
+
+    /** Decodifica fuera del hilo principal y entrega el último valor de cada ventana en el principal. */
+    public <T> ListenerRegistration listenDecoded(Query query, Decoder<QuerySnapshot, T> decoder,
+                                                  EventListener<T> listener) {
+        return subscribeDecoded(query, decoder, listener);
+    }
+
+    /** Versión para un documento; el decoder debe contemplar que el documento no exista. */
+    public <T> ListenerRegistration listenDecoded(DocumentReference document, Decoder<DocumentSnapshot, T> decoder,
+                                                  EventListener<T> listener) {
+        return subscribeDecoded(document, decoder, listener);
+    }
+
+    private <S, T> ListenerRegistration subscribeDecoded(Object key, Decoder<S, T> decoder, EventListener<T> listener) {
+        ConflatedDelivery<T> delivery = ConflatedDelivery.latest(value -> listener.onEvent(value, null));
+        ListenerRegistration registration = subscribe(key, (EventListener<S>) (snapshot, error) -> {
+            if (error != null) {
+                mainHandler.post(() -> {
+                    if (!delivery.isCancelled()) listener.onEvent(null, error);
+                });
+                return;
+            }
+            T value;
+            Trace.beginSection("Snapshot.decode");
+            try {
+                value = decoder.decode(snapshot);
+            } finally {
+                Trace.endSection();
+            }
+            delivery.offer(value);
+        }, false);
+        return () -> {
+            registration.remove();
+            delivery.cancel();
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> ListenerRegistration subscribe(Object key, EventListener<T> listener, boolean onMain) {
+        SharedListener<T> shared = (SharedListener<T>) listeners.get(key);
+        if (shared == null) {
+            shared = new SharedListener<>(key);
+            listeners.put(key, shared);
+            shared.attach();
+        }
+        return shared.add(listener, onMain);
+    }
+
+    private final class SharedListener<T> implements EventListener<T> {
+        private final Object key;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private ListenerRegistration upstream;
+        private volatile T lastValue;
+        private Runnable pendingRelease;
+
+        SharedListener(Object key) {
+            this.key = key;
+        }
+
+        @SuppressWarnings("unchecked")
+        void attach() {
+            if (key instanceof Query) {
+                upstream = ((Query) key).addSnapshotListener(snapshotExecutor, (EventListener<QuerySnapshot>) this);
+            } else {
+                upstream = ((DocumentReference) key).addSnapshotListener(snapshotExecutor,
+                        (EventListener<DocumentSnapshot>) this);
+            }
+        }
+
+        // Con el lock del registro
+        ListenerRegistration add(EventListener<T> listener, boolean onMain) {
+            if (pendingRelease != null) {
+                mainHandler.removeCallbacks(pendingRelease);
+                pendingRelease = null;
+            }
+            Subscriber subscriber = new Subscriber(listener, onMain);
+            subscribers.add(subscriber);
+            T replay = lastValue;
+            if (replay != null) {
+                // Como Firestore, la primera entrega es asíncrona aunque ya haya datos.
+                // Si antes llega un snapshot nuevo, la repetición ya no hace falta.
+                subscriber.post(() -> {
+                    if (!subscriber.delivered) subscriber.deliver(replay, null);
+                });
+            }
+            return subscriber;
+        }
+
+        @Override
+        public void onEvent(T value, FirebaseFirestoreException error) {
+            if (error != null) {
+                // Firestore cierra el listener tras un error: el próximo suscriptor vuelve a escuchar
+                synchronized (SharedListenerRegistry.this) {
+                    release();
+                }
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.dispatch(null, error);
+                }
+                subscribers.clear();
+                return;
+            }
+            lastValue = value;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.dispatch(value, null);
+            }
+        }
+
+        void remove(Subscriber subscriber) {
+            synchronized (SharedListenerRegistry.this) {
+                subscribers.remove(subscriber);
+                if (!subscribers.isEmpty() || pendingRelease != null || upstream == null) return;
+                pendingRelease = () -> {
+                    synchronized (SharedListenerRegistry.this) {
+                        pendingRelease = null;
+                        if (subscribers.isEmpty()) release();
+                    }
+                };
+                mainHandler.postDelayed(pendingRelease, GRACE_PERIOD_MS);
+            }
+        }
+
+        // Con el lock del registro
+        private void release() {
+            if (pendingRelease != null) {
+                mainHandler.removeCallbacks(pendingRelease);
+                pendingRelease = null;
+            }
+            if (listeners.get(key) == this) listeners.remove(key);
+            if (upstream != null) {
+                upstream.remove();
+                upstream = null;
+            }
+        }
+
+        private final class Subscriber implements ListenerRegistration {
+            final EventListener<T> listener;
+            final boolean onMain;
+            volatile boolean active = true;
+            // Solo se lee y escribe en el hilo de entrega del suscriptor
+            boolean delivered;
+
+            Subscriber(EventListener<T> listener, boolean onMain) {
+                this.listener = listener;
+                this.onMain = onMain;
+            }
+
+            // Desde el hilo principal: encola la entrega en el hilo del suscriptor
+            void post(Runnable delivery) {
+                if (onMain) {
+                    mainHandler.post(delivery);
+                } else {
+                    snapshotExecutor.execute(delivery);
+                }
+            }
+
+            // Desde el hilo de snapshots
+            void dispatch(T value, FirebaseFirestoreException error) {
+                if (onMain) {
+                    mainHandler.post(() -> deliver(value, error));
+                } else {
+                    deliver(value, error);
+                }
+            }
+
+            void deliver(T value, FirebaseFirestoreException error) {
+                if (!active) return;
+                delivered = true;
+                if (error != null) active = false;
+                listener.onEvent(value, error);
+            }
+
+            @Override
+            public void remove() {
+                if (!active) return;
+                active = false;
+                SharedListener.this.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.utp.wemake.repository;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cambios de un snapshot de tareas: solo lo añadido, modificado o eliminado.
+ * Si isReset() es true, el receptor debe descartar lo que tenía y quedarse con getAdded().
+ * Los consumidores lo aplican sobre su propio mapa por ID con applyTo().
+ * Una tarea que no cambió conserva la misma instancia de TaskModel entre emisiones y una que
+ * cambió llega como instancia nueva, así que comparar con == basta para saltarse lo que no
+ * cambió (adaptadores, índices). Por eso las tareas recibidas no se modifican.
+ */
+public class TaskChangeSet {
+
+    private final List<TaskModel> added;
+    private final List<TaskModel> modified;
+    private final List<String> removedIds;
+    private final boolean reset;
+
+    TaskChangeSet(List<TaskModel> added, List<TaskModel> modified, List<String> removedIds, boolean reset) {
+        this.added = Collections.unmodifiableList(added);
+        this.modified = Collections.unmodifiableList(modified);
+        this.removedIds = Collections.unmodifiableList(removedIds);
+        this.reset = reset;
+    }
+
+    /** Conjunto completo que reemplaza lo anterior (p. ej. la copia local al arrancar). */
+    static TaskChangeSet reset(List<TaskModel> tasks) {
+        return new TaskChangeSet(tasks, Collections.emptyList(), Collections.emptyList(), true);
+    }
+
+    public List<TaskModel> getAdded() { return added; }
+    public List<TaskModel> getModified() { return modified; }
+    public List<String> getRemovedIds() { return removedIds; }
+    public boolean isReset() { return reset; }
+
+    public boolean isEmpty() {
+        return !reset && added.isEmpty() && modified.isEmpty() && removedIds.isEmpty();
+    }
+
+    /** El mismo cambio sin las eliminaciones. */
+    TaskChangeSet withoutRemovals() {
+        if (removedIds.isEmpty()) return this;
+        return new TaskChangeSet(added, modified, Collections.emptyList(), reset);
+    }
+
+    /**
+     * Une este cambio con el siguiente, como si se hubieran aplicado uno tras otro.
+     * Se usa para entregar una ráfaga de snapshots como una sola emisión.
+     */
+    TaskChangeSet then(TaskChangeSet next) {
+        if (next.reset) return next;
+        Map<String, TaskModel> mergedAdded = new LinkedHashMap<>();
+        Map<String, TaskModel> mergedModified = new LinkedHashMap<>();
+        Set<String> mergedRemoved = new LinkedHashSet<>(removedIds);
+        for (TaskModel task : added) mergedAdded.put(task.getId(), task);
+        for (TaskModel task : modified) mergedModified.put(task.getId(), task);
+
+        for (String taskId : next.removedIds) {
+            // Si se añadió en esta misma ventana, el receptor nunca llegó a verla
+            if (mergedAdded.remove(taskId) == null) {
+                mergedModified.remove(taskId);
+                mergedRemoved.add(taskId);
+            }
+        }
+        for (TaskModel task : next.added) {
+            if (mergedRemoved.remove(task.getId())) {
+                mergedModified.put(task.getId(), task);
+            } else {
+                mergedAdded.put(task.getId(), task);
+            }
+        }
+        for (TaskModel task : next.modified) {
+            if (mergedAdded.containsKey(task.getId())) {
+                mergedAdded.put(task.getId(), task);
+            } else {
+                mergedModified.put(task.getId(), task);
+            }
+        }
+        return new TaskChangeSet(new ArrayList<>(mergedAdded.values()), new ArrayList<>(mergedModified.values()),
+                new ArrayList<>(mergedRemoved), reset);
+    }
+
+    /** Aplica los cambios sobre un mapa taskId -> tarea. */
+    public void applyTo(Map<String, TaskModel> tasksById) {
+        if (reset) {
+            tasksById.clear();
+        }
+        for (String taskId : removedIds) {
+            tasksById.remove(taskId);
+        }
+        for (TaskModel task : added) {
+            tasksById.put(task.getId(), task);
+        }
+        for (TaskModel task : modified) {
+            tasksById.put(task.getId(), task);
+        }
+    }
+}
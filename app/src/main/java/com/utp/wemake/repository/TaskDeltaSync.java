@@ -0,0 +1,132 @@
+package com.utp.wemake.repository;
+
+import android.content.Context;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.utp.wemake.db.AppDatabase;
+import com.utp.wemake.db.BoardSyncState;
+import com.utp.wemake.db.BoardSyncStateDao;
+import com.utp.wemake.db.TaskCacheDao;
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresco incremental de la copia local de tareas.
+ * Por cada tablero pide a Firestore solo las tareas del usuario con updatedAt posterior
+ * a la marca de agua guardada en board_sync_state y las fusiona en tasks_cache.
+ * Una vez al día hace una reconciliación completa para recoger borrados y reasignaciones,
+ * que una consulta por updatedAt no puede ver.
+ * Los métodos son bloqueantes: se llaman desde un Worker.
+ */
+public class TaskDeltaSync {
+
+    private static final long FULL_SYNC_INTERVAL_MS = TimeUnit.HOURS.toMillis(24);
+
+    private final CollectionReference tasksCollection;
+    private final TaskCacheDao taskCacheDao;
+    private final BoardSyncStateDao boardSyncStateDao;
+
+    public TaskDeltaSync(Context context) {
+        this.tasksCollection = FirebaseFirestore.getInstance().collection("tasks");
+        AppDatabase database = AppDatabase.getDatabase(context);
+        this.taskCacheDao = database.taskCacheDao();
+        this.boardSyncStateDao = database.boardSyncStateDao();
+    }
+
+    /**
+     * Refresca todos los tableros registrados.
+     * @return Número de documentos descargados.
+     */
+    public int refreshAll(String userId) throws ExecutionException, InterruptedException {
+        List<BoardSyncState> states = AppDatabase.databaseExecutor.submit(boardSyncStateDao::getAll).get();
+        int downloaded = 0;
+        for (BoardSyncState state : states) {
+            downloaded += refreshBoard(state, userId);
+        }
+        return downloaded;
+    }
+
+    /**
+     * Refresca ya esos tableros, dándolos de alta si no lo estaban. La primera vez que se
+     * refresca un tablero es una reconciliación completa: trae también sus completadas antiguas.
+     * @return Número de documentos descargados.
+     */
+    public int refreshBoards(List<String> boardIds, String userId) throws ExecutionException, InterruptedException {
+        List<BoardSyncState> states = AppDatabase.databaseExecutor.submit(() -> {
+            List<BoardSyncState> registered = new ArrayList<>(boardIds.size());
+            for (String boardId : boardIds) {
+                registered.add(new BoardSyncState(boardId));
+            }
+            boardSyncStateDao.insertIfAbsent(registered);
+            return boardSyncStateDao.getForBoards(boardIds);
+        }).get();
+        int downloaded = 0;
+        for (BoardSyncState state : states) {
+            downloaded += refreshBoard(state, userId);
+        }
+        return downloaded;
+    }
+
+    private int refreshBoard(BoardSyncState state, String userId) throws ExecutionException, InterruptedException {
+        long now = System.currentTimeMillis();
+        boolean fullSync = state.lastFullSyncAt == 0 || now - state.lastFullSyncAt >= FULL_SYNC_INTERVAL_MS;
+
+        Query participantQuery = tasksCollection
+                .whereArrayContains("participants", userId)
+                .whereEqualTo("boardId", state.boardId);
+        if (!fullSync) {
+            // >= y no >: dos escrituras con el mismo updatedAt no se pierden; la repetida se sobrescribe igual
+            participantQuery = participantQuery.whereGreaterThanOrEqualTo("updatedAt", new Date(state.lastSyncedAt));
+        }
+
+        QuerySnapshot snapshot = Tasks.await(participantQuery.get(Source.SERVER));
+
+        Map<String, TaskModel> fetched = new LinkedHashMap<>();
+        long watermark = state.lastSyncedAt;
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            TaskModel task = doc.toObject(TaskModel.class);
+            if (task == null) continue;
+            task.setId(doc.getId());
+            fetched.put(doc.getId(), task);
+            if (task.getUpdatedAt() != null) {
+                watermark = Math.max(watermark, task.getUpdatedAt().getTime());
+            }
+        }
+
+        List<TaskModel> upserts = new ArrayList<>(fetched.values());
+        final long newWatermark = watermark;
+        AppDatabase.databaseExecutor.submit(() -> {
+            List<String> removedIds = new ArrayList<>();
+            if (fullSync) {
+                // Lo que está en la copia local y ya no devuelve el servidor se borró o dejó de ser del usuario
+                Set<String> fetchedIds = new HashSet<>(fetched.keySet());
+                for (String cachedId : taskCacheDao.getTaskIdsForBoard(state.boardId)) {
+                    if (!fetchedIds.contains(cachedId)) removedIds.add(cachedId);
+                }
+            }
+            taskCacheDao.applyChanges(upserts, removedIds);
+            if (fullSync) {
+                boardSyncStateDao.markFullSync(state.boardId, newWatermark, now);
+            } else {
+                boardSyncStateDao.advanceWatermark(state.boardId, newWatermark);
+            }
+        }).get();
+
+        return fetched.size();
+    }
+}
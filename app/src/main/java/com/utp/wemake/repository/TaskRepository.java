@@ -1,42 +1,77 @@
 package com.utp.wemake.repository;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.WriteBatch;
 import com.utp.wemake.db.AppDatabase;
+import com.utp.wemake.db.BoardSyncState;
+import com.utp.wemake.db.BoardSyncStateDao;
+import com.utp.wemake.db.CachedTaskWithSubtasks;
+import com.utp.wemake.db.MutationValueCodec;
+import com.utp.wemake.db.StatusCount;
+import com.utp.wemake.db.SubtaskDao;
+import com.utp.wemake.db.SubtaskEntity;
+import com.utp.wemake.db.TaskCacheDao;
+import com.utp.wemake.db.TaskSearchEntity;
+import com.utp.wemake.db.TaskSearchHit;
 import com.utp.wemake.db.TaskDao;
 import com.utp.wemake.models.Subtask;
 import com.utp.wemake.models.TaskModel;
 import com.utp.wemake.models.TaskProposal;
 import com.utp.wemake.constants.TaskConstants;
+import com.utp.wemake.utils.TaskDiff;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TaskRepository {
     private static final String COLLECTION_TASKS = "tasks";
     private static final String COLLECTION_TASK_PROPOSALS = "task_proposals";
+    // Firestore admite hasta 30 combinaciones de whereIn por consulta: tableros x estados activos
+    private static final int MAX_BOARDS_PER_QUERY = 30 / TaskConstants.ACTIVE_STATUSES.size();
     private final FirebaseFirestore db;
     private final MemberRepository memberRepository;
     private final CollectionReference proposalsCollection;
     private final CollectionReference tasksCollection;
     private final List<ListenerRegistration> activeListeners = new ArrayList<>();
+    // Las consultas iguales de distintas pantallas comparten un único listener de Firestore
+    private final SharedListenerRegistry listenerRegistry = SharedListenerRegistry.getInstance();
 
     private final TaskDao taskDao;
+    private final TaskCacheDao taskCacheDao;
+    private final SubtaskDao subtaskDao;
+    private final BoardSyncStateDao boardSyncStateDao;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Se incrementa al desconectar listeners para descartar emisiones locales tardías
+    private volatile int listenerGeneration = 0;
+    // Escrituras sin conexión: se encolan y se reflejan sobre lo que devuelve Firestore
+    private final MutationOutbox outbox;
+    // Vuelve a emitir al listener activo las tareas con cambios offline
+    private volatile Runnable republishTasks;
+    // Los refrescos esperan a Firestore bloqueando: no pueden correr en el hilo de Room
+    private static final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+    private final TaskDeltaSync deltaSync;
 
     public TaskRepository(Application application) {
         this.db = FirebaseFirestore.getInstance();
@@ -45,13 +80,32 @@ public class TaskRepository {
         this.memberRepository = new MemberRepository();
         AppDatabase database = AppDatabase.getDatabase(application);
         this.taskDao = database.taskDao();
+        this.taskCacheDao = database.taskCacheDao();
+        this.subtaskDao = database.subtaskDao();
+        this.boardSyncStateDao = database.boardSyncStateDao();
+        this.outbox = MutationOutbox.getInstance();
+        this.deltaSync = new TaskDeltaSync(application);
     }
 
     public interface OnTasksUpdatedListener {
-        void onTasksUpdated(List<TaskModel> tasks);
+        // Solo lo añadido, modificado o eliminado desde la emisión anterior (ver TaskChangeSet.applyTo)
+        void onTasksChanged(TaskChangeSet changes);
         void onError(Exception e);
     }
 
+    public interface OnLocalSummaryListener {
+        void onSummary(int totalTasks, int pendingTasks, int overdueTasks);
+    }
+
+    public interface OnCachedTasksListener {
+        void onCachedTasks(List<TaskModel> tasks);
+    }
+
+    public interface OnSearchResultsListener {
+        // IDs de tarea ordenados de mayor a menor relevancia
+        void onSearchResults(String query, List<String> rankedTaskIds);
+    }
+
     /**
      * Guarda una PROPUESTA de tarea localmente y activa la sincronización.
      */
@@ -103,6 +157,7 @@ public class TaskRepository {
      * Usado por administradores.
      */
     public Task<DocumentReference> createTask(TaskModel task) {
+        task.setUpdatedAt(null); // @ServerTimestamp: lo rellena Firestore
         return db.collection(COLLECTION_TASKS).add(task);
     }
 
@@ -114,14 +169,32 @@ public class TaskRepository {
     }
 
     /**
-     * Actualiza una tarea existente.
-     * El objeto TaskModel debe tener su ID ya establecido.
+     * Actualiza una tarea existente enviando solo los campos que cambiaron respecto
+     * a la versión cargada. Los campos no tocados (y los flags locales) no se reescriben,
+     * así no se pisan cambios concurrentes de otros usuarios.
+     * @param baseline La tarea tal como se cargó (sin modificar).
+     * @param edited La tarea con los cambios; debe tener su ID establecido.
      */
-    public Task<Void> updateTask(TaskModel task) {
-        if (task.getId() == null || task.getId().isEmpty()) {
+    public Task<Void> updateTask(TaskModel baseline, TaskModel edited) {
+        if (edited.getId() == null || edited.getId().isEmpty()) {
             return com.google.android.gms.tasks.Tasks.forException(new IllegalArgumentException("Task ID must not be null for update."));
         }
-        return db.collection(COLLECTION_TASKS).document(task.getId()).set(task);
+        Map<String, Object> changes = TaskDiff.changedFields(baseline, edited);
+        if (changes.isEmpty()) {
+            return Tasks.forResult(null); // Nada que escribir
+        }
+
+        if (!outbox.isOnline()) {
+            Task<Void> queued = null;
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                queued = queueTaskUpdate(edited.getId(), change.getKey(), change.getValue());
+            }
+            republishAfterLocalWrite();
+            return queued;
+        }
+
+        changes.put(TaskConstants.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
+        return tasksCollection.document(edited.getId()).update(changes);
     }
 
     /**
@@ -153,6 +226,7 @@ public class TaskRepository {
         DocumentReference taskRef = db.collection(COLLECTION_TASKS).document(); // ID automático
 
         WriteBatch batch = db.batch();
+        newTask.setUpdatedAt(null); // @ServerTimestamp: lo rellena Firestore
         batch.set(taskRef, newTask); // Crear la nueva tarea
         batch.delete(proposalRef); // Eliminar la propuesta
         return batch.commit();
@@ -168,135 +242,345 @@ public class TaskRepository {
 
     /**
      * Inicia la escucha en tiempo real de las tareas del usuario.
+     * Primero emite la copia local (Room) y después la reconcilia con Firestore.
      */
     public void listenToTasksForUserInBoard(String boardId, String userId, final OnTasksUpdatedListener listener) {
-        detachListeners();
+        listenToTasksForUserInBoards(Collections.singletonList(boardId), userId, listener);
+    }
 
-        // Mapas para almacenar los resultados de cada consulta por separado
-        Map<String, TaskModel> assignedTasksMap = new ConcurrentHashMap<>();
-        Map<String, TaskModel> reviewerTasksMap = new ConcurrentHashMap<>();
+    /**
+     * Escucha las tareas activas del usuario (asignado o revisor) en varios tableros.
+     * Usa el array desnormalizado 'participants': un listener por cada bloque de hasta
+     * MAX_BOARDS_PER_QUERY tableros, en lugar de dos por tablero.
+     * Las completadas no se escuchan: se cargan por páginas con CompletedTasksPager. Una tarea
+     * que se completa mientras tanto llega como modificada y después deja de seguirse.
+     * Cada emisión es un TaskChangeSet con solo lo que cambió desde la anterior.
+     * Los snapshots se decodifican en el hilo de snapshots de SharedListenerRegistry (allí vive
+     * el TaskStore); las ráfagas se juntan y el listener recibe un único cambio por frame
+     * en el hilo principal.
+     */
+    public void listenToTasksForUserInBoards(List<String> boardIds, String userId, final OnTasksUpdatedListener listener) {
+        detachListeners(); // resetea listeners previos de cualquier pantalla
+        final int generation = listenerGeneration;
 
-        // --- Listener 1: Para tareas donde el usuario es miembro asignado ---
-        Query assignedQuery = tasksCollection
-                .whereEqualTo("boardId", boardId)
-                .whereArrayContains("assignedMembers", userId);
+        AtomicBoolean networkDelivered = new AtomicBoolean(false);
+        AtomicBoolean cacheDelivered = new AtomicBoolean(false);
 
-        ListenerRegistration assignedListener = assignedQuery.addSnapshotListener((snapshots, e) -> {
-            if (e != null) {
-                listener.onError(e);
-                return;
+        List<List<String>> chunks = new ArrayList<>();
+        Map<String, Integer> sourceByBoard = new HashMap<>();
+        for (int start = 0; start < boardIds.size(); start += MAX_BOARDS_PER_QUERY) {
+            List<String> chunk = boardIds.subList(start, Math.min(start + MAX_BOARDS_PER_QUERY, boardIds.size()));
+            for (String boardId : chunk) {
+                sourceByBoard.put(boardId, chunks.size());
             }
-            // Actualizar nuestro mapa con los nuevos datos
-            assignedTasksMap.clear();
-            for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                TaskModel task = doc.toObject(TaskModel.class);
-                if (task != null) {
-                    task.setId(doc.getId());
-                    assignedTasksMap.put(doc.getId(), task);
+            chunks.add(chunk);
+        }
+        TaskStore store = new TaskStore(sourceByBoard, chunks.size(), outbox);
+        ConflatedDelivery<TaskChangeSet> delivery = new ConflatedDelivery<>(TaskChangeSet::then, changes -> {
+            if (generation == listenerGeneration) listener.onTasksChanged(changes);
+        });
+
+        emitCachedTasks(boardIds, userId, store, delivery, networkDelivered, cacheDelivered);
+        registerBoardsForRefresh(boardIds);
+
+        for (int i = 0; i < chunks.size(); i++) {
+            final int source = i;
+            List<String> chunk = chunks.get(i);
+            Query participantQuery = chunk.size() == 1
+                    ? tasksCollection.whereArrayContains("participants", userId).whereEqualTo("boardId", chunk.get(0))
+                    : tasksCollection.whereArrayContains("participants", userId).whereIn("boardId", new ArrayList<>(chunk));
+            participantQuery = participantQuery.whereIn("status", TaskConstants.ACTIVE_STATUSES);
+
+            ListenerRegistration registration = listenerRegistry.listenInBackground(participantQuery, (snapshots, e) -> {
+                if (e != null) {
+                    mainHandler.post(() -> {
+                        if (generation == listenerGeneration) listener.onError(e);
+                    });
+                    return;
                 }
-            }
-            // Combinar y notificar
-            listener.onTasksUpdated(combineResults(assignedTasksMap, reviewerTasksMap));
+                if (snapshots == null) return;
+                if (shouldKeepLocalCopy(snapshots, cacheDelivered)) return;
+
+                TaskChangeSet serverChanges;
+                Trace.beginSection("TaskStore.apply");
+                try {
+                    serverChanges = store.apply(source, snapshots);
+                } finally {
+                    Trace.endSection();
+                }
+                TaskChangeSet upserts = serverChanges.withoutRemovals();
+                writeThroughCache(upserts);
+                if (!serverChanges.getRemovedIds().isEmpty()) {
+                    resolveRemovedTasks(serverChanges.getRemovedIds(), userId, store, delivery);
+                }
+                boolean firstDelivery = !networkDelivered.getAndSet(true);
+                // Un snapshot sin cambios solo interesa como primera respuesta (quita el estado de carga)
+                if (upserts.isEmpty() && !firstDelivery) return;
+                delivery.offer(store.withPendingChanges(upserts));
+            });
+            activeListeners.add(registration);
+        }
+
+        republishTasks = () -> listenerRegistry.getSnapshotExecutor().execute(() -> {
+            TaskChangeSet pending = store.pendingChanges();
+            if (!pending.isEmpty()) delivery.offer(pending);
         });
-        activeListeners.add(assignedListener);
+    }
 
-        // --- Listener 2: Para tareas donde el usuario es el revisor ---
-        Query reviewerQuery = tasksCollection
-                .whereEqualTo("boardId", boardId)
-                .whereEqualTo("reviewerId", userId);
+    /**
+     * Escucha todas las tareas del tablero, de cualquier miembro y estado (para las métricas
+     * del dashboard). Sin conexión responde la caché de Firestore y los cambios offline se
+     * aplican encima, igual que en listenToTasksForUserInBoards. No pasa por Room: la copia
+     * local solo guarda las tareas del usuario.
+     */
+    public void listenToBoardTasks(String boardId, final OnTasksUpdatedListener listener) {
+        detachListeners();
+        final int generation = listenerGeneration;
+
+        TaskStore store = new TaskStore(Collections.singletonMap(boardId, 0), 1, outbox);
+        ConflatedDelivery<TaskChangeSet> delivery = new ConflatedDelivery<>(TaskChangeSet::then, changes -> {
+            if (generation == listenerGeneration) listener.onTasksChanged(changes);
+        });
+        AtomicBoolean delivered = new AtomicBoolean(false);
 
-        ListenerRegistration reviewerListener = reviewerQuery.addSnapshotListener((snapshots, e) -> {
+        Query boardQuery = tasksCollection.whereEqualTo("boardId", boardId);
+        ListenerRegistration registration = listenerRegistry.listenInBackground(boardQuery, (snapshots, e) -> {
             if (e != null) {
-                listener.onError(e);
+                mainHandler.post(() -> {
+                    if (generation == listenerGeneration) listener.onError(e);
+                });
                 return;
             }
-            // Actualizar nuestro mapa con los nuevos datos
-            reviewerTasksMap.clear();
-            for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                TaskModel task = doc.toObject(TaskModel.class);
-                if (task != null) {
-                    task.setId(doc.getId());
-                    reviewerTasksMap.put(doc.getId(), task);
+            if (snapshots == null) return;
+
+            TaskChangeSet serverChanges = store.apply(0, snapshots);
+            boolean firstDelivery = !delivered.getAndSet(true);
+            if (serverChanges.isEmpty() && !firstDelivery) return;
+            delivery.offer(store.withPendingChanges(serverChanges));
+        });
+        activeListeners.add(registration);
+
+        republishTasks = () -> listenerRegistry.getSnapshotExecutor().execute(() -> {
+            TaskChangeSet pending = store.pendingChanges();
+            if (!pending.isEmpty()) delivery.offer(pending);
+        });
+    }
+
+    /**
+     * Lee de Room las tareas guardadas y las emite como primer valor del stream,
+     * siempre que Firestore no haya respondido antes. También siembran el TaskStore,
+     * para que el primer snapshot del servidor solo traiga diferencias.
+     */
+    private void emitCachedTasks(List<String> boardIds, String userId, TaskStore store,
+                                 ConflatedDelivery<TaskChangeSet> delivery,
+                                 AtomicBoolean networkDelivered, AtomicBoolean cacheDelivered) {
+        final int generation = listenerGeneration;
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<CachedTaskWithSubtasks> cached = boardIds.size() == 1
+                    ? taskCacheDao.getTasksForUserInBoard(boardIds.get(0), userId)
+                    : taskCacheDao.getTasksForUserInBoards(boardIds, userId);
+            if (cached.isEmpty()) return;
+
+            List<TaskModel> tasks = new ArrayList<>(cached.size());
+            for (CachedTaskWithSubtasks cachedTask : cached) {
+                // Room guarda también las completadas; el stream en vivo solo lleva las activas
+                if (TaskConstants.ACTIVE_STATUSES.contains(cachedTask.task.status)) {
+                    tasks.add(cachedTask.toModel());
                 }
             }
-            // Combinar y notificar
-            listener.onTasksUpdated(combineResults(assignedTasksMap, reviewerTasksMap));
+
+            // El TaskStore solo se toca desde el hilo de snapshots
+            listenerRegistry.getSnapshotExecutor().execute(() -> {
+                // Si la red ya respondió o cambió la pantalla, la copia local sobra
+                if (generation != listenerGeneration || networkDelivered.get()) return;
+                cacheDelivered.set(true);
+                delivery.offer(store.seed(tasks));
+            });
         });
-        activeListeners.add(reviewerListener);
     }
 
-    public void listenToTasksForUserInBoards(List<String> boardIds, String userId, final OnTasksUpdatedListener listener) {
-        detachListeners(); // resetea listeners previos de cualquier pantalla
+    /**
+     * Una tarea que sale de la consulta en vivo puede haberse borrado, haber dejado de ser
+     * del usuario o haberse completado. Se lee una vez cada una para saberlo: las completadas
+     * se entregan como modificadas (la pantalla las mueve de columna) y se guardan en Room;
+     * las demás se eliminan. Si la lectura falla solo se quitan de la pantalla.
+     */
+    private void resolveRemovedTasks(List<String> taskIds, String userId, TaskStore store,
+                                     ConflatedDelivery<TaskChangeSet> delivery) {
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            reads.add(tasksCollection.document(taskId).get());
+        }
+        Tasks.whenAllComplete(reads).addOnCompleteListener(listenerRegistry.getSnapshotExecutor(), done -> {
+            List<TaskModel> completed = new ArrayList<>();
+            List<String> deletedIds = new ArrayList<>();
+            List<String> hiddenIds = new ArrayList<>();
+            for (int i = 0; i < taskIds.size(); i++) {
+                String taskId = taskIds.get(i);
+                if (store.contains(taskId)) continue; // Volvió a la consulta mientras se leía
+                Task<DocumentSnapshot> read = reads.get(i);
+                if (!read.isSuccessful()) {
+                    hiddenIds.add(taskId);
+                    continue;
+                }
+                DocumentSnapshot doc = read.getResult();
+                TaskModel task = doc.exists() ? doc.toObject(TaskModel.class) : null;
+                if (task != null
+                        && TaskConstants.STATUS_COMPLETED.equals(task.getStatus())
+                        && task.getParticipants().contains(userId)) {
+                    task.setId(taskId);
+                    completed.add(task);
+                } else {
+                    deletedIds.add(taskId);
+                }
+            }
+            writeThroughCache(new TaskChangeSet(new ArrayList<>(), completed, deletedIds, false));
+            hiddenIds.addAll(deletedIds);
+            TaskChangeSet changes = new TaskChangeSet(new ArrayList<>(), completed, hiddenIds, false);
+            if (!changes.isEmpty()) delivery.offer(store.withPendingChanges(changes));
+        });
+    }
 
-        // Map combinado por taskId
-        Map<String, TaskModel> combined = new ConcurrentHashMap<>();
+    /**
+     * Crea un paginador de las tareas completadas del usuario en esos tableros.
+     * Cada página se guarda en Room, así la búsqueda y la copia local ya la incluyen.
+     */
+    public CompletedTasksPager createCompletedTasksPager(List<String> boardIds, String userId) {
+        return new CompletedTasksPager(boardIds, userId, page ->
+                AppDatabase.databaseExecutor.execute(() ->
+                        taskCacheDao.applyChanges(page, Collections.emptyList())));
+    }
 
+    /**
+     * Da de alta los tableros en board_sync_state para que TaskRefreshWorker los mantenga al día.
+     * La marca de agua solo la avanza TaskDeltaSync: un listener puede haber respondido y el otro no.
+     */
+    private void registerBoardsForRefresh(List<String> boardIds) {
+        List<BoardSyncState> states = new ArrayList<>(boardIds.size());
         for (String boardId : boardIds) {
-            // 1) Tareas asignadas al usuario en el board
-            Query assignedQuery = tasksCollection
-                    .whereEqualTo("boardId", boardId)
-                    .whereArrayContains("assignedMembers", userId);
+            states.add(new BoardSyncState(boardId));
+        }
+        AppDatabase.databaseExecutor.execute(() -> boardSyncStateDao.insertIfAbsent(states));
+    }
 
-            ListenerRegistration assignedListener = assignedQuery.addSnapshotListener((snapshots, e) -> {
-                if (e != null) {
-                    listener.onError(e);
-                    return;
-                }
-                if (snapshots != null) {
-                    // Limpiar solo las tareas de este board para este “scope” y reponer
-                    // En lugar de limpiar, actualizamos entradas específicas
-                    for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                        TaskModel task = doc.toObject(TaskModel.class);
-                        if (task != null) {
-                            task.setId(doc.getId());
-                            if (task.getBoardId() == null) task.setBoardId(boardId);
-                            combined.put(doc.getId(), task);
-                        }
-                    }
-                    listener.onTasksUpdated(new ArrayList<>(combined.values()));
+    /**
+     * Encola sin conexión la actualización de un campo de la tarea junto con su updatedAt.
+     */
+    private Task<Void> queueTaskUpdate(String taskId, String field, Object value) {
+        String taskPath = MutationOutbox.taskPath(taskId);
+        outbox.update(taskPath, field, value);
+        return outbox.update(taskPath, TaskConstants.FIELD_UPDATED_AT, MutationValueCodec.SERVER_TIMESTAMP);
+    }
+
+    /**
+     * Calcula desde la copia local los contadores de las tarjetas de resumen.
+     * El callback se ejecuta en el hilo principal.
+     */
+    public void loadCachedSummary(String boardId, String userId, OnLocalSummaryListener listener) {
+        AppDatabase.databaseExecutor.execute(() -> {
+            int total = 0;
+            int completed = 0;
+            for (StatusCount statusCount : taskCacheDao.countTasksByStatusForUser(boardId, userId)) {
+                total += statusCount.count;
+                if (TaskConstants.STATUS_COMPLETED.equals(statusCount.status)) {
+                    completed = statusCount.count;
                 }
-            });
-            activeListeners.add(assignedListener);
+            }
+            int overdue = taskCacheDao.countOverdueTasksForUser(
+                    boardId, userId, new Date(), TaskConstants.STATUS_COMPLETED);
+            if (total == 0) return;
 
-            // 2) Tareas donde el usuario es revisor en el board
-            Query reviewerQuery = tasksCollection
-                    .whereEqualTo("boardId", boardId)
-                    .whereEqualTo("reviewerId", userId);
+            final int totalTasks = total;
+            final int pendingTasks = total - completed;
+            mainHandler.post(() -> listener.onSummary(totalTasks, pendingTasks, overdue));
+        });
+    }
 
-            ListenerRegistration reviewerListener = reviewerQuery.addSnapshotListener((snapshots, e) -> {
-                if (e != null) {
-                    listener.onError(e);
-                    return;
-                }
-                if (snapshots != null) {
-                    for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                        TaskModel task = doc.toObject(TaskModel.class);
-                        if (task != null) {
-                            task.setId(doc.getId());
-                            if (task.getBoardId() == null) task.setBoardId(boardId);
-                            combined.put(doc.getId(), task);
-                        }
-                    }
-                    listener.onTasksUpdated(new ArrayList<>(combined.values()));
-                }
-            });
-            activeListeners.add(reviewerListener);
+    /**
+     * Completadas con fecha límite del usuario en esos tableros; el filtro lo hace SQLite.
+     * Es lo que el timeline necesita de Room (las activas llegan por el stream en vivo).
+     */
+    public void loadCachedCompletedTasks(List<String> boardIds, String userId, OnCachedTasksListener listener) {
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<CachedTaskWithSubtasks> cached = taskCacheDao.getCompletedTasksWithDeadlineForUserInBoards(
+                    boardIds, userId, TaskConstants.STATUS_COMPLETED);
+            List<TaskModel> tasks = new ArrayList<>(cached.size());
+            for (CachedTaskWithSubtasks cachedTask : cached) {
+                tasks.add(cachedTask.toModel());
+            }
+            mainHandler.post(() -> listener.onCachedTasks(tasks));
+        });
+    }
+
+    /**
+     * Trae ya a Room lo que cambió en esos tableros sin esperar a TaskRefreshWorker; la primera
+     * vez, todas las tareas del usuario, completadas incluidas. Termina en el hilo principal.
+     */
+    public Task<Void> refreshCachedTasks(List<String> boardIds, String userId) {
+        return Tasks.call(refreshExecutor, () -> {
+            deltaSync.refreshBoards(boardIds, userId);
+            return null;
+        });
+    }
+
+    /**
+     * Busca en el índice de texto completo de la copia local (título, descripción y subtareas).
+     * Admite prefijos e ignora acentos; el callback se ejecuta en el hilo principal.
+     */
+    public void searchTasks(String query, OnSearchResultsListener listener) {
+        String matchExpression = TaskSearchEntity.toMatchExpression(query);
+        if (matchExpression == null) {
+            listener.onSearchResults(query, Collections.emptyList());
+            return;
         }
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<TaskSearchHit> hits = taskCacheDao.searchTasks(matchExpression);
+            Map<String, Double> scores = new HashMap<>(hits.size());
+            for (TaskSearchHit hit : hits) {
+                scores.put(hit.taskId, hit.score());
+            }
+            List<String> rankedTaskIds = new ArrayList<>(scores.keySet());
+            Collections.sort(rankedTaskIds, (a, b) -> Double.compare(scores.get(b), scores.get(a)));
+            mainHandler.post(() -> listener.onSearchResults(query, rankedTaskIds));
+        });
     }
 
     /**
-     * Método auxiliar para combinar los resultados de ambos listeners y eliminar duplicados.
+     * Un snapshot vacío servido desde la caché de Firestore (sin red) no debe
+     * borrar lo que ya se pintó desde Room.
      */
-    private List<TaskModel> combineResults(Map<String, TaskModel> map1, Map<String, TaskModel> map2) {
-        Map<String, TaskModel> combinedMap = new HashMap<>(map1);
-        combinedMap.putAll(map2);
-        return new ArrayList<>(combinedMap.values());
+    private boolean shouldKeepLocalCopy(QuerySnapshot snapshots, AtomicBoolean cacheDelivered) {
+        return cacheDelivered.get()
+                && snapshots.isEmpty()
+                && snapshots.getMetadata().isFromCache();
+    }
+
+    /**
+     * Escribe en Room solo los documentos que cambiaron en el snapshot.
+     */
+    private void writeThroughCache(TaskChangeSet serverChanges) {
+        if (serverChanges.isEmpty()) return;
+        List<TaskModel> upserts = new ArrayList<>(serverChanges.getAdded());
+        upserts.addAll(serverChanges.getModified());
+        List<String> removedIds = serverChanges.getRemovedIds();
+        AppDatabase.databaseExecutor.execute(() -> taskCacheDao.applyChanges(upserts, removedIds));
+    }
+
+    /**
+     * Tras una escritura offline, vuelve a emitir al listener activo las tareas afectadas
+     * para que la pantalla muestre el cambio sin esperar a Firestore.
+     */
+    private void republishAfterLocalWrite() {
+        Runnable republish = republishTasks;
+        if (republish != null) republish.run();
     }
 
     /**
      * Detiene todas las escuchas activas para prevenir memory leaks.
      */
     public void detachListeners() {
+        listenerGeneration++;
+        republishTasks = null;
         for (ListenerRegistration listener : activeListeners) {
             listener.remove();
         }
@@ -310,17 +594,48 @@ public class TaskRepository {
         if (taskId == null || taskId.isEmpty()) {
             return Tasks.forException(new IllegalArgumentException("Task ID cannot be null."));
         }
+        if (!outbox.isOnline()) {
+            Task<Void> queued = outbox.delete(MutationOutbox.taskPath(taskId));
+            AppDatabase.databaseExecutor.execute(() ->
+                    taskCacheDao.applyChanges(Collections.emptyList(), Collections.singletonList(taskId)));
+            republishAfterLocalWrite();
+            return queued;
+        }
         return tasksCollection.document(taskId).delete();
     }
 
     /**
      * Actualiza el estado de una subtarea específica dentro de una tarea.
-     * Usa un WriteBatch para asegurar la atomicidad.
+     * Usa una transacción para asegurar la atomicidad en Firestore; en Room es un update de una fila.
      */
     public Task<Void> updateSubtaskStatus(String taskId, String subtaskId, boolean isCompleted) {
 
         DocumentReference taskRef = tasksCollection.document(taskId);
 
+        // En la copia local basta con actualizar la fila de esa subtarea
+        Date completedAt = isCompleted ? new Date() : null;
+        AppDatabase.databaseExecutor.execute(() ->
+                subtaskDao.updateCompleted(taskId, subtaskId, isCompleted, completedAt));
+
+        if (!outbox.isOnline()) {
+            // Firestore guarda la lista completa: se encola la lista local ya actualizada
+            TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+            AppDatabase.databaseExecutor.execute(() -> {
+                List<SubtaskEntity> rows = subtaskDao.getSubtasksForTask(taskId);
+                if (rows.isEmpty()) {
+                    source.setException(new Exception("La tarea no está disponible sin conexión."));
+                    return;
+                }
+                queueTaskUpdate(taskId, "subtasks", SubtaskEntity.toSubtasks(rows))
+                        .addOnCompleteListener(queued -> {
+                            if (queued.isSuccessful()) source.setResult(null);
+                            else source.setException(queued.getException());
+                        });
+                republishAfterLocalWrite();
+            });
+            return source.getTask();
+        }
+
         return db.runTransaction(transaction -> {
             DocumentSnapshot snapshot = transaction.get(taskRef);
             TaskModel task = snapshot.toObject(TaskModel.class);
@@ -332,7 +647,8 @@ public class TaskRepository {
                         break;
                     }
                 }
-                transaction.update(taskRef, "subtasks", task.getSubtasks());
+                transaction.update(taskRef, "subtasks", task.getSubtasks(),
+                        TaskConstants.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
             }
             return null;
         });
@@ -345,6 +661,9 @@ public class TaskRepository {
      * @return Una Tarea que se completa cuando la operación termina.
      */
     public Task<Void> updateStatusAndApplyPoints(String taskId, String newStatus) {
+        if (!outbox.isOnline()) {
+            return updateStatusAndApplyPointsOffline(taskId, newStatus);
+        }
         DocumentReference taskRef = tasksCollection.document(taskId);
 
         return taskRef.get().onSuccessTask(documentSnapshot -> {
@@ -358,7 +677,8 @@ public class TaskRepository {
 
             WriteBatch batch = db.batch();
 
-            batch.update(taskRef, "status", newStatus);
+            batch.update(taskRef, "status", newStatus,
+                    TaskConstants.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
 
             if (TaskConstants.STATUS_COMPLETED.equals(newStatus)) {
                 batch.update(taskRef, "completedAt", new Date());
@@ -378,6 +698,46 @@ public class TaskRepository {
         });
     }
 
+    /**
+     * Igual que updateStatusAndApplyPoints pero sin red: los datos de la tarea salen de la
+     * copia local y las escrituras (incluidos los puntos) quedan en la cola offline.
+     */
+    private Task<Void> updateStatusAndApplyPointsOffline(String taskId, String newStatus) {
+        TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+        AppDatabase.databaseExecutor.execute(() -> {
+            CachedTaskWithSubtasks cached = taskCacheDao.getTaskById(taskId);
+            if (cached == null) {
+                source.setException(new Exception("La tarea con ID " + taskId + " no está disponible sin conexión."));
+                return;
+            }
+            List<TaskModel> current = outbox.applyPendingTo(Collections.singletonList(cached.toModel()));
+            if (current.isEmpty()) {
+                // Borrada sin conexión
+                source.setException(new Exception("La tarea con ID " + taskId + " no existe."));
+                return;
+            }
+            TaskModel task = current.get(0);
+
+            Task<Void> queued = queueTaskUpdate(taskId, "status", newStatus);
+            taskCacheDao.updateStatus(taskId, newStatus);
+
+            if (TaskConstants.STATUS_COMPLETED.equals(newStatus)) {
+                queued = queueTaskUpdate(taskId, "completedAt", new Date());
+                if (task.getRewardPoints() > 0) {
+                    memberRepository.addPointsToMembersOffline(
+                            task.getBoardId(), task.getAssignedMembers(), task.getRewardPoints());
+                }
+            }
+            // Las escrituras se guardan en orden en el mismo hilo: basta esperar a la última
+            queued.addOnCompleteListener(result -> {
+                if (result.isSuccessful()) source.setResult(null);
+                else source.setException(result.getException());
+            });
+            republishAfterLocalWrite();
+        });
+        return source.getTask();
+    }
+
     /**
      * Actualiza únicamente el campo de prioridad de una tarea.
      * @param taskId La tarea que se está actualizando.
@@ -389,15 +749,35 @@ public class TaskRepository {
             return Tasks.forException(new IllegalArgumentException("Task ID cannot be null for priority update."));
         }
 
+        if (!outbox.isOnline()) {
+            Task<Void> queued = queueTaskUpdate(taskId, "priority", newPriority);
+            republishAfterLocalWrite();
+            return queued;
+        }
+
         DocumentReference taskRef = tasksCollection.document(taskId);
         Map<String, Object> updates = new HashMap<>();
         updates.put("priority", newPriority);
+        updates.put(TaskConstants.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
 
         // Actualizar la base de datos
         return taskRef.update(updates);
     }
 
     public Task<Void> processOverdueTask(TaskModel task) {
+        if (!outbox.isOnline()) {
+            if (task.getPenaltyPoints() > 0) {
+                memberRepository.addPointsToMembersOffline(
+                        task.getBoardId(), task.getAssignedMembers(), -task.getPenaltyPoints());
+            }
+            queueTaskUpdate(task.getId(), "status", TaskConstants.STATUS_PENDING);
+            queueTaskUpdate(task.getId(), "assignedMembers", new ArrayList<String>());
+            queueTaskUpdate(task.getId(), "reviewerId", null);
+            queueTaskUpdate(task.getId(), "participants", new ArrayList<String>());
+            Task<Void> queued = queueTaskUpdate(task.getId(), "penaltyApplied", true);
+            republishAfterLocalWrite();
+            return queued;
+        }
         DocumentReference taskRef = tasksCollection.document(task.getId());
         WriteBatch batch = db.batch();
 
@@ -417,7 +797,9 @@ public class TaskRepository {
 
         updates.put("assignedMembers", new ArrayList<>());
         updates.put("reviewerId", null);
+        updates.put("participants", new ArrayList<>());
         updates.put("penaltyApplied", true);
+        updates.put(TaskConstants.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
 
         batch.update(taskRef, updates);
 
@@ -425,7 +807,17 @@ public class TaskRepository {
     }
 
     public Task<Void> updateTaskField(String taskId, String fieldName, Object value) {
+        if ("assignedMembers".equals(fieldName) || "reviewerId".equals(fieldName)) {
+            // 'participants' depende de ambos campos: esos cambios van por updateTask(baseline, edited)
+            return Tasks.forException(new IllegalArgumentException(
+                    "Use updateTask para cambiar " + fieldName));
+        }
+        if (!outbox.isOnline()) {
+            Task<Void> queued = queueTaskUpdate(taskId, fieldName, value);
+            republishAfterLocalWrite();
+            return queued;
+        }
         return db.collection("tasks").document(taskId)
-                .update(fieldName, value);
+                .update(fieldName, value, TaskConstants.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
     }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.utp.wemake.repository;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estado de las tareas de un listener, indexado por ID.
+ * Cada snapshot se aplica a partir de getDocumentChanges(): solo se deserializan los
+ * documentos añadidos o modificados, así un cambio de estado en un tablero de 500 tareas
+ * cuesta una conversión y no 500.
+ * Cada tarea recuerda de qué consulta (bloque de tableros) llegó, para que el REMOVED de
+ * un bloque no borre la tarea que ya entró por otro (p. ej. al cambiarla de tablero).
+ * Guarda los datos tal como vienen del servidor; los cambios offline se aplican al emitir.
+ * No es thread-safe: se usa desde el hilo que entrega los snapshots.
+ */
+class TaskStore {
+
+    private final Map<String, TaskModel> tasks = new LinkedHashMap<>();
+    private final Map<String, Integer> sourceByTask = new LinkedHashMap<>();
+    private final Map<String, Integer> sourceByBoard;
+    // Bloques de los que ya llegó algún snapshot
+    private final boolean[] received;
+    // Bloques cuyo primer snapshot del servidor ya se comparó con lo sembrado desde Room
+    private final boolean[] reconciled;
+    private final MutationOutbox outbox;
+
+    /**
+     * @param sourceByBoard boardId -> índice de la consulta que lo escucha.
+     */
+    TaskStore(Map<String, Integer> sourceByBoard, int sourceCount, MutationOutbox outbox) {
+        this.sourceByBoard = sourceByBoard;
+        this.received = new boolean[sourceCount];
+        this.reconciled = new boolean[sourceCount];
+        this.outbox = outbox;
+    }
+
+    /**
+     * Carga la copia local de Room antes de que responda Firestore.
+     * @return Un cambio de tipo reset con las tareas ya con los cambios pendientes.
+     */
+    TaskChangeSet seed(List<TaskModel> cachedTasks) {
+        List<TaskModel> visible = new ArrayList<>(cachedTasks.size());
+        for (TaskModel task : cachedTasks) {
+            Integer source = sourceByBoard.get(task.getBoardId());
+            if (source == null) continue;
+            tasks.put(task.getId(), task);
+            sourceByTask.put(task.getId(), source);
+            TaskModel patched = outbox.withPendingChanges(task);
+            if (patched != null) visible.add(patched);
+        }
+        return TaskChangeSet.reset(visible);
+    }
+
+    /**
+     * Aplica un snapshot de la consulta {@code source}.
+     * @return Los cambios tal como están en el servidor (para la copia local).
+     */
+    TaskChangeSet apply(int source, QuerySnapshot snapshots) {
+        List<TaskModel> added = new ArrayList<>();
+        List<TaskModel> modified = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+
+        if (!received[source]) {
+            // Primer snapshot de esta consulta: puede ser el último que guardaba
+            // SharedListenerRegistry, cuyos cambios son respecto a otro suscriptor
+            received[source] = true;
+            for (QueryDocumentSnapshot doc : snapshots) {
+                put(source, doc, added, modified);
+            }
+        } else {
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                QueryDocumentSnapshot doc = change.getDocument();
+                if (change.getType() != DocumentChange.Type.REMOVED) {
+                    put(source, doc, added, modified);
+                } else if (Integer.valueOf(source).equals(sourceByTask.get(doc.getId()))) {
+                    tasks.remove(doc.getId());
+                    sourceByTask.remove(doc.getId());
+                    removedIds.add(doc.getId());
+                }
+            }
+        }
+
+        // El primer snapshot del servidor dice qué tareas sembradas desde Room ya no existen.
+        // Uno servido desde la caché de Firestore puede estar incompleto: se espera al del servidor.
+        if (!reconciled[source] && !snapshots.getMetadata().isFromCache()) {
+            reconciled[source] = true;
+            Set<String> serverIds = new HashSet<>();
+            for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                serverIds.add(doc.getId());
+            }
+            Iterator<Map.Entry<String, Integer>> it = sourceByTask.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Integer> entry = it.next();
+                if (entry.getValue() == source && !serverIds.contains(entry.getKey())) {
+                    tasks.remove(entry.getKey());
+                    removedIds.add(entry.getKey());
+                    it.remove();
+                }
+            }
+        }
+        return new TaskChangeSet(added, modified, removedIds, false);
+    }
+
+    boolean contains(String taskId) {
+        return tasks.containsKey(taskId);
+    }
+
+    /**
+     * Lo que ve la pantalla: los cambios del servidor con los cambios offline encima.
+     * Una tarea pendiente de borrar pasa a eliminada.
+     */
+    TaskChangeSet withPendingChanges(TaskChangeSet serverChanges) {
+        List<TaskModel> added = new ArrayList<>(serverChanges.getAdded().size());
+        List<TaskModel> modified = new ArrayList<>(serverChanges.getModified().size());
+        List<String> removedIds = new ArrayList<>(serverChanges.getRemovedIds());
+        overlay(serverChanges.getAdded(), added, removedIds);
+        overlay(serverChanges.getModified(), modified, removedIds);
+        return new TaskChangeSet(added, modified, removedIds, serverChanges.isReset());
+    }
+
+    /**
+     * Tras una escritura offline: vuelve a emitir solo las tareas con cambios pendientes.
+     */
+    TaskChangeSet pendingChanges() {
+        List<TaskModel> modified = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        for (TaskModel task : tasks.values()) {
+            if (outbox.hasPendingChanges(task.getId())) {
+                TaskModel patched = outbox.withPendingChanges(task);
+                if (patched != null) {
+                    modified.add(patched);
+                } else {
+                    removedIds.add(task.getId());
+                }
+            }
+        }
+        return new TaskChangeSet(new ArrayList<>(), modified, removedIds, false);
+    }
+
+    private void put(int source, QueryDocumentSnapshot doc, List<TaskModel> added, List<TaskModel> modified) {
+        TaskModel task = doc.toObject(TaskModel.class);
+        task.setId(doc.getId());
+        boolean existed = tasks.put(doc.getId(), task) != null;
+        sourceByTask.put(doc.getId(), source);
+        (existed ? modified : added).add(task);
+    }
+
+    private void overlay(List<TaskModel> source, List<TaskModel> target, List<String> removedIds) {
+        for (TaskModel task : source) {
+            TaskModel patched = outbox.withPendingChanges(task);
+            if (patched != null) {
+                target.add(patched);
+            } else {
+                removedIds.add(task.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.utp.wemake.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Une las llamadas idénticas a la API que están en curso: si ya hay una con la misma clave,
+ * el nuevo interesado se suma a ella en lugar de abrir otra, y todos reciben la misma
+ * respuesta. Cuando se van todos los interesados, la llamada se cancela.
+ * Se usa solo desde el hilo principal, que es donde Retrofit entrega los callbacks.
+ */
+public final class ApiRequestCoordinator {
+
+    /** Interés de un llamador en una petición; cancel() es idempotente. */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static final ApiRequestCoordinator INSTANCE = new ApiRequestCoordinator();
+
+    private final Map<String, InFlight<?>> inFlight = new HashMap<>();
+
+    private ApiRequestCoordinator() {
+    }
+
+    public static ApiRequestCoordinator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Encola la petición de la clave o se suma a la que ya está en curso.
+     * @param callFactory Solo se usa si no hay ninguna en curso.
+     */
+    public <T> Subscription enqueue(String key, Supplier<Call<T>> callFactory, Callback<T> callback) {
+        @SuppressWarnings("unchecked")
+        InFlight<T> current = (InFlight<T>) inFlight.get(key);
+        if (current == null) {
+            current = new InFlight<>(key, callFactory.get());
+            inFlight.put(key, current);
+            current.call.enqueue(current);
+        }
+        current.callbacks.add(callback);
+
+        InFlight<T> request = current;
+        return () -> request.unsubscribe(callback);
+    }
+
+    private final class InFlight<T> implements Callback<T> {
+        final String key;
+        final Call<T> call;
+        final List<Callback<T>> callbacks = new ArrayList<>();
+
+        InFlight(String key, Call<T> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        void unsubscribe(Callback<T> callback) {
+            if (!callbacks.remove(callback) || !callbacks.isEmpty()) return;
+            // Nadie espera ya la respuesta: se libera la conexión y la siguiente petición empieza de cero
+            finish();
+            call.cancel();
+        }
+
+        @Override
+        public void onResponse(Call<T> call, Response<T> response) {
+            for (Callback<T> callback : finish()) {
+                callback.onResponse(call, response);
+            }
+        }
+
+        @Override
+        public void onFailure(Call<T> call, Throwable t) {
+            for (Callback<T> callback : finish()) {
+                callback.onFailure(call, t);
+            }
+        }
+
+        // Deja de aceptar interesados y devuelve los que quedaban (ninguno si se canceló)
+        private List<Callback<T>> finish() {
+            if (inFlight.get(key) == this) {
+                inFlight.remove(key);
+            }
+            List<Callback<T>> pending = new ArrayList<>(callbacks);
+            callbacks.clear();
+            return pending;
+        }
+    }
+}
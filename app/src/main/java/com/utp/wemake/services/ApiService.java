@@ -1,5 +1,6 @@
 package com.utp.wemake.services;
 
+import com.utp.wemake.dto.BoardOverviewResponse;
 import com.utp.wemake.dto.DashboardResponse;
 import com.utp.wemake.dto.LeaderboardResponse;
 import com.utp.wemake.dto.UserSummaryResponse;
@@ -9,6 +10,7 @@ import java.util.List;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 public interface ApiService {
     @GET("dashboard/{board_id}")
@@ -22,4 +24,11 @@ public interface ApiService {
             @Path("board_id") String boardId,
             @Path("user_id") String userId
     );
+
+    // Las tres anteriores en una sola llamada; los servidores que no lo tienen responden 404
+    @GET("overview/{board_id}")
+    Call<BoardOverviewResponse> getBoardOverview(
+            @Path("board_id") String boardId,
+            @Query("user_id") String userId
+    );
 }
\ No newline at end of file
@@ -1,31 +1,99 @@
 package com.utp.wemake.services;
 
+import android.content.Context;
+
+import com.utp.wemake.utils.NetworkUtils;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+/**
+ * Un solo cliente HTTP y un solo ApiService para toda la app.
+ * Las respuestas se guardan en una caché en disco y se revalidan con el ETag
+ * (If-None-Match): si nada cambió, la API responde 304 y se usa la copia local.
+ * OkHttp pide gzip y reutiliza conexiones por su cuenta; sin red se sirve lo último guardado.
+ */
 public class RetrofitClient {
 
     // URL de la API desplegada en Render
     private static final String BASE_URL = "https://wemakeapiprediction.onrender.com/";
-    private static Retrofit retrofit = null;
 
-    public static ApiService getApiService() {
-        if (retrofit == null) {
+    private static final String CACHE_DIR = "http_api";
+    private static final long CACHE_SIZE_BYTES = 10L * 1024 * 1024;
+    // Si la API no manda Cache-Control, la respuesta se guarda ya vencida: se revalida en cada
+    // uso y sin red FORCE_CACHE la sirve igual (con no-cache OkHttp respondería 504)
+    private static final String DEFAULT_CACHE_CONTROL = "private, max-age=0";
+
+    private static Context appContext;
+    private static OkHttpClient httpClient = null;
+    private static ApiService apiService = null;
+
+    /**
+     * Guarda el contexto de la app para la caché en disco (llámalo en tu clase Application).
+     */
+    public static void initialize(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    public static synchronized ApiService getApiService() {
+        if (apiService == null) {
+            Retrofit retrofit = new Retrofit.Builder()
+                    .baseUrl(BASE_URL)
+                    .client(getHttpClient())
+                    .addConverterFactory(GsonConverterFactory.create())
+                    .build();
+            apiService = retrofit.create(ApiService.class);
+        }
+        return apiService;
+    }
+
+    private static OkHttpClient getHttpClient() {
+        if (httpClient == null) {
             // Cliente HTTP con timeouts extendidos para Render
-            OkHttpClient client = new OkHttpClient.Builder()
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
                     .connectTimeout(60, TimeUnit.SECONDS)
                     .readTimeout(60, TimeUnit.SECONDS)
                     .writeTimeout(60, TimeUnit.SECONDS)
-                    .build();
+                    .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                    .addInterceptor(RetrofitClient::useCacheWhenOffline)
+                    .addNetworkInterceptor(RetrofitClient::storeForRevalidation);
+            if (appContext != null) {
+                builder.cache(new Cache(new File(appContext.getCacheDir(), CACHE_DIR), CACHE_SIZE_BYTES));
+            }
+            httpClient = builder.build();
+        }
+        return httpClient;
+    }
 
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+    // Sin conexión se responde desde la caché aunque la copia esté vencida
+    private static Response useCacheWhenOffline(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        if (appContext != null && !NetworkUtils.isOnline(appContext)) {
+            request = request.newBuilder().cacheControl(CacheControl.FORCE_CACHE).build();
+        }
+        return chain.proceed(request);
+    }
+
+    // Sin cabecera de caché OkHttp no guardaría nada; así la próxima petición sale con If-None-Match
+    private static Response storeForRevalidation(Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (!"GET".equals(chain.request().method()) || response.header("Cache-Control") != null) {
+            return response;
         }
-        return retrofit.create(ApiService.class);
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", DEFAULT_CACHE_CONTROL)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.utp.wemake.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que se sabe del servidor de la API entre arranques de la app.
+ * No depende del usuario, así que no se borra al cerrar sesión.
+ */
+public class ApiCapabilityPrefs {
+    private static final String PREFS_NAME = "AppApiPrefs";
+    private static final String KEY_OVERVIEW_SUPPORTED = "overviewSupported";
+    private static final String KEY_OVERVIEW_CHECKED_AT = "overviewCheckedAt";
+    // Un "no" se vuelve a comprobar pasado este tiempo, por si el servidor ya lo desplegó
+    private static final long UNSUPPORTED_RECHECK_MS = TimeUnit.HOURS.toMillis(24);
+    private final SharedPreferences sharedPreferences;
+
+    public ApiCapabilityPrefs(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Si el servidor tiene el endpoint combinado overview/{board_id}; null si no se sabe
+     * o si el último "no" ya caducó.
+     */
+    public Boolean isOverviewSupported() {
+        if (!sharedPreferences.contains(KEY_OVERVIEW_SUPPORTED)) return null;
+        boolean supported = sharedPreferences.getBoolean(KEY_OVERVIEW_SUPPORTED, false);
+        long checkedAt = sharedPreferences.getLong(KEY_OVERVIEW_CHECKED_AT, 0);
+        if (!supported && System.currentTimeMillis() - checkedAt >= UNSUPPORTED_RECHECK_MS) return null;
+        return supported;
+    }
+
+    public void setOverviewSupported(boolean supported) {
+        sharedPreferences.edit()
+                .putBoolean(KEY_OVERVIEW_SUPPORTED, supported)
+                .putLong(KEY_OVERVIEW_CHECKED_AT, System.currentTimeMillis())
+                .apply();
+    }
+}
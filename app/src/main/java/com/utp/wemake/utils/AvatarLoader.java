@@ -0,0 +1,126 @@
+package com.utp.wemake.utils;
+
+import android.graphics.drawable.Drawable;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+import com.utp.wemake.R;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Carga las fotos de perfil al tamaño en que se muestran.
+ * Las fotos se suben a Cloudinary a resolución completa (ImageRepository); aquí se pide a
+ * Cloudinary la versión recortada al tamaño en píxeles de la vista y en el formato y calidad
+ * que mejor le sirvan al dispositivo. Las URLs que no son de Cloudinary se cargan tal cual.
+ */
+public final class AvatarLoader {
+
+    private static final String CLOUDINARY_HOST = "res.cloudinary.com";
+    private static final String UPLOAD_SEGMENT = "/image/upload/";
+    // Tamaño para vistas sin alto/ancho fijo en el layout
+    private static final int FALLBACK_SIZE_DP = 48;
+    // Filas por delante de la última visible cuyos avatares se piden
+    private static final int PRELOAD_ROWS = 10;
+
+    /** Foto de perfil de la fila en una posición, o null si no tiene. */
+    public interface PhotoUrls {
+        @Nullable
+        String photoUrlAt(int position);
+    }
+
+    private AvatarLoader() {}
+
+    /**
+     * Carga el avatar en la vista al tamaño que tiene en el layout.
+     * Sin foto se muestra el avatar por defecto y se cancela la carga anterior de la vista.
+     */
+    public static void load(@NonNull ImageView target, @Nullable String photoUrl) {
+        if (photoUrl == null || photoUrl.isEmpty()) {
+            Glide.with(target).clear(target);
+            target.setImageResource(R.drawable.ic_default_avatar);
+            return;
+        }
+        request(Glide.with(target), photoUrl, sizeOf(target)).into(target);
+    }
+
+    /**
+     * Petición común a la carga y a la precarga. Misma URL, tamaño y transformaciones,
+     * así la fila encuentra en memoria el avatar que el preloader ya trajo.
+     */
+    public static RequestBuilder<Drawable> request(@NonNull RequestManager glide, @NonNull String photoUrl, int sizePx) {
+        return glide.load(sizedUrl(photoUrl, sizePx))
+                .placeholder(R.drawable.ic_default_avatar)
+                .error(R.drawable.ic_default_avatar)
+                .circleCrop()
+                .override(sizePx)
+                // La imagen ya llega al tamaño final: en disco se guarda lo descargado y nada más
+                .diskCacheStrategy(DiskCacheStrategy.DATA);
+    }
+
+    /**
+     * Precarga los avatares de las filas que están por entrar en pantalla.
+     * Se añade como OnScrollListener del RecyclerView.
+     * @param sizePx El mismo tamaño que tiene el avatar en el layout de la fila.
+     */
+    public static RecyclerViewPreloader<String> preloader(@NonNull RequestManager glide, int sizePx, @NonNull PhotoUrls urls) {
+        ListPreloader.PreloadModelProvider<String> models = new ListPreloader.PreloadModelProvider<String>() {
+            @NonNull
+            @Override
+            public List<String> getPreloadItems(int position) {
+                String url = urls.photoUrlAt(position);
+                return url == null || url.isEmpty() ? Collections.emptyList() : Collections.singletonList(url);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String url) {
+                return request(glide, url, sizePx);
+            }
+        };
+        return new RecyclerViewPreloader<>(glide, models, new FixedPreloadSizeProvider<>(sizePx, sizePx), PRELOAD_ROWS);
+    }
+
+    /**
+     * Inserta en una URL de Cloudinary la transformación para un avatar cuadrado de sizePx:
+     * recorte centrado en la cara, formato y calidad automáticos.
+     * Solo se reescriben URLs sin transformaciones (tras "upload/" viene la versión, "v123...").
+     */
+    public static String sizedUrl(String url, int sizePx) {
+        if (url == null || sizePx <= 0 || !url.contains(CLOUDINARY_HOST)) return url;
+        int uploadAt = url.indexOf(UPLOAD_SEGMENT);
+        if (uploadAt < 0) return url;
+        int insertAt = uploadAt + UPLOAD_SEGMENT.length();
+        if (!isVersionSegment(url, insertAt)) return url;
+        return url.substring(0, insertAt)
+                + "c_fill,g_face,f_auto,q_auto,w_" + sizePx + ",h_" + sizePx + "/"
+                + url.substring(insertAt);
+    }
+
+    private static boolean isVersionSegment(String url, int start) {
+        int end = url.indexOf('/', start);
+        if (end < 0 || end - start < 2 || url.charAt(start) != 'v') return false;
+        for (int i = start + 1; i < end; i++) {
+            if (!Character.isDigit(url.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int sizeOf(ImageView view) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params != null && params.width > 0) return params.width;
+        if (view.getWidth() > 0) return view.getWidth();
+        return Math.round(FALLBACK_SIZE_DP * view.getResources().getDisplayMetrics().density);
+    }
+}
@@ -4,10 +4,13 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
+import com.utp.wemake.db.AppDatabase;
+
 public class DataCleaner {
 
     /**
-     * Borra todos los datos de todas las SharedPreferences conocidas de la aplicación.
+     * Borra todos los datos de todas las SharedPreferences conocidas de la aplicación
+     * y la copia local de tareas y de la analítica.
      * Es ideal para llamar durante el cierre de sesión.
      *
      * @param context El contexto de la aplicación para acceder a SharedPreferences.
@@ -23,6 +26,14 @@ public class DataCleaner {
             prefs.edit().clear().apply();
         }
 
+        // Copia local de tareas: pertenece al usuario que cierra sesión
+        AppDatabase database = AppDatabase.getDatabase(context);
+        AppDatabase.databaseExecutor.execute(() -> {
+            database.taskCacheDao().clearAll();
+            database.boardSyncStateDao().clearAll();
+            database.apiCacheDao().clearAll();
+        });
+
         Log.d("DataCleaner", "Limpieza de datos locales completada.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.utp.wemake.utils;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Prepara una foto de la galería o la cámara para subirla.
+ * Se decodifica ya reducida (inSampleSize), se endereza según su orientación EXIF y se vuelve
+ * a codificar como WebP con un peso máximo. Bitmap.compress no escribe metadatos, así que el
+ * archivo resultante sale sin EXIF (ubicación, cámara, fecha).
+ */
+public final class ImageDownscaler {
+
+    // Lado mayor de la imagen subida: un avatar no se muestra a más de ~500 px
+    public static final int MAX_DIMENSION_PX = 1024;
+    // Peso máximo del WebP; se baja la calidad hasta entrar o llegar al mínimo
+    private static final int MAX_BYTES = 300 * 1024;
+    private static final int START_QUALITY = 85;
+    private static final int MIN_QUALITY = 50;
+    private static final int QUALITY_STEP = 10;
+
+    private ImageDownscaler() {}
+
+    /**
+     * Escribe en target la versión reducida de la imagen. Lee el origen tres veces
+     * (tamaño, píxeles y EXIF) para no tener nunca el original completo en memoria.
+     * @throws IOException si el origen no se puede leer o no es una imagen.
+     */
+    public static void downscaleToWebp(ContentResolver resolver, Uri source, File target) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("El archivo no es una imagen: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, MAX_DIMENSION_PX);
+        Bitmap bitmap;
+        try (InputStream in = open(resolver, source)) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("No se pudo decodificar la imagen: " + source);
+        }
+
+        int rotation;
+        try (InputStream in = open(resolver, source)) {
+            rotation = rotationOf(in);
+        }
+
+        Bitmap prepared = fitAndRotate(bitmap, MAX_DIMENSION_PX, rotation);
+        try (FileOutputStream out = new FileOutputStream(target)) {
+            out.write(encodeWebp(prepared));
+        } finally {
+            prepared.recycle();
+        }
+    }
+
+    /**
+     * Mayor potencia de 2 que deja el lado mayor en al menos maxDimension,
+     * así el ajuste fino posterior siempre reduce y nunca amplía.
+     */
+    static int sampleSizeFor(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) throw new IOException("No se pudo abrir " + source);
+        return in;
+    }
+
+    private static int rotationOf(InputStream in) {
+        try {
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90: return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180: return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270: return 270;
+                default: return 0;
+            }
+        } catch (IOException e) {
+            // Sin EXIF legible se sube tal como viene
+            return 0;
+        }
+    }
+
+    // Escala al lado máximo y aplica la rotación en un solo paso; libera el bitmap original si se copia
+    private static Bitmap fitAndRotate(Bitmap source, int maxDimension, int rotation) {
+        float scale = Math.min(1f, maxDimension / (float) Math.max(source.getWidth(), source.getHeight()));
+        if (scale == 1f && rotation == 0) return source;
+
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotation);
+        Bitmap result = Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+        if (result != source) source.recycle();
+        return result;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static byte[] encodeWebp(Bitmap bitmap) {
+        Bitmap.CompressFormat format = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int quality = START_QUALITY;
+        while (true) {
+            out.reset();
+            bitmap.compress(format, quality, out);
+            if (out.size() <= MAX_BYTES || quality <= MIN_QUALITY) return out.toByteArray();
+            quality = Math.max(MIN_QUALITY, quality - QUALITY_STEP);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.utp.wemake.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Asigna a cada ID de documento un long fijo para los adapters con stable IDs.
+ * Se usa un contador en lugar de hashCode() para que dos IDs nunca colisionen.
+ * Cada adapter tiene su propia instancia y solo se usa desde el hilo principal.
+ */
+public final class StableIds {
+
+    private final Map<String, Long> ids = new HashMap<>();
+
+    public long idFor(String key) {
+        if (key == null) return -1;
+        Long id = ids.get(key);
+        if (id == null) {
+            id = (long) ids.size();
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
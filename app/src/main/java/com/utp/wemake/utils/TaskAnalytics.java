@@ -0,0 +1,226 @@
+package com.utp.wemake.utils;
+
+import com.utp.wemake.constants.TaskConstants;
+import com.utp.wemake.dto.DashboardResponse;
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Métricas del dashboard calculadas en el dispositivo a partir de las tareas.
+ * Cada tarea suma su aporte a contadores y acumulados; cuando cambia se resta el aporte
+ * anterior y se suma el nuevo, así que actualizar cuesta lo que cambió y no lo que hay
+ * en el tablero. snapshot() arma el DashboardResponse con los valores actuales.
+ * Solo se usa desde un hilo.
+ */
+public final class TaskAnalytics {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    // Semanas del gráfico de completadas, la actual incluida
+    private static final int WEEKS_SHOWN = 8;
+    // Una tarea activa está en riesgo si ya venció o vence dentro de este plazo
+    private static final long AT_RISK_WINDOW_MS = 2 * DAY_MS;
+    private static final int MAX_AT_RISK_TASKS = 5;
+
+    /** Lo que una versión de una tarea suma a las métricas. */
+    private static final class Contribution {
+        final TaskModel task;
+        final boolean completed;
+        final String priority;
+        // Lunes (días desde 1970) de la semana en que se completó, o null
+        final Long completedWeek;
+        // Días entre creación y cierre, o NaN si falta alguna fecha
+        final double completionDays;
+        // Si se cerró antes de su fecha límite; null si no estaba completada o no tenía fecha
+        final Boolean onTime;
+
+        Contribution(TaskModel task, TimeZone zone) {
+            this.task = task;
+            this.completed = TaskConstants.STATUS_COMPLETED.equals(task.getStatus());
+            this.priority = task.getPriority() != null ? task.getPriority().toLowerCase(Locale.ROOT) : null;
+
+            Long week = null;
+            double days = Double.NaN;
+            Boolean beforeDeadline = null;
+            if (completed && task.getCompletedAt() != null) {
+                long completedAt = task.getCompletedAt().getTime();
+                week = mondayOf(TaskDayIndex.epochDay(completedAt, zone));
+                if (task.getCreatedAt() != null) {
+                    days = Math.max(0, completedAt - task.getCreatedAt().getTime()) / (double) DAY_MS;
+                }
+                if (task.getDeadline() != null) {
+                    beforeDeadline = completedAt <= task.getDeadline().getTime();
+                }
+            }
+            this.completedWeek = week;
+            this.completionDays = days;
+            this.onTime = beforeDeadline;
+        }
+
+        boolean isActiveWithDeadline() {
+            return !completed && task.getDeadline() != null;
+        }
+    }
+
+    private final TimeZone zone;
+    private final Map<String, Contribution> byId = new HashMap<>();
+    private final Map<String, Integer> priorityCounts = new HashMap<>();
+    private final Map<Long, Integer> completedByWeek = new HashMap<>();
+    private final Map<String, TaskModel> activeWithDeadline = new HashMap<>();
+    private int totalTasks;
+    private int completedTasks;
+    private int timedCompletions;
+    private double completionDaysSum;
+    private int completionsWithDeadline;
+    private int onTimeCompletions;
+
+    public TaskAnalytics() {
+        this(TimeZone.getDefault());
+    }
+
+    public TaskAnalytics(TimeZone zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Añade o reemplaza una tarea. La misma instancia que ya se tenía no cuenta como cambio.
+     * @return true si las métricas cambiaron.
+     */
+    public boolean upsert(TaskModel task) {
+        String id = task.getId();
+        if (id == null) return false;
+        Contribution previous = byId.get(id);
+        if (previous != null && previous.task == task) return false;
+        if (previous != null) subtract(previous);
+        Contribution next = new Contribution(task, zone);
+        byId.put(id, next);
+        add(next);
+        return true;
+    }
+
+    public boolean remove(String taskId) {
+        Contribution previous = byId.remove(taskId);
+        if (previous == null) return false;
+        subtract(previous);
+        return true;
+    }
+
+    /** Quita todas las tareas; para un reinicio del stream, que trae el tablero completo. */
+    public boolean clear() {
+        if (byId.isEmpty()) return false;
+        for (Contribution c : byId.values()) {
+            subtract(c);
+        }
+        byId.clear();
+        return true;
+    }
+
+    /**
+     * Métricas en este momento. La lista de riesgo depende de la hora, por eso se arma aquí.
+     */
+    public DashboardResponse snapshot(long now) {
+        DashboardResponse response = new DashboardResponse();
+
+        response.summary = new DashboardResponse.SummaryMetrics();
+        response.summary.totalTasks = totalTasks;
+        response.summary.pendingTasks = totalTasks - completedTasks;
+
+        response.productivity = new DashboardResponse.ProductivityMetrics();
+        response.productivity.tasksCompletedPerWeek = completedPerWeek(now);
+        response.productivity.priorityDistribution = new HashMap<>(priorityCounts);
+        response.productivity.avgCompletionTimeDays = timedCompletions > 0
+                ? completionDaysSum / timedCompletions : 0;
+        response.productivity.onTimeCompletionRate = completionsWithDeadline > 0
+                ? 100.0 * onTimeCompletions / completionsWithDeadline : 0;
+
+        response.predictions = new DashboardResponse.Predictions();
+        response.predictions.atRiskTasks = atRiskTasks(now);
+        return response;
+    }
+
+    private void add(Contribution c) {
+        apply(c, 1);
+    }
+
+    private void subtract(Contribution c) {
+        apply(c, -1);
+    }
+
+    private void apply(Contribution c, int sign) {
+        totalTasks += sign;
+        if (c.completed) completedTasks += sign;
+        if (c.priority != null) addTo(priorityCounts, c.priority, sign);
+        if (c.completedWeek != null) addTo(completedByWeek, c.completedWeek, sign);
+        if (!Double.isNaN(c.completionDays)) {
+            timedCompletions += sign;
+            completionDaysSum += sign * c.completionDays;
+        }
+        if (c.onTime != null) {
+            completionsWithDeadline += sign;
+            if (c.onTime) onTimeCompletions += sign;
+        }
+        if (c.isActiveWithDeadline()) {
+            if (sign > 0) activeWithDeadline.put(c.task.getId(), c.task);
+            else activeWithDeadline.remove(c.task.getId());
+        }
+    }
+
+    private static <K> void addTo(Map<K, Integer> counts, K key, int delta) {
+        Integer current = counts.get(key);
+        int updated = (current != null ? current : 0) + delta;
+        if (updated == 0) counts.remove(key);
+        else counts.put(key, updated);
+    }
+
+    private Map<String, Integer> completedPerWeek(long now) {
+        long currentWeek = mondayOf(TaskDayIndex.epochDay(now, zone));
+        Map<String, Integer> weeks = new LinkedHashMap<>();
+        for (int i = WEEKS_SHOWN - 1; i >= 0; i--) {
+            long week = currentWeek - 7L * i;
+            Integer count = completedByWeek.get(week);
+            weeks.put(isoWeekLabel(week), count != null ? count : 0);
+        }
+        return weeks;
+    }
+
+    private List<DashboardResponse.AtRiskTask> atRiskTasks(long now) {
+        List<TaskModel> atRisk = new ArrayList<>();
+        for (TaskModel task : activeWithDeadline.values()) {
+            if (task.getDeadline().getTime() - now <= AT_RISK_WINDOW_MS) atRisk.add(task);
+        }
+        Collections.sort(atRisk, (a, b) -> a.getDeadline().compareTo(b.getDeadline()));
+
+        List<DashboardResponse.AtRiskTask> result = new ArrayList<>();
+        for (TaskModel task : atRisk.subList(0, Math.min(MAX_AT_RISK_TASKS, atRisk.size()))) {
+            DashboardResponse.AtRiskTask item = new DashboardResponse.AtRiskTask();
+            item.title = task.getTitle();
+            item.priority = task.getPriority();
+            result.add(item);
+        }
+        return result;
+    }
+
+    // El 1/1/1970 fue jueves: el lunes de esa semana es el día -3
+    private static long mondayOf(long epochDay) {
+        return epochDay - Math.floorMod(epochDay + 3, 7);
+    }
+
+    /**
+     * Semana ISO ("2025-W07"): el año y el número salen del jueves de esa semana.
+     * El texto ordena igual que las fechas, que es como el gráfico ordena sus barras.
+     */
+    static String isoWeekLabel(long mondayEpochDay) {
+        Calendar thursday = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        thursday.setTimeInMillis((mondayEpochDay + 3) * DAY_MS);
+        int week = (thursday.get(Calendar.DAY_OF_YEAR) - 1) / 7 + 1;
+        return String.format(Locale.ROOT, "%d-W%02d", thursday.get(Calendar.YEAR), week);
+    }
+}
@@ -0,0 +1,129 @@
+package com.utp.wemake.utils;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Tareas agrupadas por día de vencimiento (días locales desde 1970).
+ * Se actualiza de forma incremental: al recibir la lista nueva solo se mueven las tareas
+ * que cambiaron de instancia, así que consultar un día cuesta lo que tenga ese día.
+ * Las tareas sin fecha no se indexan.
+ */
+public final class TaskDayIndex {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    public interface TaskFilter {
+        boolean accept(TaskModel task);
+    }
+
+    private final TimeZone zone;
+    private final TaskFilter filter;
+    private final Map<Long, List<TaskModel>> tasksByDay = new HashMap<>();
+    // Última versión indexada de cada tarea y el día en que quedó
+    private final Map<String, TaskModel> indexedById = new HashMap<>();
+    private final Map<String, Long> dayById = new HashMap<>();
+
+    public TaskDayIndex(TaskFilter filter) {
+        this(filter, TimeZone.getDefault());
+    }
+
+    public TaskDayIndex(TaskFilter filter, TimeZone zone) {
+        this.filter = filter;
+        this.zone = zone;
+    }
+
+    /**
+     * Día local (desde 1970) del instante dado.
+     */
+    public static long epochDay(long millis, TimeZone zone) {
+        return Math.floorDiv(millis + zone.getOffset(millis), DAY_MS);
+    }
+
+    public long epochDay(long millis) {
+        return epochDay(millis, zone);
+    }
+
+    /**
+     * Aplica la lista completa de tareas y devuelve los días cuyo contenido cambió.
+     */
+    public Set<Long> update(List<TaskModel> tasks) {
+        Set<Long> changedDays = new HashSet<>();
+        Set<String> seen = new HashSet<>(tasks.size());
+        for (TaskModel task : tasks) {
+            String id = task.getId();
+            if (id == null) continue;
+            seen.add(id);
+            if (indexedById.get(id) == task) continue; // Sin cambios (ver TaskChangeSet)
+            removeTask(id, changedDays);
+            addTask(task, changedDays);
+        }
+
+        Iterator<String> it = indexedById.keySet().iterator();
+        while (it.hasNext()) {
+            String id = it.next();
+            if (seen.contains(id)) continue;
+            it.remove();
+            Long day = dayById.remove(id);
+            if (day != null) {
+                removeFromDay(day, id);
+                changedDays.add(day);
+            }
+        }
+        return changedDays;
+    }
+
+    /** Tareas que vencen ese día, sin orden definido. */
+    public List<TaskModel> tasksOn(long epochDay) {
+        List<TaskModel> tasks = tasksByDay.get(epochDay);
+        return tasks != null ? new ArrayList<>(tasks) : Collections.emptyList();
+    }
+
+    public boolean hasTasksOn(long epochDay) {
+        return tasksByDay.containsKey(epochDay);
+    }
+
+    private void addTask(TaskModel task, Set<Long> changedDays) {
+        indexedById.put(task.getId(), task);
+        if (task.getDeadline() == null || !filter.accept(task)) return;
+        long day = epochDay(task.getDeadline().getTime());
+        List<TaskModel> tasks = tasksByDay.get(day);
+        if (tasks == null) {
+            tasks = new ArrayList<>();
+            tasksByDay.put(day, tasks);
+        }
+        tasks.add(task);
+        dayById.put(task.getId(), day);
+        changedDays.add(day);
+    }
+
+    private void removeTask(String id, Set<Long> changedDays) {
+        indexedById.remove(id);
+        Long day = dayById.remove(id);
+        if (day != null) {
+            removeFromDay(day, id);
+            changedDays.add(day);
+        }
+    }
+
+    private void removeFromDay(long day, String id) {
+        List<TaskModel> tasks = tasksByDay.get(day);
+        if (tasks == null) return;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (id.equals(tasks.get(i).getId())) {
+                tasks.remove(i);
+                break;
+            }
+        }
+        if (tasks.isEmpty()) tasksByDay.remove(day);
+    }
+}
@@ -0,0 +1,124 @@
+package com.utp.wemake.utils;
+
+import com.utp.wemake.models.Subtask;
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compara una tarea editada con la versión que se cargó (baseline) y devuelve solo
+ * los campos de Firestore que cambiaron, para enviarlos con update() en lugar de
+ * reescribir el documento entero con set().
+ * Los flags locales (isSynced, isProposal) y updatedAt nunca forman parte del diff.
+ */
+public final class TaskDiff {
+
+    private TaskDiff() {}
+
+    /**
+     * Copia profunda de una tarea (listas y subtareas incluidas), para que editar
+     * la copia no altere el baseline.
+     */
+    public static TaskModel copyOf(TaskModel source) {
+        TaskModel copy = new TaskModel();
+        copy.setId(source.getId());
+        copy.setTitle(source.getTitle());
+        copy.setDescription(source.getDescription());
+        copy.setDeadline(copyOf(source.getDeadline()));
+        copy.setPriority(source.getPriority());
+        copy.setSubtasks(copySubtasks(source.getSubtasks()));
+        copy.setBoardId(source.getBoardId());
+        copy.setCreatedBy(source.getCreatedBy());
+        copy.setCreatedAt(copyOf(source.getCreatedAt()));
+        copy.setStatus(source.getStatus());
+        copy.setRewardPoints(source.getRewardPoints());
+        copy.setPenaltyPoints(source.getPenaltyPoints());
+        copy.setApprovedBy(source.getApprovedBy());
+        copy.setApprovedAt(copyOf(source.getApprovedAt()));
+        copy.setReviewerId(source.getReviewerId());
+        copy.setAssignedMembers(source.getAssignedMembers() == null
+                ? null : new ArrayList<>(source.getAssignedMembers()));
+        copy.setCompletedAt(copyOf(source.getCompletedAt()));
+        copy.setPenaltyApplied(source.isPenaltyApplied());
+        copy.setUpdatedAt(copyOf(source.getUpdatedAt()));
+        copy.setSynced(source.isSynced());
+        copy.setProposal(source.isProposal());
+        return copy;
+    }
+
+    /**
+     * Campos (nombre en Firestore -> nuevo valor) que difieren entre baseline y edited.
+     * Vacío si no hay cambios.
+     */
+    public static Map<String, Object> changedFields(TaskModel baseline, TaskModel edited) {
+        Map<String, Object> changes = new HashMap<>();
+        putIfChanged(changes, "title", baseline.getTitle(), edited.getTitle());
+        putIfChanged(changes, "description", baseline.getDescription(), edited.getDescription());
+        putIfChanged(changes, "deadline", baseline.getDeadline(), edited.getDeadline());
+        putIfChanged(changes, "priority", baseline.getPriority(), edited.getPriority());
+        putIfChanged(changes, "boardId", baseline.getBoardId(), edited.getBoardId());
+        putIfChanged(changes, "createdBy", baseline.getCreatedBy(), edited.getCreatedBy());
+        putIfChanged(changes, "createdAt", baseline.getCreatedAt(), edited.getCreatedAt());
+        putIfChanged(changes, "status", baseline.getStatus(), edited.getStatus());
+        putIfChanged(changes, "rewardPoints", baseline.getRewardPoints(), edited.getRewardPoints());
+        putIfChanged(changes, "penaltyPoints", baseline.getPenaltyPoints(), edited.getPenaltyPoints());
+        putIfChanged(changes, "approvedBy", baseline.getApprovedBy(), edited.getApprovedBy());
+        putIfChanged(changes, "approvedAt", baseline.getApprovedAt(), edited.getApprovedAt());
+        putIfChanged(changes, "reviewerId", baseline.getReviewerId(), edited.getReviewerId());
+        putIfChanged(changes, "assignedMembers", baseline.getAssignedMembers(), edited.getAssignedMembers());
+        putIfChanged(changes, "completedAt", baseline.getCompletedAt(), edited.getCompletedAt());
+        putIfChanged(changes, "penaltyApplied", baseline.isPenaltyApplied(), edited.isPenaltyApplied());
+        // 'participants' se deriva de asignados y revisor: se reenvía si cambia alguno
+        if (changes.containsKey("assignedMembers") || changes.containsKey("reviewerId")) {
+            changes.put("participants", edited.getParticipants());
+        }
+        // Firestore guarda las subtareas como un único array: si cambia una, se envía la lista
+        if (!sameSubtasks(baseline.getSubtasks(), edited.getSubtasks())) {
+            changes.put("subtasks", edited.getSubtasks());
+        }
+        return changes;
+    }
+
+    private static void putIfChanged(Map<String, Object> changes, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            changes.put(field, after);
+        }
+    }
+
+    private static boolean sameSubtasks(List<Subtask> before, List<Subtask> after) {
+        if (before == null || after == null) return before == after;
+        if (before.size() != after.size()) return false;
+        for (int i = 0; i < before.size(); i++) {
+            Subtask a = before.get(i);
+            Subtask b = after.get(i);
+            if (!Objects.equals(a.getText(), b.getText())
+                    || a.isCompleted() != b.isCompleted()
+                    || !Objects.equals(a.getCompletedAt(), b.getCompletedAt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Subtask> copySubtasks(List<Subtask> subtasks) {
+        if (subtasks == null) return null;
+        List<Subtask> copies = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            Subtask copy = new Subtask(subtask.getText());
+            copy.setId(subtask.getId());
+            copy.setCompleted(subtask.isCompleted());
+            copy.setCompletedAt(subtask.getCompletedAt());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static Date copyOf(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+}
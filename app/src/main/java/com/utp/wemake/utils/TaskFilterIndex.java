@@ -0,0 +1,193 @@
+package com.utp.wemake.utils;
+
+import com.utp.wemake.models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * Índice en memoria para los filtros de la pantalla de tareas.
+ * Se construye una vez por cada cambio del conjunto de tareas, con un BitSet por estado,
+ * tablero, prioridad, asignado y día de vencimiento. Cualquier combinación de filtros
+ * se resuelve intersecando bits, sin recorrer la lista ni crear Calendar por tarea.
+ * El resultado conserva el orden de la lista original.
+ */
+public final class TaskFilterIndex {
+
+    public static final String ASSIGNEE_UNASSIGNED = "unassigned";
+    public static final String DUE_OVERDUE = "overdue";
+    public static final String DUE_TODAY = "today";
+    public static final String DUE_TOMORROW = "tomorrow";
+    public static final String DUE_THIS_WEEK = "this_week";
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final BitSet EMPTY = new BitSet();
+
+    /** Combinación de filtros; los campos null (o vacíos) no filtran. */
+    public static final class Query {
+        public String status;
+        public Collection<String> boardIds;
+        public String priority;
+        // ID de usuario ya resuelto, o ASSIGNEE_UNASSIGNED
+        public String assignee;
+        public String dueFilter;
+        // IDs que devolvió la búsqueda de texto; null si no hay búsqueda
+        public Set<String> matchingIds;
+    }
+
+    private final List<TaskModel> tasks;
+    private final TimeZone zone;
+    private final Map<String, Integer> positionById = new HashMap<>();
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+    private final Map<String, BitSet> byBoard = new HashMap<>();
+    private final Map<String, BitSet> byPriority = new HashMap<>();
+    private final Map<String, BitSet> byAssignee = new HashMap<>();
+    private final BitSet unassigned = new BitSet();
+    // Día local (días desde 1970) -> tareas que vencen ese día
+    private final TreeMap<Long, BitSet> byDeadlineDay = new TreeMap<>();
+    private final long[] deadlines;
+
+    public TaskFilterIndex(List<TaskModel> tasks) {
+        this(tasks, TimeZone.getDefault());
+    }
+
+    public TaskFilterIndex(List<TaskModel> tasks, TimeZone zone) {
+        this.tasks = new ArrayList<>(tasks);
+        this.zone = zone;
+        this.deadlines = new long[this.tasks.size()];
+        for (int i = 0; i < this.tasks.size(); i++) {
+            TaskModel task = this.tasks.get(i);
+            if (task.getId() != null) positionById.put(task.getId(), i);
+            add(byStatus, task.getStatus(), i);
+            add(byBoard, task.getBoardId(), i);
+            add(byPriority, task.getPriority(), i);
+            List<String> assignees = task.getAssignedMembers();
+            if (assignees == null || assignees.isEmpty()) {
+                unassigned.set(i);
+            } else {
+                for (String memberId : assignees) {
+                    add(byAssignee, memberId, i);
+                }
+            }
+            if (task.getDeadline() != null) {
+                deadlines[i] = task.getDeadline().getTime();
+                add(byDeadlineDay, dayOf(deadlines[i]), i);
+            }
+        }
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Tareas que cumplen todos los filtros, en el orden original.
+     * @param now Instante de referencia para los filtros de vencimiento.
+     */
+    public List<TaskModel> filter(Query query, long now) {
+        BitSet result = new BitSet(tasks.size());
+        result.set(0, tasks.size());
+
+        if (query.status != null) {
+            result.and(lookup(byStatus, query.status));
+        }
+        if (query.priority != null) {
+            result.and(lookup(byPriority, query.priority));
+        }
+        if (query.boardIds != null && !query.boardIds.isEmpty()) {
+            BitSet boards = new BitSet();
+            for (String boardId : query.boardIds) {
+                boards.or(lookup(byBoard, boardId));
+            }
+            result.and(boards);
+        }
+        if (query.assignee != null) {
+            result.and(ASSIGNEE_UNASSIGNED.equals(query.assignee) ? unassigned : lookup(byAssignee, query.assignee));
+        }
+        if (query.matchingIds != null && !result.isEmpty()) {
+            BitSet matching = new BitSet();
+            for (String taskId : query.matchingIds) {
+                Integer position = positionById.get(taskId);
+                if (position != null) matching.set(position);
+            }
+            result.and(matching);
+        }
+        if (query.dueFilter != null && !result.isEmpty()) {
+            result.and(dueSet(query.dueFilter, now));
+        }
+
+        List<TaskModel> filtered = new ArrayList<>(result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            filtered.add(tasks.get(i));
+        }
+        return filtered;
+    }
+
+    private BitSet dueSet(String dueFilter, long now) {
+        switch (dueFilter) {
+            case DUE_OVERDUE:
+                return dueBefore(now, false);
+            case DUE_TODAY:
+                return copyOf(byDeadlineDay.get(dayOf(now)));
+            case DUE_TOMORROW:
+                return copyOf(byDeadlineDay.get(dayOf(now + DAY_MS)));
+            case DUE_THIS_WEEK:
+                return dueBefore(now + 7 * DAY_MS, true);
+            default:
+                // Filtro desconocido: solo exige que tenga fecha
+                return dueBefore(Long.MAX_VALUE, true);
+        }
+    }
+
+    // Tareas con vencimiento antes de limit (o igual si inclusive): días completos más el día del límite
+    private BitSet dueBefore(long limit, boolean inclusive) {
+        BitSet due = new BitSet();
+        long limitDay = limit == Long.MAX_VALUE ? Long.MAX_VALUE : dayOf(limit);
+        for (BitSet day : byDeadlineDay.headMap(limitDay, false).values()) {
+            due.or(day);
+        }
+        BitSet lastDay = byDeadlineDay.get(limitDay);
+        if (lastDay != null) {
+            for (int i = lastDay.nextSetBit(0); i >= 0; i = lastDay.nextSetBit(i + 1)) {
+                if (deadlines[i] < limit || (inclusive && deadlines[i] == limit)) due.set(i);
+            }
+        }
+        return due;
+    }
+
+    private long dayOf(long millis) {
+        return TaskDayIndex.epochDay(millis, zone);
+    }
+
+    private static <K> void add(Map<K, BitSet> index, K key, int position) {
+        if (key == null) return;
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            index.put(key, bits);
+        }
+        bits.set(position);
+    }
+
+    private static BitSet lookup(Map<String, BitSet> index, String key) {
+        BitSet bits = index.get(key);
+        return bits != null ? bits : EMPTY;
+    }
+
+    private static BitSet copyOf(BitSet bits) {
+        return bits != null ? (BitSet) bits.clone() : new BitSet();
+    }
+
+    /** Índice vacío, para cuando aún no hay tareas. */
+    public static TaskFilterIndex empty() {
+        return new TaskFilterIndex(Collections.emptyList());
+    }
+}
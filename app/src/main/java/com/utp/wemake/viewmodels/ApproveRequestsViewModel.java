@@ -33,15 +33,13 @@ public class ApproveRequestsViewModel extends ViewModel {
             requestsListener.remove();
         }
 
-        requestsListener = boardRepository.listenToPendingRedemptions(boardId, (snapshot, e) -> {
+        requestsListener = boardRepository.listenToPendingRedemptions(boardId, (requests, e) -> {
             isLoading.setValue(false);
             if (e != null) {
                 error.setValue("Error al escuchar las solicitudes.");
                 return;
             }
-            if (snapshot != null) {
-                pendingRequests.setValue(snapshot.toObjects(RedemptionRequest.class));
-            }
+            pendingRequests.setValue(requests);
         });
     }
 
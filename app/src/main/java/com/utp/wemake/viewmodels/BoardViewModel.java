@@ -107,16 +107,15 @@ public class BoardViewModel extends ViewModel {
             return;
         }
 
-        boardListener = boardRepository.listenToBoardById(boardId, (snapshot, e) -> {
+        boardListener = boardRepository.listenToBoardById(boardId, (board, e) -> {
             if (e != null) {
                 this.error.setValue("Error al escuchar el tablero.");
                 return;
             }
 
-            if (snapshot != null && snapshot.exists()) {
-                Board board = snapshot.toObject(Board.class);
+            if (board != null) {
                 boardData.setValue(board);
-                if (board != null && board.getMembers() != null && !board.getMembers().isEmpty()) {
+                if (board.getMembers() != null && !board.getMembers().isEmpty()) {
                     loadBoardMembers(board.getMembers());
                 } else {
                     boardMembers.setValue(new ArrayList<>());
@@ -126,18 +125,14 @@ public class BoardViewModel extends ViewModel {
             }
         });
 
-        memberDetailsListener = boardRepository.listenToMemberDetails(boardId, currentUserId, (snapshot, e) -> {
+        memberDetailsListener = boardRepository.listenToMemberDetails(boardId, currentUserId, (member, e) -> {
             if (e != null) {
                 this.error.setValue("Error al obtener el rol del usuario.");
                 currentUserMemberDetails.setValue(null);
                 return;
             }
 
-            if (snapshot != null && snapshot.exists()) {
-                currentUserMemberDetails.setValue(snapshot.toObject(Member.class));
-            } else {
-                currentUserMemberDetails.setValue(null);
-            }
+            currentUserMemberDetails.setValue(member);
         });
     }
 
@@ -7,11 +7,6 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
-import androidx.work.Constraints;
-import androidx.work.ExistingWorkPolicy;
-import androidx.work.NetworkType;
-import androidx.work.OneTimeWorkRequest;
-import androidx.work.WorkManager;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.utp.wemake.models.Subtask;
@@ -20,6 +15,7 @@ import com.utp.wemake.repository.MemberRepository;
 import com.utp.wemake.repository.TaskRepository;
 import com.utp.wemake.utils.Event;
 import com.utp.wemake.utils.TaskCreationHelper;
+import com.utp.wemake.utils.TaskDiff;
 import com.utp.wemake.workers.SyncWorker;
 
 import java.util.Date;
@@ -34,7 +30,6 @@ public class CreateTaskViewModel extends AndroidViewModel {
     private final MemberRepository memberRepository;
     private final FirebaseAuth auth;
     private final TaskCreationHelper taskCreationHelper;
-    private final WorkManager workManager;
 
     // --- Estado de la Interfaz ---
     private final MutableLiveData<Boolean> _isLoading = new MutableLiveData<>(false);
@@ -54,6 +49,8 @@ public class CreateTaskViewModel extends AndroidViewModel {
     public final LiveData<List<Map<String, Object>>> boardMembers = _boardMembers;
 
     private final MutableLiveData<TaskModel> _taskToEdit = new MutableLiveData<>();
+    // Tarea tal como se cargó; updateTask solo envía lo que difiera de ella
+    private TaskModel taskBaseline;
     public final LiveData<TaskModel> taskToEdit = _taskToEdit;
 
     // --- Rol del Usuario ---
@@ -69,7 +66,6 @@ public class CreateTaskViewModel extends AndroidViewModel {
         this.taskRepository = new TaskRepository(application);
         this.memberRepository = new MemberRepository();
         this.auth = FirebaseAuth.getInstance();
-        this.workManager = WorkManager.getInstance(application);
         this.taskCreationHelper = new TaskCreationHelper(application);
     }
 
@@ -78,18 +74,7 @@ public class CreateTaskViewModel extends AndroidViewModel {
      * a Firebase cuando haya conexión.
      */
     private void scheduleSync() {
-        final String UNIQUE_SYNC_WORK_NAME = "sync_tasks_to_firebase";
-        Constraints constraints = new Constraints.Builder()
-                .setRequiredNetworkType(NetworkType.CONNECTED)
-                .build();
-        OneTimeWorkRequest syncRequest = new OneTimeWorkRequest.Builder(SyncWorker.class)
-                .setConstraints(constraints)
-                .build();
-        workManager.enqueueUniqueWork(
-                UNIQUE_SYNC_WORK_NAME,
-                ExistingWorkPolicy.KEEP,
-                syncRequest
-        );
+        SyncWorker.enqueue(getApplication());
     }
 
     /**
@@ -110,7 +95,10 @@ public class CreateTaskViewModel extends AndroidViewModel {
             taskRepository.getTaskById(taskId).addOnCompleteListener(task -> {
                 _isLoading.setValue(false);
                 if (task.isSuccessful() && task.getResult() != null) {
-                    _taskToEdit.setValue(task.getResult().toObject(TaskModel.class));
+                    TaskModel loaded = task.getResult().toObject(TaskModel.class);
+                    // Copia intacta para calcular después qué campos cambiaron
+                    taskBaseline = loaded == null ? null : TaskDiff.copyOf(loaded);
+                    _taskToEdit.setValue(loaded);
                 } else {
                     _errorMessage.setValue("Error al cargar la tarea para editar.");
                 }
@@ -195,7 +183,13 @@ public class CreateTaskViewModel extends AndroidViewModel {
 
         // --- CASO 1: El usuario es Administrador Editando ---
         if (Boolean.TRUE.equals(_isUserAdmin.getValue())) {
-            TaskModel task = new TaskModel();
+            if (taskBaseline == null) {
+                _errorMessage.setValue("Error: No se pudo cargar la tarea original para actualizar.");
+                _isLoading.setValue(false);
+                return;
+            }
+            // Se parte de la tarea cargada: los datos que no están en el formulario se conservan
+            TaskModel task = TaskDiff.copyOf(taskBaseline);
             task.setTitle(title);
             task.setDescription(description);
             task.setPriority(priority);
@@ -207,16 +201,6 @@ public class CreateTaskViewModel extends AndroidViewModel {
             task.setPenaltyPoints(penaltyPoints);
             task.setPenaltyApplied(false);
             task.setReviewerId(reviewerId);
-
-            // Preservar los datos originales que no están en el formulario
-            TaskModel originalTask = _taskToEdit.getValue();
-            if (originalTask != null) {
-                task.setCreatedBy(originalTask.getCreatedBy());
-                task.setCreatedAt(originalTask.getCreatedAt());
-                task.setStatus(originalTask.getStatus());
-                task.setApprovedBy(originalTask.getApprovedBy());
-                task.setApprovedAt(originalTask.getApprovedAt());
-            }
             task.setId(editingTaskId);
             updateExistingTask(task);
         }
@@ -233,30 +217,30 @@ public class CreateTaskViewModel extends AndroidViewModel {
     private void performNonAdminUpdate(String title, String description, String priority,
                                        List<String> assignedMemberIds, List<Subtask> subtasks,
                                        Date deadline, String reviewerId) {
-        TaskModel originalTask = _taskToEdit.getValue();
-
-        if (originalTask == null) {
+        if (taskBaseline == null) {
             _errorMessage.setValue("Error: No se pudo cargar la tarea original para actualizar.");
             _isLoading.setValue(false);
             return;
         }
 
-        originalTask.setTitle(title);
-        originalTask.setDescription(description);
-        originalTask.setPriority(priority);
-        originalTask.setAssignedMembers(assignedMemberIds);
-        originalTask.setSubtasks(subtasks);
-        originalTask.setDeadline(deadline);
-        originalTask.setReviewerId(reviewerId);
-        originalTask.setPenaltyApplied(false);
-
-        updateExistingTask(originalTask);
+        TaskModel task = TaskDiff.copyOf(taskBaseline);
+        task.setTitle(title);
+        task.setDescription(description);
+        task.setPriority(priority);
+        task.setAssignedMembers(assignedMemberIds);
+        task.setSubtasks(subtasks);
+        task.setDeadline(deadline);
+        task.setReviewerId(reviewerId);
+        task.setPenaltyApplied(false);
+
+        updateExistingTask(task);
     }
 
     private void updateExistingTask(TaskModel task) {
-        taskRepository.updateTask(task).addOnCompleteListener(taskResult -> {
+        taskRepository.updateTask(taskBaseline, task).addOnCompleteListener(taskResult -> {
             _isLoading.setValue(false);
             if (taskResult.isSuccessful()) {
+                taskBaseline = TaskDiff.copyOf(task);
                 _taskSaved.setValue(true);
             } else {
                 _errorMessage.setValue("Error al actualizar la tarea: " + taskResult.getException().getMessage());
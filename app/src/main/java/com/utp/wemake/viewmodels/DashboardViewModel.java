@@ -1,22 +1,34 @@
 package com.utp.wemake.viewmodels;
 
+import android.app.Application;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import com.google.firebase.auth.FirebaseAuth;
 import com.utp.wemake.dto.DashboardResponse;
 import com.utp.wemake.dto.LeaderboardResponse;
-import com.utp.wemake.services.ApiService;
-import com.utp.wemake.services.RetrofitClient;
+import com.utp.wemake.models.TaskModel;
+import com.utp.wemake.repository.AnalyticsRepository;
+import com.utp.wemake.repository.BoardOverview;
+import com.utp.wemake.repository.TaskChangeSet;
+import com.utp.wemake.repository.TaskRepository;
+import com.utp.wemake.utils.TaskAnalytics;
 
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+public class DashboardViewModel extends AndroidViewModel {
 
-public class DashboardViewModel extends ViewModel {
-
-    private final ApiService apiService;
+    private final AnalyticsRepository analyticsRepository;
+    private final TaskRepository taskRepository;
+    // Tablero de la última carga; las respuestas de otro tablero se descartan
+    private String currentBoardId;
+    // Métricas del tablero actual, calculadas sobre todas sus tareas en vivo
+    private TaskAnalytics analytics;
+    // Ya llegó el primer snapshot del tablero; antes las métricas saldrían en cero
+    private boolean tasksLoaded;
+    // Predicciones de la API, si llegaron; sin ellas se usa la lista de riesgo local
+    private DashboardResponse.Predictions remotePredictions;
 
     private final MutableLiveData<DashboardResponse> _dashboardData = new MutableLiveData<>();
     public LiveData<DashboardResponse> getDashboardData() { return _dashboardData; }
@@ -28,43 +40,123 @@ public class DashboardViewModel extends ViewModel {
     public LiveData<String> getErrorMessage() { return _errorMessage; }
     private final MutableLiveData<List<LeaderboardResponse>> _leaderboard = new MutableLiveData<>();
     public LiveData<List<LeaderboardResponse>> getLeaderboard() { return _leaderboard; }
+    private final MutableLiveData<String> _leaderboardError = new MutableLiveData<>();
+    public LiveData<String> getLeaderboardError() { return _leaderboardError; }
 
-    public DashboardViewModel() {
-        this.apiService = RetrofitClient.getApiService();
+    public DashboardViewModel(@NonNull Application application) {
+        super(application);
+        this.analyticsRepository = new AnalyticsRepository(application);
+        this.taskRepository = new TaskRepository(application);
     }
 
+    /**
+     * Calcula el dashboard en el dispositivo sobre todas las tareas del tablero (de todos los
+     * miembros, completadas incluidas) y lo actualiza con cada cambio, también sin conexión.
+     * La API solo aporta las predicciones de riesgo (opcional) y el ranking, con getBoardOverview.
+     */
     public void loadDashboardData(String boardId) {
+        String userId = FirebaseAuth.getInstance().getUid();
+        if (userId == null) {
+            _errorMessage.setValue("Usuario no autenticado");
+            return;
+        }
+
+        // Al volver a la pestaña o rotar, el stream del mismo tablero sigue activo
+        if (!boardId.equals(currentBoardId) || analytics == null) {
+            // Lo pedido para el tablero anterior ya no se va a mostrar
+            analyticsRepository.cancelPendingRequests();
+            startLocalAnalytics(boardId);
+        }
+        loadRemoteData(boardId, userId);
+    }
+
+    private void startLocalAnalytics(String boardId) {
+        currentBoardId = boardId;
+        TaskAnalytics boardAnalytics = new TaskAnalytics();
+        analytics = boardAnalytics;
+        tasksLoaded = false;
+        remotePredictions = null;
+        _leaderboardError.setValue(null);
         _isLoading.setValue(true);
         _errorMessage.setValue(null); // Limpiar errores previos
 
-        apiService.getDashboardData(boardId).enqueue(new Callback<DashboardResponse>() {
+        taskRepository.listenToBoardTasks(boardId, new TaskRepository.OnTasksUpdatedListener() {
             @Override
-            public void onResponse(Call<DashboardResponse> call, Response<DashboardResponse> response) {
-                _isLoading.setValue(false);
-                if (response.isSuccessful() && response.body() != null) {
-                    _dashboardData.setValue(response.body());
-                } else {
-                    _errorMessage.setValue("No se pudieron cargar los datos. Código: " + response.code());
+            public void onTasksChanged(TaskChangeSet changes) {
+                if (boardAnalytics != analytics) return;
+                boolean changed = apply(boardAnalytics, changes);
+                if (changed || !tasksLoaded) {
+                    tasksLoaded = true;
+                    publish();
                 }
             }
 
             @Override
-            public void onFailure(Call<DashboardResponse> call, Throwable t) {
+            public void onError(Exception e) {
+                // Si ya se mostró algo se mantiene lo último calculado
+                if (boardAnalytics != analytics || tasksLoaded) return;
                 _isLoading.setValue(false);
-                _errorMessage.setValue("Error de red: " + t.getMessage());
+                _errorMessage.setValue("Error al cargar las tareas: " + e.getMessage());
             }
         });
+    }
 
-        apiService.getLeaderboard(boardId).enqueue(new Callback<List<LeaderboardResponse>>() {
+    /**
+     * Predicciones y ranking en una sola foto de la API. Si el ranking falla sin copia guardada
+     * se avisa en su sección; el resto del dashboard no depende de la API.
+     */
+    private void loadRemoteData(String boardId, String userId) {
+        analyticsRepository.getBoardOverview(boardId, userId, new AnalyticsRepository.OnResultListener<BoardOverview>() {
             @Override
-            public void onResponse(Call<List<LeaderboardResponse>> call, Response<List<LeaderboardResponse>> response) {
-                if (response.isSuccessful()) {
-                    _leaderboard.setValue(response.body());
+            public void onResult(BoardOverview overview, boolean fromCache) {
+                if (!boardId.equals(currentBoardId)) return;
+
+                DashboardResponse remote = overview.getDashboard().getData();
+                if (remote != null && remote.predictions != null && remote.predictions.atRiskTasks != null) {
+                    remotePredictions = remote.predictions;
+                    publish();
+                }
+
+                BoardOverview.Part<List<LeaderboardResponse>> leaderboard = overview.getLeaderboard();
+                if (leaderboard.hasData()) {
+                    _leaderboard.setValue(leaderboard.getData());
                 }
+                _leaderboardError.setValue(leaderboard.hasData() ? null : leaderboard.getError());
             }
+
             @Override
-            public void onFailure(Call<List<LeaderboardResponse>> call, Throwable t) {
+            public void onError(String message) {
+                if (!boardId.equals(currentBoardId)) return;
+                _leaderboardError.setValue(message);
             }
         });
     }
-}
\ No newline at end of file
+
+    private static boolean apply(TaskAnalytics analytics, TaskChangeSet changes) {
+        boolean changed = false;
+        // Un reinicio trae el tablero completo
+        if (changes.isReset()) changed = analytics.clear();
+        for (TaskModel task : changes.getAdded()) changed |= analytics.upsert(task);
+        for (TaskModel task : changes.getModified()) changed |= analytics.upsert(task);
+        for (String taskId : changes.getRemovedIds()) changed |= analytics.remove(taskId);
+        return changed;
+    }
+
+    private void publish() {
+        if (!tasksLoaded) return;
+
+        DashboardResponse data = analytics.snapshot(System.currentTimeMillis());
+        if (remotePredictions != null) {
+            data.predictions = remotePredictions;
+        }
+        _isLoading.setValue(false);
+        _dashboardData.setValue(data);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        taskRepository.detachListeners();
+        analyticsRepository.cancelPendingRequests();
+    }
+}
@@ -14,26 +14,25 @@ import com.google.firebase.firestore.ListenerRegistration;
 import com.utp.wemake.constants.TaskConstants;
 import com.utp.wemake.dto.UserSummaryResponse;
 import com.utp.wemake.models.KanbanColumn;
-import com.utp.wemake.models.Member;
 import com.utp.wemake.models.TaskModel;
+import com.utp.wemake.repository.AnalyticsRepository;
 import com.utp.wemake.repository.MemberRepository;
+import com.utp.wemake.repository.CompletedTasksPager;
+import com.utp.wemake.repository.TaskChangeSet;
 import com.utp.wemake.repository.TaskRepository;
-import com.utp.wemake.services.ApiService;
-import com.utp.wemake.services.RetrofitClient;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Date;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Map;
 
 public class HomeViewModel extends AndroidViewModel {
 
     private final TaskRepository taskRepository;
     private final FirebaseAuth auth;
-    private final ApiService apiService;
+    private final AnalyticsRepository analyticsRepository;
     private final MemberRepository memberRepository;
 
     // --- Listeners para gestionar el ciclo de vida ---
@@ -49,12 +48,26 @@ public class HomeViewModel extends AndroidViewModel {
     private final MutableLiveData<Boolean> _isLoading = new MutableLiveData<>();
     private final MutableLiveData<String> _errorMessage = new MutableLiveData<>();
     private final Application application;
+    // Tareas del tablero por ID; se actualiza con los cambios que emite el repositorio
+    private final Map<String, TaskModel> tasksById = new LinkedHashMap<>();
+    // Completadas cargadas por páginas (el stream en vivo solo trae las activas)
+    private final Map<String, TaskModel> completedPages = new LinkedHashMap<>();
+    private CompletedTasksPager completedPager;
+    private final MutableLiveData<Boolean> _hasMoreCompleted = new MutableLiveData<>(false);
+    // Origen de los conteos mostrados: uno de menor rango no sobrescribe a uno mayor
+    private static final int SUMMARY_NONE = 0;
+    private static final int SUMMARY_LOCAL_TASKS = 1;
+    private static final int SUMMARY_API_CACHED = 2;
+    private static final int SUMMARY_API = 3;
+    private int summarySource = SUMMARY_NONE;
+    // Tablero y usuario del resumen pedido; las respuestas de otro se descartan
+    private String summaryKey;
     public HomeViewModel(@NonNull Application application) {
         super(application);
         this.application = application;
         this.taskRepository = new TaskRepository(application);
         this.auth = FirebaseAuth.getInstance();
-        this.apiService = RetrofitClient.getApiService();
+        this.analyticsRepository = new AnalyticsRepository(application);
         this.memberRepository = new MemberRepository();
     }
 
@@ -65,6 +78,7 @@ public class HomeViewModel extends AndroidViewModel {
     public LiveData<Integer> getExpiredTasks() { return _expiredTasks; }
     public LiveData<Integer> getTotalPoints() { return _totalPoints; }
     public LiveData<Boolean> getIsLoading() { return _isLoading; }
+    public LiveData<Boolean> getHasMoreCompleted() { return _hasMoreCompleted; }
     public LiveData<String> getErrorMessage() { return _errorMessage; }
 
     /**
@@ -82,14 +96,28 @@ public class HomeViewModel extends AndroidViewModel {
             return;
         }
 
+        tasksById.clear();
+        completedPages.clear();
+        completedPager = taskRepository.createCompletedTasksPager(
+                Collections.singletonList(boardId), currentUserId);
+        loadMoreCompletedTasks();
+        summarySource = SUMMARY_NONE;
+        String key = boardId + "/" + currentUserId;
+        if (!key.equals(summaryKey)) {
+            // El resumen del tablero anterior ya no se va a mostrar
+            analyticsRepository.cancelPendingRequests();
+        }
+        summaryKey = key;
+        loadCachedSummary(boardId, currentUserId);
         loadSummaryCardsData(boardId, currentUserId);
         listenToMemberPoints(boardId, currentUserId);
 
         taskRepository.listenToTasksForUserInBoard(boardId, currentUserId, new TaskRepository.OnTasksUpdatedListener() {
             @Override
-            public void onTasksUpdated(List<TaskModel> tasks) {
+            public void onTasksChanged(TaskChangeSet changes) {
                 _isLoading.setValue(false);
-                processTasks(tasks);
+                changes.applyTo(tasksById);
+                publishColumns();
             }
 
             @Override
@@ -101,49 +129,84 @@ public class HomeViewModel extends AndroidViewModel {
     }
 
     /**
-     * Llama al endpoint de FastAPI para obtener las métricas de las tarjetas.
+     * Pinta las tarjetas con los conteos de la copia local mientras responde la API.
+     */
+    private void loadCachedSummary(String boardId, String userId) {
+        String key = summaryKey;
+        taskRepository.loadCachedSummary(boardId, userId, (totalTasks, pendingTasks, overdueTasks) ->
+                showSummary(key, SUMMARY_LOCAL_TASKS, totalTasks, pendingTasks, overdueTasks));
+    }
+
+    /**
+     * Métricas de las tarjetas desde el endpoint de FastAPI: primero la última respuesta
+     * guardada y, si ya venció, la nueva.
      */
     private void loadSummaryCardsData(String boardId, String userId) {
-        apiService.getUserSummary(boardId, userId).enqueue(new Callback<UserSummaryResponse>() {
+        String key = summaryKey;
+        analyticsRepository.getUserSummary(boardId, userId, new AnalyticsRepository.OnResultListener<UserSummaryResponse>() {
             @Override
-            public void onResponse(Call<UserSummaryResponse> call, Response<UserSummaryResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    UserSummaryResponse summary = response.body();
-                    _totalTasks.setValue(summary.getTasksInvolved());
-                    int pendingCount = summary.getTasksInvolved() - summary.getTasksCompleted();
-                    _pendingTasks.setValue(pendingCount);
-                    _expiredTasks.setValue(summary.getOverdueTasks());
-                } else {
-                    _errorMessage.setValue("Error al cargar el resumen.");
-                }
+            public void onResult(UserSummaryResponse summary, boolean fromCache) {
+                int pendingCount = summary.getTasksInvolved() - summary.getTasksCompleted();
+                showSummary(key, fromCache ? SUMMARY_API_CACHED : SUMMARY_API,
+                        summary.getTasksInvolved(), pendingCount, summary.getOverdueTasks());
             }
+
             @Override
-            public void onFailure(Call<UserSummaryResponse> call, Throwable t) {
-                _errorMessage.setValue("Error de red: " + t.getMessage());
+            public void onError(String message) {
+                if (!key.equals(summaryKey)) return;
+                _errorMessage.setValue("Error al cargar el resumen. " + message);
             }
         });
     }
 
+    private void showSummary(String key, int source, int totalTasks, int pendingTasks, int overdueTasks) {
+        if (!key.equals(summaryKey) || source < summarySource) return;
+        summarySource = source;
+        _totalTasks.setValue(totalTasks);
+        _pendingTasks.setValue(pendingTasks);
+        _expiredTasks.setValue(overdueTasks);
+    }
+
     /**
      * Escucha en tiempo real los puntos del miembro actual.
      */
     private void listenToMemberPoints(String boardId, String userId) {
-        memberListener = memberRepository.listenToMemberDetails(boardId, userId, (snapshot, e) -> {
+        memberListener = memberRepository.listenToMemberDetails(boardId, userId, (member, e) -> {
             if (e != null) {
                 _errorMessage.setValue("Error al cargar puntos.");
                 return;
             }
-            if (snapshot != null && snapshot.exists()) {
-                Member member = snapshot.toObject(Member.class);
-                if (member != null) {
-                    _totalPoints.setValue(member.getPoints());
-                }
-            } else {
-                _totalPoints.setValue(0);
-            }
+            _totalPoints.setValue(member != null ? member.getPoints() : 0);
         });
     }
 
+    /**
+     * Carga la siguiente página de tareas completadas (al llegar al final de su columna).
+     */
+    public void loadMoreCompletedTasks() {
+        CompletedTasksPager pager = completedPager;
+        if (pager == null || pager.isLoading() || !pager.hasMore()) return;
+        pager.loadNextPage()
+                .addOnSuccessListener(page -> {
+                    if (pager != completedPager) return; // Cambió el tablero mientras tanto
+                    for (TaskModel task : page) {
+                        completedPages.put(task.getId(), task);
+                    }
+                    _hasMoreCompleted.setValue(pager.hasMore());
+                    publishColumns();
+                })
+                .addOnFailureListener(e -> _errorMessage.setValue("Error al cargar tareas completadas: " + e.getMessage()));
+    }
+
+    /**
+     * Junta las páginas de completadas con el stream en vivo (que manda si una tarea está en ambos).
+     */
+    private void publishColumns() {
+        Map<String, TaskModel> merged = new LinkedHashMap<>(completedPages);
+        merged.putAll(tasksById);
+        processTasks(new ArrayList<>(merged.values()));
+    }
+
     /**
      * Procesa las tareas y las organiza en columnas.
      */
@@ -176,7 +239,14 @@ public class HomeViewModel extends AndroidViewModel {
         KanbanColumn pendingColumn = new KanbanColumn("Pendiente", pending);
         KanbanColumn inProgressColumn = new KanbanColumn("En Progreso", inProgress);
         KanbanColumn inReviewColumn = new KanbanColumn("En Revisión", inReview);
-        KanbanColumn completedColumn = new KanbanColumn("Completado", completed);
+        // Las más recientes primero, en el mismo orden en que se paginan
+        completed.sort((a, b) -> {
+            if (a.getCompletedAt() == null) return b.getCompletedAt() == null ? 0 : 1;
+            if (b.getCompletedAt() == null) return -1;
+            return b.getCompletedAt().compareTo(a.getCompletedAt());
+        });
+        KanbanColumn completedColumn = new KanbanColumn("Completado", completed,
+                Boolean.TRUE.equals(_hasMoreCompleted.getValue()));
 
         List<KanbanColumn> allColumns = new ArrayList<>();
         allColumns.add(pendingColumn);
@@ -185,7 +255,7 @@ public class HomeViewModel extends AndroidViewModel {
         allColumns.add(completedColumn);
 
         _kanbanColumns.setValue(allColumns);
-        _totalTasks.setValue(tasks.size());
+        // El total incluye completadas que no están cargadas: lo dan Room y la API
         _pendingTasks.setValue(pending.size() + inProgress.size() + inReview.size());
     }
 
@@ -245,5 +315,6 @@ public class HomeViewModel extends AndroidViewModel {
     protected void onCleared() {
         super.onCleared();
         detachAllListeners();
+        analyticsRepository.cancelPendingRequests();
     }
 }
\ No newline at end of file
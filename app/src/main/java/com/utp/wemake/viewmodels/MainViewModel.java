@@ -15,6 +15,7 @@ import com.google.firebase.firestore.Query;
 import com.utp.wemake.models.Board;
 import com.utp.wemake.models.User;
 import com.utp.wemake.repository.BoardRepository;
+import com.utp.wemake.repository.SharedListenerRegistry;
 import com.utp.wemake.utils.BoardSelectionPrefs;
 import com.utp.wemake.repository.UserRepository;
 import com.utp.wemake.utils.Event;
@@ -98,7 +99,7 @@ public class MainViewModel extends AndroidViewModel {
         if (boardsQuery == null) return;
 
         // Crear listener en tiempo real
-        boardsListener = boardsQuery.addSnapshotListener((querySnapshot, e) -> {
+        boardsListener = SharedListenerRegistry.getInstance().listen(boardsQuery, (querySnapshot, e) -> {
             if (e != null) {
                 Log.e("MainViewModel", "Error listening to boards", e);
                 return;
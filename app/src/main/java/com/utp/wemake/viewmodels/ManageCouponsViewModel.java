@@ -34,17 +34,14 @@ public class ManageCouponsViewModel extends ViewModel {
             couponsListener.remove(); // Cancela cualquier escucha anterior
         }
 
-        couponsListener = boardRepository.listenToCouponsForBoard(currentBoardId, (querySnapshot, e) -> {
+        couponsListener = boardRepository.listenToCouponsForBoard(currentBoardId, (couponList, e) -> {
             if (e != null) {
                 error.setValue("Error al escuchar los cupones.");
                 return;
             }
 
-            if (querySnapshot != null) {
-                // Convierte el resultado a una lista de objetos Coupon y la publica
-                List<Coupon> couponList = querySnapshot.toObjects(Coupon.class);
-                coupons.setValue(couponList);
-            }
+            // La lista ya llega convertida a objetos Coupon
+            coupons.setValue(couponList);
         });
     }
 
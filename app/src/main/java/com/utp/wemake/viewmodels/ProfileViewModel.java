@@ -1,17 +1,25 @@
 package com.utp.wemake.viewmodels;
 
+import android.app.Application;
 import android.net.Uri;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.Observer;
+import androidx.work.WorkInfo;
 import com.google.firebase.auth.FirebaseAuth;
 import com.utp.wemake.models.Member; // Importar el modelo Member
 import com.utp.wemake.models.User;
 import com.utp.wemake.repository.BoardRepository; // Importar BoardRepository
 import com.utp.wemake.repository.ImageRepository;
 import com.utp.wemake.repository.UserRepository;
+import com.utp.wemake.utils.NetworkUtils;
+import com.utp.wemake.workers.ImageUploadWorker;
+import java.util.List;
+import java.util.UUID;
 
-public class ProfileViewModel extends ViewModel {
+public class ProfileViewModel extends AndroidViewModel {
 
     private final UserRepository userRepository = new UserRepository();
     private final ImageRepository imageRepository = new ImageRepository();
@@ -28,15 +36,26 @@ public class ProfileViewModel extends ViewModel {
     // LiveData existentes
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
-
-    public ProfileViewModel() {
-        // La carga de 'loadUserData' se elimina de aquí.
+    // Porcentaje subido de la foto de perfil; null mientras no se conoce
+    private final MutableLiveData<Integer> uploadProgress = new MutableLiveData<>();
+
+    private final LiveData<List<WorkInfo>> profilePictureUploads;
+    private final Observer<List<WorkInfo>> uploadObserver = this::onUploadStateChanged;
+    // Subida lanzada desde esta pantalla: solo de ella se avisa el resultado
+    private UUID pendingUploadId;
+    private boolean waitingForNetworkNotified;
+
+    public ProfileViewModel(@NonNull Application application) {
+        super(application);
+        profilePictureUploads = imageRepository.getProfilePictureUploads(application);
+        profilePictureUploads.observeForever(uploadObserver);
     }
 
     // --- Getters para que la Vista los observe ---
     public LiveData<Member> getMemberDetails() { return memberDetails; }
     public LiveData<Boolean> getIsLoading() { return isLoading; }
     public LiveData<String> getErrorMessage() { return errorMessage; }
+    public LiveData<Integer> getUploadProgress() { return uploadProgress; }
 
     /**
      * Carga los detalles específicos del miembro (rol, puntos) para un tablero dado.
@@ -65,42 +84,70 @@ public class ProfileViewModel extends ViewModel {
 
     /**
      * Inicia el proceso de actualización de la foto de perfil.
+     * La subida queda en cola (WorkManager) y termina aunque se salga de la pantalla.
      */
     public void updateUserProfilePicture(Uri imageUri, User currentUser) {
-        if (currentUser == null) {
+        String userId = auth.getUid();
+        if (currentUser == null || userId == null) {
             errorMessage.setValue("Error: no se pueden guardar los cambios sin datos de usuario.");
             return;
         }
         isLoading.setValue(true);
-
-        imageRepository.uploadImage(imageUri, new ImageRepository.UploadCallbackListener() {
-            @Override
-            public void onSuccess(String imageUrl) {
-                updatePhotoUrlInFirestore(imageUrl, currentUser);
-            }
-
-            @Override
-            public void onError(String error) {
-                isLoading.setValue(false);
-                errorMessage.setValue("Error al subir la imagen: " + error);
-            }
-        });
+        uploadProgress.setValue(null);
+        waitingForNetworkNotified = false;
+        pendingUploadId = imageRepository.uploadProfilePicture(getApplication(), imageUri, userId);
     }
 
     /**
-     * Guarda la nueva URL de la imagen en el documento del usuario en Firestore.
+     * Sigue la subida en cola: avance mientras corre, aviso si queda esperando red
+     * y la nueva URL cuando termina (el worker ya la guardó en Firestore).
      */
-    private void updatePhotoUrlInFirestore(String newPhotoUrl, User userToUpdate) {
-        userToUpdate.setPhotoUrl(newPhotoUrl);
-
-        userRepository.updateProfileData(userToUpdate).addOnCompleteListener(task -> {
-            isLoading.setValue(false);
-            if (task.isSuccessful()) {
-                _profilePictureUrlUpdated.setValue(newPhotoUrl);
-            } else {
-                errorMessage.setValue("Error al guardar la nueva foto en el perfil.");
-            }
-        });
+    private void onUploadStateChanged(List<WorkInfo> uploads) {
+        if (pendingUploadId == null || uploads == null) return;
+        WorkInfo upload = null;
+        for (WorkInfo info : uploads) {
+            if (info.getId().equals(pendingUploadId)) upload = info;
+        }
+        if (upload == null) return;
+
+        switch (upload.getState()) {
+            case RUNNING:
+                isLoading.setValue(true);
+                int progress = upload.getProgress().getInt(ImageUploadWorker.KEY_PROGRESS, -1);
+                uploadProgress.setValue(progress >= 0 ? progress : null);
+                break;
+            case ENQUEUED:
+                // Sin red, o esperando a reintentar: la subida sigue en segundo plano
+                if (upload.getRunAttemptCount() > 0 || !NetworkUtils.isOnline(getApplication())) {
+                    isLoading.setValue(false);
+                    uploadProgress.setValue(null);
+                    if (!waitingForNetworkNotified) {
+                        waitingForNetworkNotified = true;
+                        errorMessage.setValue("La foto se subirá en cuanto haya conexión.");
+                    }
+                }
+                break;
+            case SUCCEEDED:
+                pendingUploadId = null;
+                isLoading.setValue(false);
+                uploadProgress.setValue(null);
+                _profilePictureUrlUpdated.setValue(upload.getOutputData().getString(ImageUploadWorker.KEY_IMAGE_URL));
+                break;
+            case FAILED:
+                pendingUploadId = null;
+                isLoading.setValue(false);
+                uploadProgress.setValue(null);
+                errorMessage.setValue("Error al subir la imagen.");
+                break;
+            case CANCELLED:
+                pendingUploadId = null;
+                isLoading.setValue(false);
+                uploadProgress.setValue(null);
+                break;
+            default:
+                // BLOCKED: todavía se está preparando la imagen
+                break;
+        }
     }
 
     /**
@@ -116,6 +163,9 @@ public class ProfileViewModel extends ViewModel {
         });
     }
 
-
-
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        profilePictureUploads.removeObserver(uploadObserver);
+    }
 }
\ No newline at end of file
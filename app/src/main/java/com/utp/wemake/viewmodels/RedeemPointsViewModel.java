@@ -42,39 +42,31 @@ public class RedeemPointsViewModel extends ViewModel {
         isLoading.setValue(true);
         removeListeners();
 
-        couponsListener = boardRepository.listenToCouponsForBoard(boardId, (snapshot, e) -> {
+        couponsListener = boardRepository.listenToCouponsForBoard(boardId, (coupons, e) -> {
             if (e != null) {
                 error.setValue("Error al cargar las recompensas.");
                 isLoading.setValue(false); // Detiene la carga si hay error aquí
                 return;
             }
-            if (snapshot != null) {
-                availableCoupons.setValue(snapshot.toObjects(Coupon.class));
-            }
+            availableCoupons.setValue(coupons);
         });
 
-        memberDetailsListener = boardRepository.listenToMemberDetails(boardId, userId, (snapshot, e) -> {
+        memberDetailsListener = boardRepository.listenToMemberDetails(boardId, userId, (member, e) -> {
             isLoading.setValue(false); // La carga inicial termina cuando llegan los datos del usuario
             if (e != null) {
                 error.setValue("Error al cargar tus puntos.");
                 memberDetails.setValue(null);
                 return;
             }
-            if (snapshot != null && snapshot.exists()) {
-                memberDetails.setValue(snapshot.toObject(Member.class));
-            } else {
-                memberDetails.setValue(null); // El usuario ya no es miembro
-            }
+            memberDetails.setValue(member); // null si el usuario ya no es miembro
         });
 
-        redeemedCouponsListener = boardRepository.listenToRedeemedCoupons(boardId, userId, (snapshot, e) -> {
+        redeemedCouponsListener = boardRepository.listenToRedeemedCoupons(boardId, userId, (requests, e) -> {
             if (e != null) {
                 error.setValue("Error al cargar tus recompensas canjeadas.");
                 return;
             }
-            if (snapshot != null) {
-                redeemedCoupons.setValue(snapshot.toObjects(RedemptionRequest.class));
-            }
+            redeemedCoupons.setValue(requests);
         });
     }
 
@@ -7,6 +7,8 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.google.firebase.auth.FirebaseAuth;
@@ -14,20 +16,52 @@ import com.utp.wemake.constants.TaskConstants;
 import com.utp.wemake.models.Board;
 import com.utp.wemake.models.TaskModel;
 import com.utp.wemake.repository.BoardRepository;
+import com.utp.wemake.repository.CompletedTasksPager;
+import com.utp.wemake.repository.TaskChangeSet;
 import com.utp.wemake.repository.TaskRepository;
+import com.utp.wemake.utils.TaskFilterIndex;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TasksViewModel extends AndroidViewModel {
+    // Espera desde la última tecla antes de buscar y volver a filtrar
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
     private final TaskRepository taskRepository;
     private final BoardRepository boardRepository;
     private final FirebaseAuth auth;
 
     // LiveData para todas las tareas
     private final MutableLiveData<List<TaskModel>> _allTasks = new MutableLiveData<>(new ArrayList<>());
+    // Tareas por ID; se actualiza con los cambios que emite el repositorio
+    private final Map<String, TaskModel> tasksById = new LinkedHashMap<>();
+    // Completadas cargadas por páginas (el stream en vivo solo trae las activas)
+    private final Map<String, TaskModel> completedPages = new LinkedHashMap<>();
+    private CompletedTasksPager completedPager;
+    // Timeline: completadas guardadas en Room, de cualquier fecha; solo se cargan si se pide
+    private final MutableLiveData<List<TaskModel>> _timelineTasks = new MutableLiveData<>(new ArrayList<>());
+    private final Map<String, TaskModel> storedCompleted = new LinkedHashMap<>();
+    private boolean timelineRequested = false;
+
+    // Filtrado en segundo plano: un solo hilo, así el índice no necesita sincronización
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable pendingFilter = this::startFiltering;
+    private final Runnable pendingSearch = this::runSearch;
+    // Cada petición de filtrado incrementa la generación; solo se publica la más reciente
+    private final AtomicInteger filterGeneration = new AtomicInteger();
+    private Future<?> filterInFlight;
+    // Índice de filtros y la lista con la que se construyó; solo se usan en filterExecutor
+    private TaskFilterIndex filterIndex = TaskFilterIndex.empty();
+    private List<TaskModel> indexedTasks;
     // LiveData para tareas filtradas
     private final MutableLiveData<List<TaskModel>> _filteredTasks = new MutableLiveData<>(new ArrayList<>());
     // LiveData para tableros del usuario
@@ -45,6 +79,8 @@ public class TasksViewModel extends AndroidViewModel {
     private String selectedPriority = null;
     private String selectedAssignee = null;
     private String selectedDueFilter = null;
+    // Resultado de la búsqueda FTS: taskId -> posición en el ranking (null si no hay búsqueda)
+    private Map<String, Integer> searchRanking = null;
 
     public TasksViewModel(@NonNull Application application)
     {
@@ -56,12 +92,22 @@ public class TasksViewModel extends AndroidViewModel {
 
     // Getters
     public LiveData<List<TaskModel>> getAllTasks() { return _allTasks; }
+    public LiveData<List<TaskModel>> getTimelineTasks() { return _timelineTasks; }
     public LiveData<List<TaskModel>> getFilteredTasks() { return _filteredTasks; }
     public LiveData<List<Board>> getUserBoards() { return _userBoards; }
     public LiveData<Boolean> getIsLoading() { return _isLoading; }
     public LiveData<String> getErrorMessage() { return _errorMessage; }
     public LiveData<String> getSelectedStatus() { return _selectedStatus; }
 
+    /**
+     * Como loadAllUserTasks, pero además trae las completadas de cualquier fecha desde Room
+     * (y refresca Room antes), para el timeline. Se publican en getTimelineTasks().
+     */
+    public void loadTimelineTasks() {
+        timelineRequested = true;
+        loadAllUserTasks();
+    }
+
     /**
      * Inicia la carga de todas las tareas de todos los tableros del usuario.
      */
@@ -82,20 +128,33 @@ public class TasksViewModel extends AndroidViewModel {
 
                 if (boards.isEmpty()) {
                     _allTasks.setValue(new ArrayList<>());
-                    _filteredTasks.setValue(new ArrayList<>());
+                    _timelineTasks.setValue(new ArrayList<>());
+                    applyFilters();
                     _isLoading.setValue(false);
                     return;
                 }
 
-                // Cargar tareas de todos los tableros (en tiempo real)
                 List<String> boardIds = boards.stream().map(Board::getId).collect(java.util.stream.Collectors.toList());
+                // Cargar tareas de todos los tableros (en tiempo real)
+                tasksById.clear();
+                completedPages.clear();
+                storedCompleted.clear();
+                completedPager = taskRepository.createCompletedTasksPager(boardIds, currentUserId);
+                loadMoreCompletedTasks();
+                if (timelineRequested) {
+                    loadStoredCompletedTasks(boardIds, currentUserId);
+                }
                 taskRepository.listenToTasksForUserInBoards(boardIds, currentUserId, new TaskRepository.OnTasksUpdatedListener() {
                     private boolean firstEmissionHandled = false;
 
                     @Override
-                    public void onTasksUpdated(List<TaskModel> tasks) {
-                        _allTasks.setValue(tasks != null ? tasks : new ArrayList<>());
+                    public void onTasksChanged(TaskChangeSet changes) {
+                        changes.applyTo(tasksById);
+                        publishAllTasks();
                         applyFilters();
+                        if (!searchQuery.isEmpty()) {
+                            runSearch(); // El índice local ya incluye los cambios de este snapshot
+                        }
                         if (!firstEmissionHandled) {
                             _isLoading.setValue(false);
                             firstEmissionHandled = true;
@@ -116,6 +175,57 @@ public class TasksViewModel extends AndroidViewModel {
         });
     }
 
+    /**
+     * Carga la siguiente página de tareas completadas (al llegar al final de la lista).
+     */
+    public void loadMoreCompletedTasks() {
+        CompletedTasksPager pager = completedPager;
+        if (pager == null || pager.isLoading() || !pager.hasMore()) return;
+        pager.loadNextPage()
+                .addOnSuccessListener(page -> {
+                    if (pager != completedPager) return; // Se recargó mientras tanto
+                    for (TaskModel task : page) {
+                        completedPages.put(task.getId(), task);
+                    }
+                    publishAllTasks();
+                    applyFilters();
+                })
+                .addOnFailureListener(e -> _errorMessage.setValue("Error al cargar tareas completadas: " + e.getMessage()));
+    }
+
+    /**
+     * Completadas de Room para el timeline: primero lo guardado y, tras refrescar Room
+     * (la primera vez trae el historial completo del tablero), otra vez.
+     */
+    private void loadStoredCompletedTasks(List<String> boardIds, String userId) {
+        CompletedTasksPager pager = completedPager;
+        TaskRepository.OnCachedTasksListener onLoaded = tasks -> {
+            if (pager != completedPager) return; // Se recargó mientras tanto
+            storedCompleted.clear();
+            for (TaskModel task : tasks) {
+                storedCompleted.put(task.getId(), task);
+            }
+            publishAllTasks();
+        };
+        taskRepository.loadCachedCompletedTasks(boardIds, userId, onLoaded);
+        taskRepository.refreshCachedTasks(boardIds, userId)
+                .addOnSuccessListener(ignored -> taskRepository.loadCachedCompletedTasks(boardIds, userId, onLoaded));
+    }
+
+    /**
+     * Publica el stream en vivo junto con las completadas paginadas (el stream manda si está en ambos).
+     */
+    private void publishAllTasks() {
+        Map<String, TaskModel> merged = new LinkedHashMap<>(completedPages);
+        merged.putAll(tasksById);
+        _allTasks.setValue(new ArrayList<>(merged.values()));
+        if (timelineRequested) {
+            Map<String, TaskModel> timeline = new LinkedHashMap<>(storedCompleted);
+            timeline.putAll(merged);
+            _timelineTasks.setValue(new ArrayList<>(timeline.values()));
+        }
+    }
+
     /**
      * Actualiza el estado seleccionado del tab.
      */
@@ -128,8 +238,31 @@ public class TasksViewModel extends AndroidViewModel {
      * Actualiza la búsqueda y aplica filtros.
      */
     public void setSearchQuery(String query) {
-        this.searchQuery = query != null ? query.toLowerCase() : "";
-        applyFilters();
+        this.searchQuery = query != null ? query.trim() : "";
+        mainHandler.removeCallbacks(pendingSearch);
+        if (searchQuery.isEmpty()) {
+            searchRanking = null;
+            applyFilters();
+        } else {
+            // Mientras se escribe no se busca ni se filtra; solo tras una pausa
+            mainHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+        }
+    }
+
+    /**
+     * Consulta el índice de texto completo en segundo plano y vuelve a filtrar con el resultado.
+     * Las respuestas de búsquedas anteriores a la actual se descartan.
+     */
+    private void runSearch() {
+        taskRepository.searchTasks(searchQuery, (query, rankedTaskIds) -> {
+            if (!query.equals(searchQuery)) return;
+            Map<String, Integer> ranking = new HashMap<>(rankedTaskIds.size());
+            for (int i = 0; i < rankedTaskIds.size(); i++) {
+                ranking.put(rankedTaskIds.get(i), i);
+            }
+            searchRanking = ranking;
+            applyFilters();
+        });
     }
 
     /**
@@ -168,7 +301,9 @@ public class TasksViewModel extends AndroidViewModel {
      * Limpia todos los filtros.
      */
     public void clearFilters() {
+        mainHandler.removeCallbacks(pendingSearch);
         searchQuery = "";
+        searchRanking = null;
         selectedBoardIds.clear();
         selectedPriority = null;
         selectedAssignee = null;
@@ -177,107 +312,57 @@ public class TasksViewModel extends AndroidViewModel {
     }
 
     /**
-     * Aplica todos los filtros a las tareas.
+     * Pide recalcular las tareas filtradas. Varias peticiones seguidas en el hilo principal
+     * se juntan en un solo cálculo, que se hace en segundo plano.
      */
     private void applyFilters() {
-        List<TaskModel> tasks = _allTasks.getValue();
-        if (tasks == null) {
-            tasks = new ArrayList<>();
-        }
-
-        List<TaskModel> filtered = tasks.stream()
-                .filter(task -> {
-                    // Filtro por estado (tab)
-                    String selectedStatus = _selectedStatus.getValue();
-                    if (selectedStatus != null && !selectedStatus.equals(task.getStatus())) {
-                        return false;
-                    }
-
-                    // Filtro de búsqueda
-                    if (!searchQuery.isEmpty()) {
-                        boolean matchesTitle = task.getTitle() != null &&
-                                task.getTitle().toLowerCase().contains(searchQuery);
-                        boolean matchesDescription = task.getDescription() != null &&
-                                task.getDescription().toLowerCase().contains(searchQuery);
-                        if (!matchesTitle && !matchesDescription) {
-                            return false;
-                        }
-                    }
-
-                    // Filtro por tablero
-                    if (!selectedBoardIds.isEmpty() &&
-                            (task.getBoardId() == null || !selectedBoardIds.contains(task.getBoardId()))) {
-                        return false;
-                    }
-
-                    // Filtro por prioridad
-                    if (selectedPriority != null && !selectedPriority.equals(task.getPriority())) {
-                        return false;
-                    }
-
-                    // Filtro por asignado
-                    if (selectedAssignee != null) {
-                        if (selectedAssignee.equals("me")) {
-                            String currentUserId = auth.getCurrentUser() != null ?
-                                    auth.getCurrentUser().getUid() : null;
-                            if (currentUserId == null ||
-                                    task.getAssignedMembers() == null ||
-                                    !task.getAssignedMembers().contains(currentUserId)) {
-                                return false;
-                            }
-                        } else if (selectedAssignee.equals("unassigned")) {
-                            // Filtrar tareas sin asignar
-                            if (task.getAssignedMembers() != null && !task.getAssignedMembers().isEmpty()) {
-                                return false;
-                            }
-                        } else if (task.getAssignedMembers() == null ||
-                                !task.getAssignedMembers().contains(selectedAssignee)) {
-                            return false;
-                        }
-                    }
-
-                    // Filtro por fecha de vencimiento
-                    if (selectedDueFilter != null) {
-                        Date now = new Date();
-                        Date taskDeadline = task.getDeadline();
-                        if (taskDeadline == null) return false;
-
-                        switch (selectedDueFilter) {
-                            case "overdue":
-                                if (!taskDeadline.before(now)) return false;
-                                break;
-                            case "today":
-                                // Comparar solo fecha, no hora
-                                if (!isSameDay(taskDeadline, now)) return false;
-                                break;
-                            case "tomorrow":
-                                Date tomorrow = new Date(now.getTime() + 24 * 60 * 60 * 1000);
-                                if (!isSameDay(taskDeadline, tomorrow)) return false;
-                                break;
-                            case "this_week":
-                                Date weekFromNow = new Date(now.getTime() + 7 * 24 * 60 * 60 * 1000);
-                                if (taskDeadline.after(weekFromNow)) return false;
-                                break;
-                        }
-                    }
-
-                    return true;
-                })
-                .collect(Collectors.toList());
-
-        _filteredTasks.setValue(filtered);
+        filterGeneration.incrementAndGet();
+        mainHandler.removeCallbacks(pendingFilter);
+        mainHandler.post(pendingFilter);
     }
 
     /**
-     * Verifica si dos fechas son del mismo día.
+     * Toma una copia de los filtros y lanza el cálculo; el que estuviera en curso queda descartado.
      */
-    private boolean isSameDay(Date date1, Date date2) {
-        java.util.Calendar cal1 = java.util.Calendar.getInstance();
-        java.util.Calendar cal2 = java.util.Calendar.getInstance();
-        cal1.setTime(date1);
-        cal2.setTime(date2);
-        return cal1.get(java.util.Calendar.YEAR) == cal2.get(java.util.Calendar.YEAR) &&
-                cal1.get(java.util.Calendar.DAY_OF_YEAR) == cal2.get(java.util.Calendar.DAY_OF_YEAR);
+    private void startFiltering() {
+        TaskFilterIndex.Query query = new TaskFilterIndex.Query();
+        query.status = _selectedStatus.getValue();
+        query.boardIds = new ArrayList<>(selectedBoardIds);
+        query.priority = selectedPriority;
+        query.dueFilter = selectedDueFilter;
+        query.matchingIds = searchRanking != null ? searchRanking.keySet() : null;
+        // "me" se resuelve una vez por filtrado, no por tarea
+        String currentUserId = getCurrentUserId();
+        boolean matchesNothing = "me".equals(selectedAssignee) && currentUserId == null;
+        query.assignee = "me".equals(selectedAssignee) ? currentUserId : selectedAssignee;
+
+        List<TaskModel> tasks = _allTasks.getValue() != null ? _allTasks.getValue() : new ArrayList<>();
+        Map<String, Integer> ranking = searchRanking;
+        int generation = filterGeneration.incrementAndGet();
+
+        if (filterInFlight != null) filterInFlight.cancel(false);
+        filterInFlight = filterExecutor.submit(() -> {
+            if (generation != filterGeneration.get()) return;
+            if (tasks != indexedTasks) {
+                filterIndex = new TaskFilterIndex(tasks);
+                indexedTasks = tasks;
+            }
+            if (generation != filterGeneration.get()) return;
+
+            List<TaskModel> filtered = matchesNothing
+                    ? new ArrayList<>()
+                    : filterIndex.filter(query, System.currentTimeMillis());
+            // Con búsqueda activa, los resultados más relevantes primero
+            if (ranking != null) {
+                filtered.sort((a, b) -> Integer.compare(ranking.get(a.getId()), ranking.get(b.getId())));
+            }
+
+            mainHandler.post(() -> {
+                if (generation == filterGeneration.get()) {
+                    _filteredTasks.setValue(filtered);
+                }
+            });
+        });
     }
 
     /**
@@ -365,6 +450,10 @@ public class TasksViewModel extends AndroidViewModel {
     protected void onCleared() {
         super.onCleared();
         taskRepository.detachListeners();
+        filterGeneration.incrementAndGet();
+        mainHandler.removeCallbacks(pendingFilter);
+        mainHandler.removeCallbacks(pendingSearch);
+        filterExecutor.shutdownNow();
         Log.d("TasksViewModel", "Listeners detenidos");
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.utp.wemake.workers;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.utp.wemake.utils.ImageDownscaler;
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Primer paso de la subida de una foto: copia reducida a WebP en el almacenamiento de la app.
+ * Corre sin restricciones, en cuanto se encola, porque el permiso de lectura sobre la Uri
+ * elegida por el usuario no sobrevive a la app; la subida (ImageUploadWorker) ya trabaja
+ * sobre el archivo local y puede esperar a tener red.
+ */
+public class ImagePrepareWorker extends Worker {
+
+    public static final String KEY_SOURCE_URI = "source_uri";
+    // Carpeta de archivos listos para subir; solo hay una subida en cola a la vez
+    private static final String PENDING_UPLOADS_DIR = "pending_uploads";
+
+    public ImagePrepareWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String source = getInputData().getString(KEY_SOURCE_URI);
+        if (source == null) {
+            return Result.failure();
+        }
+
+        File dir = new File(getApplicationContext().getFilesDir(), PENDING_UPLOADS_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return Result.failure();
+        }
+        // Lo que quede de una subida reemplazada ya no lo va a subir nadie
+        File[] leftovers = dir.listFiles();
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                leftover.delete();
+            }
+        }
+
+        File prepared = new File(dir, UUID.randomUUID() + ".webp");
+        try {
+            ImageDownscaler.downscaleToWebp(getApplicationContext().getContentResolver(), Uri.parse(source), prepared);
+        } catch (IOException | SecurityException e) {
+            prepared.delete();
+            return Result.failure();
+        }
+
+        return Result.success(new Data.Builder()
+                .putString(ImageUploadWorker.KEY_FILE_PATH, prepared.getAbsolutePath())
+                .build());
+    }
+}
@@ -0,0 +1,150 @@
+package com.utp.wemake.workers;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.cloudinary.android.MediaManager;
+import com.cloudinary.utils.ObjectUtils;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sube a Cloudinary la foto que dejó preparada ImagePrepareWorker y guarda la URL en el
+ * perfil del usuario. Solo corre con red; si la subida falla o se corta, WorkManager la
+ * reintenta con espera exponencial, también tras cerrar la app o reiniciar el teléfono.
+ * Publica el avance (0-100) en KEY_PROGRESS.
+ */
+public class ImageUploadWorker extends Worker {
+
+    public static final String UNIQUE_PROFILE_PICTURE_WORK_NAME = "upload_profile_picture";
+    public static final String TAG_PROFILE_PICTURE = "profile_picture_upload";
+
+    public static final String KEY_FILE_PATH = "file_path";
+    public static final String KEY_USER_ID = "user_id";
+    public static final String KEY_IMAGE_URL = "image_url";
+    public static final String KEY_PROGRESS = "progress";
+
+    private static final String UPLOAD_PRESET = "android_profile_pics";
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BACKOFF_SECONDS = 30;
+
+    public ImageUploadWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    /**
+     * Encola la nueva foto de perfil: preparación inmediata y subida en cuanto haya red.
+     * Una foto nueva reemplaza a la que estuviera aún en cola.
+     * @return El id de la subida, para seguir su avance y resultado.
+     */
+    public static UUID enqueueProfilePicture(Context context, Uri source, String userId) {
+        OneTimeWorkRequest prepareRequest = new OneTimeWorkRequest.Builder(ImagePrepareWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString(ImagePrepareWorker.KEY_SOURCE_URI, source.toString())
+                        .build())
+                .addTag(TAG_PROFILE_PICTURE)
+                .build();
+
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest uploadRequest = new OneTimeWorkRequest.Builder(ImageUploadWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                // La ruta del archivo la añade la salida de ImagePrepareWorker
+                .setInputData(new Data.Builder().putString(KEY_USER_ID, userId).build())
+                .addTag(TAG_PROFILE_PICTURE)
+                .build();
+
+        WorkManager.getInstance(context)
+                .beginUniqueWork(UNIQUE_PROFILE_PICTURE_WORK_NAME, ExistingWorkPolicy.REPLACE, prepareRequest)
+                .then(uploadRequest)
+                .enqueue();
+        return uploadRequest.getId();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String path = getInputData().getString(KEY_FILE_PATH);
+        String userId = getInputData().getString(KEY_USER_ID);
+        if (path == null || userId == null || !new File(path).exists()) {
+            return Result.failure();
+        }
+        File file = new File(path);
+        if (!userId.equals(FirebaseAuth.getInstance().getUid())) {
+            // Se cerró la sesión antes de poder subirla
+            file.delete();
+            return Result.failure();
+        }
+
+        try {
+            String imageUrl = upload(file);
+            Tasks.await(FirebaseFirestore.getInstance()
+                    .collection("users").document(userId)
+                    .update("photoUrl", imageUrl));
+            file.delete();
+            return Result.success(new Data.Builder().putString(KEY_IMAGE_URL, imageUrl).build());
+        } catch (IOException | ExecutionException e) {
+            return retryOrGiveUp(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Sube el archivo en este mismo hilo, sin pasar por el planificador de MediaManager:
+     * los reintentos y la espera por red los decide solo WorkManager. Si WorkManager detiene
+     * el trabajo (sin red o reemplazado por otra foto) la subida se corta en el siguiente bloque.
+     */
+    private String upload(File file) throws IOException {
+        setProgressAsync(progress(0));
+        Map<?, ?> result;
+        try {
+            result = MediaManager.get().getCloudinary().uploader().unsignedUpload(file, UPLOAD_PRESET,
+                    ObjectUtils.emptyMap(), (bytesUploaded, totalBytes) -> {
+                        if (isStopped()) throw new IllegalStateException("Subida detenida");
+                        if (totalBytes > 0) {
+                            setProgressAsync(progress((int) (bytesUploaded * 100 / totalBytes)));
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // Cloudinary informa así los errores de la API; se reintentan como los de red
+            throw new IOException(e.getMessage(), e);
+        }
+        Object imageUrl = result != null ? result.get("secure_url") : null;
+        if (!(imageUrl instanceof String)) {
+            throw new IOException("Cloudinary no devolvió la URL de la imagen");
+        }
+        return (String) imageUrl;
+    }
+
+    private Result retryOrGiveUp(File file) {
+        if (getRunAttemptCount() + 1 >= MAX_ATTEMPTS) {
+            file.delete();
+            return Result.failure();
+        }
+        return Result.retry();
+    }
+
+    private static Data progress(int percent) {
+        return new Data.Builder().putInt(KEY_PROGRESS, percent).build();
+    }
+}
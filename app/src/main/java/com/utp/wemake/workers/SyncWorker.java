@@ -1,53 +1,250 @@
 package com.utp.wemake.workers;
 
 import android.content.Context;
+import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 import com.google.android.gms.tasks.Tasks;
 import com.utp.wemake.db.AppDatabase;
+import com.utp.wemake.db.MutationDao;
+import com.utp.wemake.db.MutationValueCodec;
+import com.utp.wemake.db.PendingMutation;
 import com.utp.wemake.db.TaskDao;
+import com.utp.wemake.db.TaskWithSubtasks;
 import com.utp.wemake.models.TaskModel;
+import com.utp.wemake.repository.MutationOutbox;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 public class SyncWorker extends Worker {
 
+    public static final String UNIQUE_SYNC_WORK_NAME = "sync_tasks_to_firebase";
+    private static final String TAG = "SyncWorker";
+
+    // Límite de escrituras por WriteBatch en Firestore
+    private static final int MAX_WRITES_PER_BATCH = 500;
+
     private final TaskDao taskDao;
+    private final MutationDao mutationDao;
     private final FirebaseFirestore firestore;
 
     public SyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
         super(context, workerParams);
-        taskDao = AppDatabase.getDatabase(context).taskDao();
+        AppDatabase database = AppDatabase.getDatabase(context);
+        taskDao = database.taskDao();
+        mutationDao = database.mutationDao();
         firestore = FirebaseFirestore.getInstance();
     }
 
+    /**
+     * Programa la subida de la cola offline en cuanto haya conexión.
+     * Llamarlo después de guardar la escritura en Room: si ya hay una subida en curso, esta
+     * se encadena detrás y hace una pasada más, así nada queda en cola sin subir.
+     */
+    public static void enqueue(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest syncRequest = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                UNIQUE_SYNC_WORK_NAME,
+                ExistingWorkPolicy.APPEND_OR_REPLACE,
+                syncRequest
+        );
+    }
+
     @NonNull
     @Override
     public Result doWork() {
         try {
-            // 1. Obtener todas las tareas no sincronizadas
-            List<TaskModel> unsyncedTasks = taskDao.getUnsyncedTasks();
-            if (unsyncedTasks.isEmpty()) {
-                return Result.success(); // No hay nada que hacer
+            // 1. Tareas y propuestas creadas sin conexión
+            uploadUnsyncedTasks();
+
+            // 2. Resto de escrituras (estado, prioridad, subtareas, cupones...), ya fusionadas.
+            // Se repite por si se encolaron más mientras subíamos.
+            while (uploadPendingMutations()) {
+                // sigue
             }
+            return Result.success();
+
+        } catch (ExecutionException | InterruptedException e) {
+            return Result.retry(); // Si algo falla, WorkManager lo reintentará más tarde
+        } finally {
+            MutationOutbox.getInstance().reloadPending();
+        }
+    }
 
-            for (TaskModel task : unsyncedTasks) {
-                // 2. Decidir a qué colección subirla
+    private void uploadUnsyncedTasks() throws ExecutionException, InterruptedException {
+        // 1. Obtener todas las tareas no sincronizadas
+        List<TaskWithSubtasks> unsyncedTasks = taskDao.getUnsyncedTasksWithSubtasks();
+        if (unsyncedTasks.isEmpty()) {
+            return; // No hay nada que hacer
+        }
+
+        // 2. Subir en lotes de hasta 500 escrituras (un round trip por lote)
+        for (int start = 0; start < unsyncedTasks.size(); start += MAX_WRITES_PER_BATCH) {
+            int end = Math.min(start + MAX_WRITES_PER_BATCH, unsyncedTasks.size());
+            WriteBatch batch = firestore.batch();
+            List<String> uploadedIds = new ArrayList<>(end - start);
+
+            for (TaskWithSubtasks row : unsyncedTasks.subList(start, end)) {
+                TaskModel task = row.toModel();
+
+                // Decidir a qué colección subirla
                 String collectionPath = task.isProposal() ? "task_proposals" : "tasks";
 
-                // 3. Subir a Firebase
-                Tasks.await(firestore.collection(collectionPath).add(task));
+                // El ID local es el ID del documento: si se reintenta, se sobrescribe en vez de duplicarse
+                DocumentReference docRef = firestore.collection(collectionPath).document(task.getId());
+                batch.set(docRef, task);
+                uploadedIds.add(task.getId());
+            }
+
+            Tasks.await(batch.commit());
+
+            // 3. Marcar el lote como sincronizado en la base de datos local
+            taskDao.markTasksAsSynced(uploadedIds);
+        }
+    }
+
+    /**
+     * Sube la cola de pending_mutations en lotes de hasta 500 escrituras.
+     * Los updates consecutivos de un mismo documento viajan como una sola escritura.
+     * @return true si había algo que subir.
+     */
+    private boolean uploadPendingMutations() throws ExecutionException, InterruptedException {
+        List<PendingMutation> pending = mutationDao.getAll();
+        if (pending.isEmpty()) return false;
+
+        List<List<PendingMutation>> writes = groupIntoWrites(pending);
+        for (int start = 0; start < writes.size(); start += MAX_WRITES_PER_BATCH) {
+            List<List<PendingMutation>> chunk = writes.subList(start, Math.min(start + MAX_WRITES_PER_BATCH, writes.size()));
+            WriteBatch batch = firestore.batch();
+            for (List<PendingMutation> write : chunk) {
+                // Las que no se pueden armar se borran con el resto del lote
+                addToBatch(batch, write);
+            }
+            try {
+                Tasks.await(batch.commit());
+            } catch (ExecutionException e) {
+                if (!isPermanentFailure(e)) throw e;
+                // Una escritura inválida (p. ej. update de un documento ya borrado) tumba el lote entero:
+                // se suben una a una y se descartan solo las que no pueden aplicarse nunca
+                commitOneByOne(chunk);
+            }
+            mutationDao.deleteByIds(idsOf(chunk));
+        }
+        return true;
+    }
 
-                // 4. Marcar la tarea como sincronizada en la base de datos local
-                taskDao.markTaskAsSynced(task.getId());
+    private void commitOneByOne(List<List<PendingMutation>> writes) throws ExecutionException, InterruptedException {
+        for (List<PendingMutation> write : writes) {
+            WriteBatch batch = firestore.batch();
+            if (!addToBatch(batch, write)) continue;
+            try {
+                Tasks.await(batch.commit());
+            } catch (ExecutionException e) {
+                if (!isPermanentFailure(e)) throw e;
             }
+        }
+    }
 
-            return Result.success();
+    /**
+     * Agrupa la cola en escrituras de Firestore: los updates de un documento se unen
+     * en un solo update mientras no haya un set o delete de ese documento por medio.
+     */
+    private static List<List<PendingMutation>> groupIntoWrites(List<PendingMutation> pending) {
+        List<List<PendingMutation>> writes = new ArrayList<>();
+        Map<String, List<PendingMutation>> openUpdates = new HashMap<>();
+        for (PendingMutation mutation : pending) {
+            if (PendingMutation.TYPE_UPDATE.equals(mutation.type)) {
+                List<PendingMutation> group = openUpdates.get(mutation.documentPath);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    openUpdates.put(mutation.documentPath, group);
+                    writes.add(group);
+                }
+                group.add(mutation);
+            } else {
+                openUpdates.remove(mutation.documentPath);
+                List<PendingMutation> single = new ArrayList<>(1);
+                single.add(mutation);
+                writes.add(single);
+            }
+        }
+        return writes;
+    }
 
-        } catch (ExecutionException | InterruptedException e) {
-            return Result.retry(); // Si algo falla, WorkManager lo reintentará más tarde
+    /**
+     * Añade la escritura al lote. Si no se puede armar (valor que no se decodifica, ruta o
+     * campo inválido) reintentar no la arregla: se descarta, igual que un fallo permanente
+     * de Firestore, para que no bloquee el resto de la cola.
+     * @return false si se descartó.
+     */
+    private boolean addToBatch(WriteBatch batch, List<PendingMutation> write) {
+        try {
+            addWrite(batch, write);
+            return true;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Escritura descartada de la cola: " + write.get(0).documentPath, e);
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addWrite(WriteBatch batch, List<PendingMutation> write) {
+        PendingMutation first = write.get(0);
+        DocumentReference docRef = firestore.document(first.documentPath);
+        switch (first.type) {
+            case PendingMutation.TYPE_DELETE:
+                batch.delete(docRef);
+                break;
+            case PendingMutation.TYPE_SET:
+                batch.set(docRef, (Map<String, Object>) MutationValueCodec.decodeForFirestore(first.valueJson),
+                        SetOptions.merge());
+                break;
+            default:
+                Map<String, Object> updates = new LinkedHashMap<>();
+                for (PendingMutation mutation : write) {
+                    updates.put(mutation.field, MutationValueCodec.decodeForFirestore(mutation.valueJson));
+                }
+                batch.update(docRef, updates);
+                break;
         }
     }
-}
\ No newline at end of file
+
+    private static List<Long> idsOf(List<List<PendingMutation>> writes) {
+        List<Long> ids = new ArrayList<>();
+        for (List<PendingMutation> write : writes) {
+            for (PendingMutation mutation : write) {
+                ids.add(mutation.id);
+            }
+        }
+        return ids;
+    }
+
+    // Errores que no se arreglan reintentando
+    private static boolean isPermanentFailure(ExecutionException e) {
+        if (!(e.getCause() instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e.getCause()).getCode();
+        return code == FirebaseFirestoreException.Code.NOT_FOUND
+                || code == FirebaseFirestoreException.Code.PERMISSION_DENIED
+                || code == FirebaseFirestoreException.Code.INVALID_ARGUMENT;
+    }
+}
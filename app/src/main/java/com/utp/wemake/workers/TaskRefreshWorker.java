@@ -0,0 +1,59 @@
+package com.utp.wemake.workers;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.google.firebase.auth.FirebaseAuth;
+import com.utp.wemake.repository.TaskDeltaSync;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantiene al día la copia local de tareas en segundo plano descargando solo lo que
+ * cambió desde la última vez (ver TaskDeltaSync). Así, al abrir la app, lo que se pinta
+ * desde Room ya está actualizado.
+ */
+public class TaskRefreshWorker extends Worker {
+
+    private static final String UNIQUE_REFRESH_WORK_NAME = "refresh_task_cache";
+
+    public TaskRefreshWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        PeriodicWorkRequest refreshRequest = new PeriodicWorkRequest.Builder(
+                TaskRefreshWorker.class, 1, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                UNIQUE_REFRESH_WORK_NAME,
+                ExistingPeriodicWorkPolicy.KEEP,
+                refreshRequest
+        );
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String userId = FirebaseAuth.getInstance().getUid();
+        if (userId == null) {
+            return Result.success(); // Sin sesión no hay copia local que mantener
+        }
+        try {
+            new TaskDeltaSync(getApplicationContext()).refreshAll(userId);
+            return Result.success();
+        } catch (ExecutionException | InterruptedException e) {
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.utp.wemake.utils;
+
+import com.utp.wemake.constants.TaskConstants;
+import com.utp.wemake.models.TaskModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compara TaskFilterIndex con el filtrado por stream que usaba TasksViewModel.
+ * indexMatchesStreamFilter comprueba que ambos devuelven lo mismo y corre siempre.
+ * benchmarkStreamVsIndex mide con 1k, 10k y 50k tareas el tiempo medio de aplicar todas
+ * las combinaciones de filtros una vez (la construcción del índice aparte); solo corre
+ * si se pide: ./gradlew test -Pbenchmarks=true
+ */
+public class TaskFilterIndexBenchmarkTest {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final String CURRENT_USER = "user-0";
+
+    private static final String[] STATUSES = {
+            TaskConstants.STATUS_PENDING, TaskConstants.STATUS_IN_PROGRESS,
+            TaskConstants.STATUS_IN_REVIEW, TaskConstants.STATUS_COMPLETED};
+    private static final String[] PRIORITIES = {
+            TaskConstants.PRIORITY_LOW, TaskConstants.PRIORITY_MEDIUM, TaskConstants.PRIORITY_HIGH};
+    private static final String[] DUE_FILTERS = {
+            null, TaskFilterIndex.DUE_OVERDUE, TaskFilterIndex.DUE_TODAY,
+            TaskFilterIndex.DUE_TOMORROW, TaskFilterIndex.DUE_THIS_WEEK};
+
+    /** Filtros de la pantalla tal como los guarda el ViewModel. */
+    private static final class Filters {
+        String status;
+        List<String> boardIds = new ArrayList<>();
+        String priority;
+        String assignee;
+        String dueFilter;
+        Set<String> matchingIds;
+    }
+
+    @Test
+    public void indexMatchesStreamFilter() {
+        Random random = new Random(7);
+        List<TaskModel> tasks = generateTasks(2_000, random, System.currentTimeMillis());
+        TaskFilterIndex index = new TaskFilterIndex(tasks);
+        long now = System.currentTimeMillis();
+        for (Filters filters : filterCombinations(tasks, random)) {
+            assertEquals(ids(legacyFilter(tasks, filters, () -> CURRENT_USER, now)),
+                    ids(index.filter(toQuery(filters), now)));
+        }
+    }
+
+    @Test
+    public void benchmarkStreamVsIndex() {
+        assumeTrue("Benchmark manual: ./gradlew test -Pbenchmarks=true", Boolean.getBoolean("benchmarks"));
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            long now = System.currentTimeMillis();
+            List<TaskModel> tasks = generateTasks(size, random, now);
+            List<Filters> combinations = filterCombinations(tasks, random);
+
+            long buildStart = System.nanoTime();
+            TaskFilterIndex index = new TaskFilterIndex(tasks);
+            long buildNanos = System.nanoTime() - buildStart;
+
+            int[] streamTotal = new int[1];
+            long streamNanos = measure(() -> {
+                int total = 0;
+                for (Filters filters : combinations) {
+                    total += legacyFilter(tasks, filters, () -> CURRENT_USER, now).size();
+                }
+                streamTotal[0] = total;
+            });
+            int[] indexTotal = new int[1];
+            long indexNanos = measure(() -> {
+                int total = 0;
+                for (Filters filters : combinations) {
+                    total += index.filter(toQuery(filters), now).size();
+                }
+                indexTotal[0] = total;
+            });
+            // Además de validar, usa el resultado: así el JIT no puede descartar las rondas
+            assertEquals(streamTotal[0], indexTotal[0]);
+
+            System.out.printf("%,d tareas, %d combinaciones: stream %.3f ms, índice %.3f ms (construcción %.3f ms)%n",
+                    size, combinations.size(),
+                    streamNanos / 1e6, indexNanos / 1e6, buildNanos / 1e6);
+        }
+    }
+
+    // Tiempo medio por ronda, tras unas rondas de calentamiento
+    private static long measure(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) round.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) round.run();
+        return (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+
+    private static List<TaskModel> generateTasks(int size, Random random, long now) {
+        List<TaskModel> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TaskModel task = new TaskModel();
+            task.setId("task-" + i);
+            task.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            task.setBoardId("board-" + random.nextInt(12));
+            task.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            int assignees = random.nextInt(4);
+            List<String> members = new ArrayList<>(assignees);
+            for (int a = 0; a < assignees; a++) {
+                members.add("user-" + random.nextInt(20));
+            }
+            task.setAssignedMembers(members);
+            if (random.nextInt(5) != 0) {
+                // Entre 20 días atrás y 20 días adelante, a cualquier hora
+                task.setDeadline(new Date(now + (long) ((random.nextDouble() * 40 - 20) * DAY_MS)));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static List<Filters> filterCombinations(List<TaskModel> tasks, Random random) {
+        List<Filters> combinations = new ArrayList<>();
+        for (String status : new String[]{null, TaskConstants.STATUS_PENDING, TaskConstants.STATUS_COMPLETED}) {
+            for (String dueFilter : DUE_FILTERS) {
+                for (String assignee : new String[]{null, "me", "unassigned", "user-3"}) {
+                    Filters filters = new Filters();
+                    filters.status = status;
+                    filters.dueFilter = dueFilter;
+                    filters.assignee = assignee;
+                    if (random.nextBoolean()) filters.priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+                    if (random.nextBoolean()) filters.boardIds = Arrays.asList("board-1", "board-4", "board-7");
+                    if (random.nextInt(4) == 0) {
+                        // Simula un resultado de búsqueda con un 10% de las tareas
+                        Set<String> matching = new HashSet<>();
+                        for (TaskModel task : tasks) {
+                            if (random.nextInt(10) == 0) matching.add(task.getId());
+                        }
+                        filters.matchingIds = matching;
+                    }
+                    combinations.add(filters);
+                }
+            }
+        }
+        return combinations;
+    }
+
+    private static TaskFilterIndex.Query toQuery(Filters filters) {
+        TaskFilterIndex.Query query = new TaskFilterIndex.Query();
+        query.status = filters.status;
+        query.boardIds = filters.boardIds;
+        query.priority = filters.priority;
+        query.assignee = "me".equals(filters.assignee) ? CURRENT_USER : filters.assignee;
+        query.dueFilter = filters.dueFilter;
+        query.matchingIds = filters.matchingIds;
+        return query;
+    }
+
+    private static List<String> ids(List<TaskModel> tasks) {
+        return tasks.stream().map(TaskModel::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Copia del filtrado anterior de TasksViewModel.applyFilters; currentUser sustituye
+     * a la llamada a FirebaseAuth que se hacía por cada tarea.
+     */
+    private static List<TaskModel> legacyFilter(List<TaskModel> tasks, Filters filters,
+                                                Supplier<String> currentUser, long nowMillis) {
+        return tasks.stream()
+                .filter(task -> {
+                    if (filters.status != null && !filters.status.equals(task.getStatus())) {
+                        return false;
+                    }
+                    if (filters.matchingIds != null && !filters.matchingIds.contains(task.getId())) {
+                        return false;
+                    }
+                    if (!filters.boardIds.isEmpty() &&
+                            (task.getBoardId() == null || !filters.boardIds.contains(task.getBoardId()))) {
+                        return false;
+                    }
+                    if (filters.priority != null && !filters.priority.equals(task.getPriority())) {
+                        return false;
+                    }
+                    if (filters.assignee != null) {
+                        if (filters.assignee.equals("me")) {
+                            String currentUserId = currentUser.get();
+                            if (currentUserId == null ||
+                                    task.getAssignedMembers() == null ||
+                                    !task.getAssignedMembers().contains(currentUserId)) {
+                                return false;
+                            }
+                        } else if (filters.assignee.equals("unassigned")) {
+                            if (task.getAssignedMembers() != null && !task.getAssignedMembers().isEmpty()) {
+                                return false;
+                            }
+                        } else if (task.getAssignedMembers() == null ||
+                                !task.getAssignedMembers().contains(filters.assignee)) {
+                            return false;
+                        }
+                    }
+                    if (filters.dueFilter != null) {
+                        Date now = new Date(nowMillis);
+                        Date taskDeadline = task.getDeadline();
+                        if (taskDeadline == null) return false;
+
+                        switch (filters.dueFilter) {
+                            case "overdue":
+                                if (!taskDeadline.before(now)) return false;
+                                break;
+                            case "today":
+                                if (!isSameDay(taskDeadline, now)) return false;
+                                break;
+                            case "tomorrow":
+                                Date tomorrow = new Date(now.getTime() + 24 * 60 * 60 * 1000);
+                                if (!isSameDay(taskDeadline, tomorrow)) return false;
+                                break;
+                            case "this_week":
+                                Date weekFromNow = new Date(now.getTime() + 7 * 24 * 60 * 60 * 1000);
+                                if (taskDeadline.after(weekFromNow)) return false;
+                                break;
+                        }
+                    }
+                    return true;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isSameDay(Date date1, Date date2) {
+        Calendar cal1 = Calendar.getInstance();
+        Calendar cal2 = Calendar.getInstance();
+        cal1.setTime(date1);
+        cal2.setTime(date2);
+        return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR) &&
+                cal1.get(Calendar.DAY_OF_YEAR) == cal2.get(Calendar.DAY_OF_YEAR);
+    }
+}
@@ -141,7 +141,11 @@ async function applyPenalty(taskRef, taskData) {
   const batch = db.batch();
 
   // A. Marcar la tarea para que no se vuelva a penalizar
-  batch.update(taskRef, {penaltyApplied: true});
+  // updatedAt permite a la app sincronizar solo lo modificado
+  batch.update(taskRef, {
+    penaltyApplied: true,
+    updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+  });
 
   // B. Restar los puntos a cada miembro asignado
   const penalty = taskData.penaltyPoints;
@@ -164,3 +168,123 @@ async function applyPenalty(taskRef, taskData) {
         la penalidad a la tarea ${taskRef.id}:`, error);
   }
 }
+
+/**
+ * Participantes de una tarea: miembros asignados y revisor, sin repetidos.
+ * Debe coincidir con TaskModel.participantsOf en la app.
+ * @param {object} taskData - Los datos del documento de la tarea.
+ * @return {string[]} Los IDs de los participantes.
+ */
+function participantsOf(taskData) {
+  const participants = [];
+  (taskData.assignedMembers || []).forEach((memberId) => {
+    if (memberId && !participants.includes(memberId)) {
+      participants.push(memberId);
+    }
+  });
+  if (taskData.reviewerId && !participants.includes(taskData.reviewerId)) {
+    participants.push(taskData.reviewerId);
+  }
+  return participants;
+}
+
+/**
+ * Indica si el campo 'participants' guardado está al día.
+ * @param {object} taskData - Los datos del documento de la tarea.
+ * @return {boolean} true si no hace falta corregirlo.
+ */
+function participantsUpToDate(taskData) {
+  const stored = taskData.participants || [];
+  const expected = participantsOf(taskData);
+  return stored.length === expected.length &&
+      expected.every((memberId) => stored.includes(memberId));
+}
+
+/**
+ * Campos desnormalizados que le faltan o tiene desfasados una tarea:
+ * 'participants' y, si está completada, 'completedAt' (la app pagina el
+ * historial de completadas ordenando por ese campo).
+ * @param {object} taskData - Los datos del documento de la tarea.
+ * @return {object|null} Los campos a actualizar, o null si está al día.
+ */
+function denormalizedFixes(taskData) {
+  const fixes = {};
+  if (!participantsUpToDate(taskData)) {
+    fixes.participants = participantsOf(taskData);
+  }
+  if (taskData.status === "completed" && !taskData.completedAt) {
+    fixes.completedAt = taskData.approvedAt || taskData.updatedAt ||
+        admin.firestore.FieldValue.serverTimestamp();
+  }
+  if (Object.keys(fixes).length === 0) {
+    return null;
+  }
+  fixes.updatedAt = admin.firestore.FieldValue.serverTimestamp();
+  return fixes;
+}
+
+/**
+ * Mantiene 'participants' y 'completedAt' de cada tarea, la app los usa
+ * en sus consultas. La app ya los escribe; esto cubre escrituras
+ * externas (consola, otras funciones). Si ya está al día no escribe,
+ * así la propia actualización no vuelve a dispararla en bucle.
+ */
+exports.syncTaskParticipants = functions.firestore
+    .document("tasks/{taskId}")
+    .onWrite(async (change, context) => {
+      if (!change.after.exists) {
+        return null;
+      }
+      const fixes = denormalizedFixes(change.after.data());
+      if (!fixes) {
+        return null;
+      }
+      return change.after.ref.update(fixes);
+    });
+
+/**
+ * Rellena 'participants' (y 'completedAt' en las completadas) en las tareas
+ * creadas antes de que existieran.
+ * Se ejecuta una vez tras el despliegue; repetirla solo cuesta lecturas.
+ * Recorre toda la colección, así que solo la puede llamar un usuario con el
+ * claim 'admin'.
+ */
+exports.backfillTaskParticipants = functions.https
+    .onCall(async (data, context) => {
+      if (!context.auth || context.auth.token.admin !== true) {
+        throw new functions.https.HttpsError(
+            "permission-denied",
+            "Solo un administrador puede ejecutar el relleno.");
+      }
+      let updated = 0;
+      let lastDoc = null;
+      for (;;) {
+        let query = db.collection("tasks")
+            .orderBy(admin.firestore.FieldPath.documentId())
+            .limit(400);
+        if (lastDoc) {
+          query = query.startAfter(lastDoc);
+        }
+        const page = await query.get();
+        if (page.empty) {
+          break;
+        }
+
+        const batch = db.batch();
+        let pending = 0;
+        page.forEach((taskDoc) => {
+          const fixes = denormalizedFixes(taskDoc.data());
+          if (fixes) {
+            batch.update(taskDoc.ref, fixes);
+            pending++;
+          }
+        });
+        if (pending > 0) {
+          await batch.commit();
+          updated += pending;
+        }
+        lastDoc = page.docs[page.docs.length - 1];
+      }
+      console.log(`Campos desnormalizados actualizados en ${updated} tareas.`);
+      return {updated};
+    });